@@ -97,6 +97,7 @@ public class LX {
     public boolean sendCueToOutput = false;
     public int engineThreadPriority = Thread.MAX_PRIORITY;
     public String mediaPath = ".";
+    public boolean fixtureCache = true;
     public LXPlugin initialize = null;
   }
 
@@ -106,7 +107,8 @@ public class LX {
     PROJECTS("Projects"),
     MODELS("Models"),
     LOGS("Logs"),
-    DELETED("Deleted");
+    DELETED("Deleted"),
+    CACHE("Cache");
 
     private final String dirName;
 
@@ -119,7 +121,7 @@ public class LX {
     }
 
     private boolean isBootstrap() {
-      return (this != DELETED);
+      return (this != DELETED) && (this != CACHE);
     }
   }
 
@@ -221,6 +223,18 @@ public class LX {
      * @param model model instance
      */
     default public void modelGenerationChanged(LX lx, LXModel model) {}
+
+    /**
+     * Fired after the points in a range of the model have been rebuilt. Points outside
+     * of the range are the same as before and have kept their indices. This follows
+     * {@link #modelChanged(LX, LXModel)}.
+     *
+     * @param lx LX instance
+     * @param model Model instance
+     * @param start Index of the first changed point
+     * @param length Number of changed points
+     */
+    default public void modelRangeChanged(LX lx, LXModel model, int start, int length) {}
   }
 
   private final List<Listener> listeners = new ArrayList<Listener>();
@@ -359,6 +373,11 @@ public class LX {
           listener.modelGenerationChanged(LX.this, model);
         }
       }
+      public void structureRangeChanged(LXModel model, int start, int length) {
+        for (Listener listener : listeners) {
+          listener.modelRangeChanged(LX.this, model, start, length);
+        }
+      }
     });
     LX.initProfiler.log("Model");
 
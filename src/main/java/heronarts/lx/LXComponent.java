@@ -569,7 +569,7 @@ public abstract class LXComponent implements LXPath, LXParameterListener, LXSeri
     return getCanonicalPath();
   }
 
-  private static final String PATH_OSC_QUERY = "osc-query";
+  protected static final String PATH_OSC_QUERY = "osc-query";
 
   /**
    * Handles an OSC message sent to this component. By default this method handles
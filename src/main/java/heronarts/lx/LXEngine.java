@@ -26,27 +26,40 @@ import heronarts.lx.midi.LXMidiEngine;
 import heronarts.lx.mixer.LXBus;
 import heronarts.lx.mixer.LXChannel;
 import heronarts.lx.mixer.LXAbstractChannel;
+import heronarts.lx.mixer.LXGroup;
 import heronarts.lx.mixer.LXMixerEngine;
 import heronarts.lx.model.LXModel;
 import heronarts.lx.modulation.LXModulationContainer;
 import heronarts.lx.modulation.LXModulationEngine;
 import heronarts.lx.osc.LXOscComponent;
 import heronarts.lx.osc.LXOscEngine;
+import heronarts.lx.osc.OscMessage;
+import heronarts.lx.output.DatagramTransport;
 import heronarts.lx.output.LXOutput;
+import heronarts.lx.output.LXOutputDispatcher;
 import heronarts.lx.output.LXOutputGroup;
+import heronarts.lx.output.LXOutputScheduler;
+import heronarts.lx.output.SocketTransport;
 import heronarts.lx.parameter.BooleanParameter;
 import heronarts.lx.parameter.BoundedParameter;
+import heronarts.lx.parameter.DiscreteParameter;
+import heronarts.lx.parameter.EnumParameter;
 import heronarts.lx.parameter.LXParameter;
+import heronarts.lx.parameter.StringParameter;
 import heronarts.lx.pattern.LXPattern;
 import heronarts.lx.snapshot.LXSnapshotEngine;
 import heronarts.lx.structure.LXFixture;
+import heronarts.lx.utils.LatencyHistogram;
+import heronarts.lx.utils.MpscQueue;
 
+import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import com.google.gson.JsonObject;
 
@@ -74,11 +87,15 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
   public final LXOscEngine osc;
 
+  /**
+   * Shared pool used by patterns and effects that render their points in parallel
+   */
+  public final LXRenderPool renderPool = new LXRenderPool();
+
   private Dispatch inputDispatch = null;
 
   private final List<LXLoopTask> loopTasks = new ArrayList<LXLoopTask>();
-  private final List<Runnable> threadSafeTaskQueue = Collections.synchronizedList(new ArrayList<Runnable>());
-  private final List<Runnable> engineThreadTaskQueue = new ArrayList<Runnable>();
+  private final MpscQueue<Runnable> taskQueue = new MpscQueue<Runnable>();
 
   public final Output output;
 
@@ -87,6 +104,39 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     .setMappable(false)
     .setDescription("Number of frames per second the engine runs at");
 
+  /**
+   * Policy applied by the engine thread when a frame misses its deadline
+   */
+  public enum FramePacing {
+    /**
+     * Late frames are dropped, the next frame is scheduled on the next deadline
+     * that has not yet passed.
+     */
+    SKIP("Skip"),
+
+    /**
+     * Late frames are rendered back-to-back until the engine is on schedule again,
+     * up to a limit of a few frames, beyond which they are dropped.
+     */
+    CATCH_UP("Catch-up");
+
+    public final String label;
+
+    private FramePacing(String label) {
+      this.label = label;
+    }
+
+    @Override
+    public String toString() {
+      return this.label;
+    }
+  }
+
+  public final EnumParameter<FramePacing> framePacing =
+    new EnumParameter<FramePacing>("Frame Pacing", FramePacing.SKIP)
+    .setMappable(false)
+    .setDescription("How the engine handles frames that miss their deadline");
+
   public final BoundedParameter speed =
     new BoundedParameter("Speed", 1, 0, 2)
     .setDescription("Overall speed adjustement to the entire engine (does not apply to master tempo and audio)");
@@ -102,12 +152,87 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
   private float actualFrameRate = 0;
   private float cpuLoad = 0;
 
+  /**
+   * Statistics on the interval between the start of successive frames on the
+   * engine thread, sampled over a short window. All values are in milliseconds.
+   */
+  public static class FrameTiming {
+    public float targetMs = 0;
+    public float minMs = 0;
+    public float avgMs = 0;
+    public float maxMs = 0;
+    public float p50Ms = 0;
+    public float p95Ms = 0;
+    public float p99Ms = 0;
+
+    /**
+     * Mean absolute deviation of the frame interval from the target interval
+     */
+    public float jitterMs = 0;
+  }
+
+  private final FrameTiming frameTiming = new FrameTiming();
+
   public class Output extends LXOutputGroup implements LXOscComponent {
 
     public final BooleanParameter restricted =
       new BooleanParameter("Restricted", false)
       .setDescription("Whether output is restricted due to license restrictions");
 
+    /**
+     * Dispatcher which spreads datagram sending across worker threads
+     */
+    public final LXOutputDispatcher dispatcher = new LXOutputDispatcher();
+
+    /**
+     * Scheduler for outputs that have a frame rate limit
+     */
+    public final LXOutputScheduler scheduler = new LXOutputScheduler();
+
+    /**
+     * Transport that datagrams without a socket of their own are sent through
+     */
+    public final DatagramTransport transport = new DatagramTransport();
+
+    /**
+     * Transport that TCP socket outputs connect through
+     */
+    public final SocketTransport socketTransport = new SocketTransport();
+
+    public final DiscreteParameter senderThreads = (DiscreteParameter)
+      new DiscreteParameter("Sender Threads", 1, 1, 33)
+      .setMappable(false)
+      .setDescription("Number of threads that datagrams are sent from, partitioned by destination");
+
+    /**
+     * Whether datagrams whose contents are unchanged since they were last sent are
+     * suppressed, rather than being sent again every frame
+     */
+    public final BooleanParameter deltaMode = (BooleanParameter)
+      new BooleanParameter("Delta Mode", false)
+      .setMappable(false)
+      .setDescription("Only send datagrams whose contents have changed, plus periodic keep-alives");
+
+    /**
+     * Interval after which an unchanged datagram is sent anyway in delta mode, so
+     * that receiving nodes do not time out
+     */
+    public final BoundedParameter keepAlive = (BoundedParameter)
+      new BoundedParameter("Keep Alive", 1000, 50, 10000)
+      .setMappable(false)
+      .setUnits(LXParameter.Units.MILLISECONDS)
+      .setDescription("Interval at which unchanged datagrams are re-sent in delta mode");
+
+    /**
+     * Name of the network interface that multicast datagrams are sent from, empty
+     * for the system default
+     */
+    public final StringParameter multicastInterface =
+      new StringParameter("Multicast Interface", "")
+      .setDescription("Name of the network interface that multicast datagrams are sent from, blank for the system default");
+
+    private volatile NetworkInterface multicastNetworkInterface = null;
+
     /**
      * This ModelOutput helper is used for sending dynamic datagrams that are
      * specified in the model. Any time the model is changed, this set will be
@@ -152,6 +277,28 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
     Output(LX lx) {
       super(lx);
+      addParameter("senderThreads", this.senderThreads);
+      addParameter("deltaMode", this.deltaMode);
+      addParameter("keepAlive", this.keepAlive);
+      addParameter("multicastInterface", this.multicastInterface);
+      this.multicastInterface.addListener((p) -> {
+        String name = this.multicastInterface.getString();
+        NetworkInterface networkInterface = null;
+        if (name != null && !name.trim().isEmpty()) {
+          try {
+            networkInterface = NetworkInterface.getByName(name.trim());
+            if (networkInterface == null) {
+              LXOutput.error("Unknown multicast network interface, using system default: " + name);
+            }
+          } catch (SocketException sx) {
+            LXOutput.error(sx, "Could not look up multicast network interface: " + name);
+          }
+        }
+        this.multicastNetworkInterface = networkInterface;
+      });
+      this.senderThreads.addListener((p) -> {
+        this.dispatcher.setNumWorkers(this.senderThreads.getValuei());
+      });
       this.restricted.addListener((p) -> {
         if (this.restricted.isOn()) {
           int myPoints = lx.model.size;
@@ -168,13 +315,33 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
       }
     }
 
+    /**
+     * Gets the network interface that multicast datagrams are sent from
+     *
+     * @return Network interface, or null for the system default
+     */
+    public NetworkInterface getMulticastInterface() {
+      return this.multicastNetworkInterface;
+    }
+
     @Override
     public LXOutput send(int[] colors) {
+      this.scheduler.frame(System.nanoTime());
       if (!this.restricted.isOn()) {
-        super.send(colors);
+        send(colors, 1.);
       }
       return this;
     }
+
+    @Override
+    protected void onSend(int[] colors, double brightness) {
+      this.dispatcher.begin();
+      try {
+        super.onSend(colors, brightness);
+      } finally {
+        this.dispatcher.finish();
+      }
+    }
   }
 
   public interface Dispatch {
@@ -185,9 +352,77 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     public long runNanos = 0;
     public long channelNanos = 0;
     public long inputNanos = 0;
+
+    /**
+     * Time spent blending the channels down in the mixer. Functional blends are
+     * queued by each channel and applied together, so most of the cost of blending
+     * is recorded here rather than in the per-channel blend times.
+     */
+    public long blendNanos = 0;
+
     public long midiNanos = 0;
     public long oscNanos = 0;
+    public long schedulerNanos = 0;
+    public long modulationNanos = 0;
     public long outputNanos = 0;
+
+    public final LatencyHistogram runHistogram = new LatencyHistogram();
+    public final LatencyHistogram channelHistogram = new LatencyHistogram();
+    public final LatencyHistogram blendHistogram = new LatencyHistogram();
+    public final LatencyHistogram inputHistogram = new LatencyHistogram();
+    public final LatencyHistogram midiHistogram = new LatencyHistogram();
+    public final LatencyHistogram oscHistogram = new LatencyHistogram();
+    public final LatencyHistogram schedulerHistogram = new LatencyHistogram();
+    public final LatencyHistogram modulationHistogram = new LatencyHistogram();
+    public final LatencyHistogram outputHistogram = new LatencyHistogram();
+
+    private static final String PATH_RUN = "run";
+    private static final String PATH_CHANNELS = "channels";
+    private static final String PATH_INPUT = "input";
+    private static final String PATH_MIDI = "midi";
+    private static final String PATH_OSC = "osc";
+    private static final String PATH_SCHEDULER = "scheduler";
+    private static final String PATH_MODULATION = "modulation";
+    private static final String PATH_OUTPUT = "output";
+    private static final String PATH_MASTER = "master";
+    private static final String PATH_LOOP = "loop";
+    private static final String PATH_BLEND = "blend";
+    private static final String PATH_EFFECT = "effect";
+    private static final String PATH_COMPOSITE = "composite";
+
+    private void oscQuery(String prefix) {
+      oscQuery(prefix + "/" + PATH_RUN, this.runHistogram);
+      oscQuery(prefix + "/" + PATH_CHANNELS, this.channelHistogram);
+      oscQuery(prefix + "/" + PATH_BLEND, this.blendHistogram);
+      oscQuery(prefix + "/" + PATH_INPUT, this.inputHistogram);
+      oscQuery(prefix + "/" + PATH_MIDI, this.midiHistogram);
+      oscQuery(prefix + "/" + PATH_OSC, this.oscHistogram);
+      oscQuery(prefix + "/" + PATH_SCHEDULER, this.schedulerHistogram);
+      oscQuery(prefix + "/" + PATH_MODULATION, this.modulationHistogram);
+      oscQuery(prefix + "/" + PATH_OUTPUT, this.outputHistogram);
+
+      LXBus.Profiler master = (LXBus.Profiler) mixer.masterBus.profiler;
+      oscQuery(prefix + "/" + PATH_MASTER + "/" + PATH_LOOP, master.loopHistogram);
+      oscQuery(prefix + "/" + PATH_MASTER + "/" + PATH_EFFECT, master.effectHistogram);
+
+      for (LXAbstractChannel channel : mixer.channels) {
+        String channelPrefix = prefix + "/" + LXMixerEngine.PATH_CHANNEL + "/" + (channel.getIndex() + 1);
+        LXAbstractChannel.Profiler profiler = (LXAbstractChannel.Profiler) channel.profiler;
+        oscQuery(channelPrefix + "/" + PATH_LOOP, profiler.loopHistogram);
+        oscQuery(channelPrefix + "/" + PATH_BLEND, profiler.blendHistogram);
+        oscQuery(channelPrefix + "/" + PATH_EFFECT, profiler.effectHistogram);
+        if (profiler instanceof LXGroup.Profiler) {
+          oscQuery(channelPrefix + "/" + PATH_COMPOSITE, ((LXGroup.Profiler) profiler).compositeHistogram);
+        }
+      }
+    }
+
+    private void oscQuery(String address, LatencyHistogram histogram) {
+      osc.sendMessage(address + "/p50", histogram.getPercentileMs(50));
+      osc.sendMessage(address + "/p95", histogram.getPercentileMs(95));
+      osc.sendMessage(address + "/p99", histogram.getPercentileMs(99));
+      osc.sendMessage(address + "/max", histogram.getMaxMs());
+    }
   }
 
   public final Profiler profiler = new Profiler();
@@ -201,6 +436,10 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     private int[] main = null;
     private int[] cue = null;
     private boolean cueOn = false;
+    private long sequence = 0;
+
+    // Number of readers currently holding this frame
+    private final AtomicInteger readers = new AtomicInteger(0);
 
     public Frame(LX lx) {
       setModel(lx.getModel());
@@ -221,6 +460,7 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     public void copyFrom(Frame that) {
       setModel(that.model);
       this.cueOn = that.cueOn;
+      this.sequence = that.sequence;
       System.arraycopy(that.main, 0, this.main, 0, this.main.length);
       System.arraycopy(that.cue, 0, this.cue, 0, this.cue.length);
     }
@@ -245,41 +485,232 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     public int[] getCue() {
       return this.cue;
     }
+
+    /**
+     * Sequence number of the engine frame that was rendered into this buffer. Frame
+     * numbers increase by one for every frame the engine completes, so consumers may
+     * compare against the last sequence they saw to detect dropped or repeated frames.
+     *
+     * @return Frame sequence number
+     */
+    public long getSequence() {
+      return this.sequence;
+    }
   }
 
-  // A double buffer that holds two frames which are flipped back and forth such that
-  // the engine thread may render into one of them while UI or networking threads may
-  // copy off the contents of another
-  class DoubleBuffer {
+  // A lock-free exchange of frames between the engine thread and the UI or networking
+  // threads. The engine renders into a private frame, then publishes it as the latest
+  // frame with a single atomic write. Readers take a reference on the latest frame and
+  // read it in place. The engine never renders into a frame that is held by a reader,
+  // and allocates an additional frame in the rare case that every spare is held.
+  class TripleBuffer {
+
+    private static final int NUM_FRAMES = 3;
+
+    // Only ever modified by the engine thread
+    private Frame[] frames;
 
     // Frame buffer that is currently used by the engine to render
     Frame render;
 
-    // Complete buffer that may be copied off for UI or networking while engine
-    // works on the other buffer.
-    Frame copy;
+    // The most recently completed frame
+    private final AtomicReference<Frame> latest;
 
-    DoubleBuffer(LX lx) {
-      this.render = new Frame(lx);
-      this.copy = new Frame(lx);
+    private long sequence = 0;
+
+    TripleBuffer(LX lx) {
+      this.frames = new Frame[NUM_FRAMES];
+      for (int i = 0; i < NUM_FRAMES; ++i) {
+        this.frames[i] = new Frame(lx);
+      }
+      this.latest = new AtomicReference<Frame>(this.frames[0]);
+      this.render = this.frames[1];
     }
 
-    synchronized void sync() {
-      this.copy.copyFrom(this.render);
+    // Invoked by the engine thread to find a frame to render into
+    Frame claim(LXModel model) {
+      Frame latest = this.latest.get();
+      Frame claim = null;
+      for (Frame frame : this.frames) {
+        if ((frame != latest) && (frame.readers.get() == 0)) {
+          claim = frame;
+          break;
+        }
+      }
+      if (claim == null) {
+        // All spare frames are held by readers, make another
+        claim = new Frame(lx);
+        Frame[] frames = new Frame[this.frames.length + 1];
+        System.arraycopy(this.frames, 0, frames, 0, this.frames.length);
+        frames[this.frames.length] = claim;
+        this.frames = frames;
+      }
+      claim.setModel(model);
+      this.render = claim;
+      return claim;
     }
 
-    synchronized void flip() {
-      Frame tmp = this.render;
-      this.render = this.copy;
-      this.copy = tmp;
+    // Invoked by the engine thread once rendering is complete
+    void publish() {
+      this.render.sequence = ++this.sequence;
+      this.latest.set(this.render);
     }
 
-    synchronized void copyTo(Frame that) {
-      that.copyFrom(this.copy);
+    Frame acquire() {
+      while (true) {
+        Frame frame = this.latest.get();
+        frame.readers.incrementAndGet();
+        if (frame == this.latest.get()) {
+          // The engine never claims the latest frame, and it can't claim it
+          // now that we hold a reference. Safe to read.
+          return frame;
+        }
+        // Engine published in between and may have claimed this frame, retry
+        frame.readers.decrementAndGet();
+      }
+    }
+
+    void release(Frame frame) {
+      if (frame.readers.decrementAndGet() < 0) {
+        frame.readers.incrementAndGet();
+        throw new IllegalStateException("Released LXEngine.Frame that was not acquired");
+      }
+    }
+
+    long getSequence() {
+      return this.latest.get().sequence;
     }
   }
 
-  private final DoubleBuffer buffer;
+  private final TripleBuffer buffer;
+
+  // Compiled form of the mute/identify/solo state of all the fixtures. Holds one
+  // entry per point, and is only rebuilt when the fixture state or the model changes,
+  // so that applying it costs a single pass over the frame regardless of how many
+  // fixtures are muted or soloed.
+  private class FixtureMask {
+
+    private static final byte PASS = 0;
+    private static final byte BLACK = 1;
+    private static final byte IDENTIFY = 2;
+
+    private static final int FLAG_MUTE = 1;
+    private static final int FLAG_IDENTIFY = 2;
+    private static final int FLAG_SOLO = 4;
+
+    private byte[] mask = new byte[0];
+
+    // Whether any point is not PASS, if not there is nothing to apply
+    private boolean isActive = false;
+
+    // Fixture state that the mask was compiled from
+    private int numFixtures = -1;
+    private int[] fixtureState = new int[0];
+    private LXModel model = null;
+    private int modelGeneration = -1;
+
+    // Invoked by the engine thread once per frame, compiles the mask if anything
+    // has changed since the last frame. Checking costs a few reads per fixture.
+    private void update(LXModel model, List<LXFixture> fixtures) {
+      boolean changed =
+        (this.model != model) ||
+        (this.modelGeneration != model.getGeneration()) ||
+        (this.mask.length != model.size) ||
+        (this.numFixtures != fixtures.size());
+
+      int numFixtures = fixtures.size();
+      if (this.fixtureState.length < numFixtures * 3) {
+        this.fixtureState = Arrays.copyOf(this.fixtureState, numFixtures * 3);
+        changed = true;
+      }
+      int i = 0;
+      for (LXFixture fixture : fixtures) {
+        int flags =
+          (fixture.mute.isOn() ? FLAG_MUTE : 0) |
+          (fixture.identify.isOn() ? FLAG_IDENTIFY : 0) |
+          (fixture.solo.isOn() ? FLAG_SOLO : 0);
+        int offset = fixture.getIndexBufferOffset();
+        int size = (flags == 0) ? 0 : fixture.totalSize();
+        if ((this.fixtureState[i] != flags) ||
+            (this.fixtureState[i+1] != offset) ||
+            (this.fixtureState[i+2] != size)) {
+          this.fixtureState[i] = flags;
+          this.fixtureState[i+1] = offset;
+          this.fixtureState[i+2] = size;
+          changed = true;
+        }
+        i += 3;
+      }
+
+      if (changed) {
+        this.model = model;
+        this.modelGeneration = model.getGeneration();
+        this.numFixtures = numFixtures;
+        compile(model.size);
+      }
+    }
+
+    private void compile(int size) {
+      if (this.mask.length != size) {
+        this.mask = new byte[size];
+      } else {
+        Arrays.fill(this.mask, PASS);
+      }
+
+      // Fixtures are applied in order, so that this matches applying each fixture's
+      // state directly to the colors. A solo blackens everything outside of its
+      // fixture, so multiple solos leave only their overlap, and an identify on a
+      // later fixture still shows outside of an earlier solo.
+      for (int f = 0; f < this.numFixtures; ++f) {
+        int flags = this.fixtureState[f*3];
+        int start = this.fixtureState[f*3 + 1];
+        int end = Math.min(size, start + this.fixtureState[f*3 + 2]);
+        if (end <= start) {
+          continue;
+        }
+        if ((flags & FLAG_MUTE) != 0) {
+          Arrays.fill(this.mask, start, end, BLACK);
+        } else if ((flags & FLAG_IDENTIFY) != 0) {
+          Arrays.fill(this.mask, start, end, IDENTIFY);
+        }
+        if ((flags & FLAG_SOLO) != 0) {
+          Arrays.fill(this.mask, 0, start, BLACK);
+          Arrays.fill(this.mask, end, size, BLACK);
+        }
+      }
+
+      this.isActive = false;
+      for (byte b : this.mask) {
+        if (b != PASS) {
+          this.isActive = true;
+          break;
+        }
+      }
+    }
+
+    // Applies the mask to both the main and cue buffers in a single pass
+    private void apply(int[] main, int[] cue, int identifyColor) {
+      if (!this.isActive) {
+        return;
+      }
+      final byte[] mask = this.mask;
+      final int length = Math.min(mask.length, main.length);
+      for (int i = 0; i < length; ++i) {
+        switch (mask[i]) {
+        case BLACK:
+          main[i] = LXColor.BLACK;
+          cue[i] = LXColor.BLACK;
+          break;
+        case IDENTIFY:
+          main[i] = identifyColor;
+          cue[i] = identifyColor;
+          break;
+        }
+      }
+    }
+  }
+
+  private final FixtureMask fixtureMask = new FixtureMask();
 
   public final BooleanParameter isMultithreaded = (BooleanParameter)
     new BooleanParameter("Threaded", false)
@@ -305,8 +736,8 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
   private boolean paused = false;
 
-  private static final long INIT_RUN = -1;
-  private long lastMillis = INIT_RUN;
+  private long lastNanos = 0;
+  private boolean hasLastNanos = false;
 
   private double fixedDeltaMs = 0;
 
@@ -319,8 +750,8 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     super(lx, LXComponent.ID_ENGINE, "Engine");
     LX.initProfiler.log("Engine: Init");
 
-    // Initialize double-buffer of frame contents
-    this.buffer = new DoubleBuffer(lx);
+    // Initialize triple-buffer of frame contents
+    this.buffer = new TripleBuffer(lx);
 
     // Initialize network thread (don't start it yet)
     this.networkThread = new NetworkThread(lx);
@@ -376,9 +807,31 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     addParameter("channelMultithreaded", this.isChannelMultithreaded);
     addParameter("networkMultithreaded", this.isNetworkMultithreaded);
     addParameter("framesPerSecond", this.framesPerSecond);
+    addParameter("framePacing", this.framePacing);
     addParameter("speed", this.speed);
   }
 
+  private static final String PATH_PROFILER = "profiler";
+
+  /**
+   * Handles the OSC query path for the profiler. Sending any message to
+   * /lx/profiler/osc-query results in the p50/p95/p99/max of every frame phase
+   * being sent back, in milliseconds, e.g. /lx/profiler/run/p99 or
+   * /lx/profiler/channel/1/blend/max
+   */
+  @Override
+  public boolean handleOscMessage(OscMessage message, String[] parts, int index) {
+    if (parts[index].equals(PATH_PROFILER)) {
+      if ((parts.length > index + 1) && parts[index + 1].equals(LXComponent.PATH_OSC_QUERY)) {
+        this.profiler.oscQuery(getOscAddress() + "/" + PATH_PROFILER);
+        return true;
+      }
+      LXOscEngine.error("Invalid profiler OSC path: " + message);
+      return false;
+    }
+    return super.handleOscMessage(message, parts, index);
+  }
+
   public void logProfiler() {
     this.logProfiler = true;
   }
@@ -398,7 +851,6 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     super.onParameterChanged(p);
     if (p == this.isNetworkMultithreaded) {
       if (this.isNetworkMultithreaded.isOn()) {
-        this.buffer.sync();
         if (!this.isNetworkThreadStarted) {
           this.isNetworkThreadStarted = true;
           this.networkThread.start();
@@ -421,6 +873,25 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     return this.actualFrameRate;
   }
 
+  /**
+   * Gets statistics on the frame-to-frame timing of the engine when in threaded mode
+   *
+   * @return Frame timing statistics
+   */
+  public FrameTiming getFrameTiming() {
+    return this.frameTiming;
+  }
+
+  /**
+   * Gets the System.nanoTime() at which the engine began running its most recent
+   * frame. Read from within a frame, this is the start of the current frame.
+   *
+   * @return Start time of the most recent frame, in nanoseconds
+   */
+  public long getRunStartNanos() {
+    return this.lastNanos;
+  }
+
   /**
    * Gets a very rough estimate of the CPU load the engine is using
    * before maxing out.
@@ -509,132 +980,200 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
       throw new IllegalStateException("Cannot set thread state to current state: " + threaded);
     }
     if (!threaded) {
-      if (Thread.currentThread() == this.engineThread.thread) {
+      if (Thread.currentThread() == this.engineThread) {
         throw new IllegalStateException("Cannot call to stop engine thread from itself");
       }
 
       // Tell the engine thread to stop
-      this.engineThread.stop();
+      this.engineThread.stopRunning();
       try {
         // Wait for it to finish
-        this.engineThread.thread.join();
+        this.engineThread.join();
       } catch (InterruptedException ix) {
         throw new IllegalThreadStateException("Interrupted waiting to join LXEngine thread");
       }
       this.engineThread = null;
 
+      // Nothing should be re-sent in between frames that aren't running
+      this.output.scheduler.park();
+
     } else {
-      // Synchronize the two buffers, flip so that the engine thread doesn't start
-      // rendering over the top of the buffer that the UI thread might be currently
-      // working on drawing.
-      this.buffer.sync();
-      this.buffer.flip();
       this.engineThread = new EngineThread();
       this.engineThread.start();
     }
   }
 
-  private class EngineThread extends Timer {
+  private class EngineThread extends Thread {
 
     public static final String THREAD_NAME = "LXEngine Core Thread";
 
-    private class InitSemaphore {
-      boolean hasThread = false;
-    }
+    // How often input events are processed, independent of the frame rate
+    private static final long INPUT_PERIOD_NANOS = 16000000;
+
+    // Remaining time before a deadline at which we stop sleeping and spin instead,
+    // sleeps are not accurate enough to hit a deadline at this granularity
+    private static final long SPIN_THRESHOLD_NANOS = 1500000;
+
+    // Maximum number of frames that may be rendered back-to-back to catch up
+    private static final int MAX_CATCH_UP_FRAMES = 4;
+
+    // Number of frame intervals kept for timing statistics
+    private static final int TIMING_SAMPLES = 1024;
+
+    // How often performance statistics are sampled
+    private static final long SAMPLE_PERIOD_NANOS = 500000000;
+
+    private volatile boolean isRunning = false;
 
-    private final InitSemaphore initSemaphore = new InitSemaphore();
+    private volatile long periodNanos;
 
-    private Thread thread;
-    private RenderTask renderTask;
+    private final long[] intervals = new long[TIMING_SAMPLES];
+    private final long[] sortedIntervals = new long[TIMING_SAMPLES];
+    private int intervalCount = 0;
+
+    private int sampleCount = 0;
+    private long lastSampleTime;
+    private long lastFrameStart = 0;
+    private boolean hasLastFrame = false;
+    private long cpuNanos = 0;
 
     private EngineThread() {
       super(THREAD_NAME);
-      schedule(new TimerTask() {
-        @Override
-        public void run() {
-          thread = Thread.currentThread();
-          thread.setPriority(lx.flags.engineThreadPriority);
-          synchronized (initSemaphore) {
-            initSemaphore.hasThread = true;
-            initSemaphore.notify();
-          }
-        }
-      }, 0);
-      waitForThreadStart();
+      setPriority(lx.flags.engineThreadPriority);
+      updateFramerate();
     }
 
-    private void waitForThreadStart() {
-      synchronized (this.initSemaphore) {
-        if (!this.initSemaphore.hasThread) {
-          try {
-            this.initSemaphore.wait();
-          } catch (InterruptedException ix) {
-            // Why the fuck? Can't happen...
-            throw new RuntimeException(ix);
-          }
-        }
-      }
-    }
-
-    private boolean isRunning = false;
-
     private void updateFramerate() {
-      if (this.isRunning) {
-        this.renderTask.cancel();
-        long period = (long) (1000.f / framesPerSecond.getValuef());
-        scheduleAtFixedRate(this.renderTask = new RenderTask(), period, period);
-      }
+      float fps = framesPerSecond.getValuef();
+      this.periodNanos = (fps > 0) ? (long) (1000000000. / fps) : 0;
+      LockSupport.unpark(this);
     }
 
-    private void start() {
+    @Override
+    public synchronized void start() {
       if (this.isRunning) {
         throw new IllegalStateException("May not start already running EngineThread");
       }
       this.isRunning = true;
-      LX.log(this.thread.getName() + " starting.");
-      scheduleAtFixedRate(this.renderTask = new RenderTask(), 0, (long) (1000.f / framesPerSecond.getValuef()));
-      scheduleAtFixedRate(new TimerTask() {
-        @Override
-        public void run() {
-          processInputEvents();
-        }
-      }, 0, 16);
+      super.start();
     }
 
-    private void stop() {
+    private void stopRunning() {
       if (!this.isRunning) {
         throw new IllegalStateException("Can not stop a non-running EngineThread");
       }
-      cancel();
       this.isRunning = false;
-      LX.log(this.thread.getName() + " stopped.");
+      LockSupport.unpark(this);
     }
 
-    private class RenderTask extends TimerTask {
+    @Override
+    public void run() {
+      LX.log(getName() + " starting.");
 
-      private int sampleCount = 0;
-      private long lastSampleTime = System.currentTimeMillis();
-      private long cpuTime = 0;
+      long now = System.nanoTime();
+      long nextFrame = now;
+      long nextInput = now;
+      int catchUpFrames = 0;
+      this.lastSampleTime = now;
 
-      @Override
-      public void run() {
-        long frameStart = System.currentTimeMillis();
-        LXEngine.this.run(true);
-        long frameEnd = System.currentTimeMillis();
-        this.cpuTime += (frameEnd - frameStart);
-        ++this.sampleCount;
-
-
-        // Sample the real performance of the engine every 500ms
-        if (frameEnd - this.lastSampleTime > 500) {
-          cpuLoad = this.cpuTime * framesPerSecond.getValuef() / 1000f / this.sampleCount;
-          actualFrameRate = 1000f * this.sampleCount / (frameEnd - this.lastSampleTime);
-          this.sampleCount = 0;
-          this.cpuTime = 0;
-          this.lastSampleTime = frameEnd;
+      while (this.isRunning) {
+        now = System.nanoTime();
+        if (now - nextInput >= 0) {
+          processInputEvents();
+          nextInput = now + INPUT_PERIOD_NANOS;
+        }
+
+        long periodNanos = this.periodNanos;
+        if (periodNanos <= 0) {
+          // Frame rate of zero, just keep processing input
+          nextFrame = now;
+          LockSupport.parkNanos(this, INPUT_PERIOD_NANOS);
+          continue;
+        }
+
+        if (now - nextFrame >= 0) {
+          renderFrame(now, periodNanos);
+          nextFrame += periodNanos;
+
+          long behind = System.nanoTime() - nextFrame;
+          if (behind >= 0) {
+            if ((framePacing.getEnum() == FramePacing.CATCH_UP) && (catchUpFrames < MAX_CATCH_UP_FRAMES)) {
+              // Render the next frame immediately
+              ++catchUpFrames;
+            } else {
+              // Drop the missed frames, staying in phase with the original deadlines
+              nextFrame += (behind / periodNanos + 1) * periodNanos;
+              catchUpFrames = 0;
+            }
+          } else {
+            catchUpFrames = 0;
+          }
+          continue;
         }
+
+        // Sleep until we're close to the next deadline, then spin the rest of the way
+        long wakeup = (nextInput - nextFrame < 0) ? nextInput : nextFrame;
+        long remaining = wakeup - System.nanoTime();
+        if (remaining > SPIN_THRESHOLD_NANOS) {
+          LockSupport.parkNanos(this, remaining - SPIN_THRESHOLD_NANOS);
+        } else if (remaining > 0) {
+          Thread.yield();
+        }
+      }
+
+      LX.log(getName() + " stopped.");
+    }
+
+    private void renderFrame(long frameStart, long periodNanos) {
+      if (this.hasLastFrame) {
+        this.intervals[this.intervalCount % TIMING_SAMPLES] = frameStart - this.lastFrameStart;
+        ++this.intervalCount;
+      }
+      this.lastFrameStart = frameStart;
+      this.hasLastFrame = true;
+
+      LXEngine.this.run(true);
+
+      long frameEnd = System.nanoTime();
+      this.cpuNanos += (frameEnd - frameStart);
+      ++this.sampleCount;
+
+      // Sample the real performance of the engine every 500ms
+      long sampleNanos = frameEnd - this.lastSampleTime;
+      if (sampleNanos > SAMPLE_PERIOD_NANOS) {
+        cpuLoad = (float) this.cpuNanos / periodNanos / this.sampleCount;
+        actualFrameRate = 1000000000f * this.sampleCount / sampleNanos;
+        updateFrameTiming(periodNanos);
+        this.sampleCount = 0;
+        this.cpuNanos = 0;
+        this.lastSampleTime = frameEnd;
+      }
+    }
+
+    private void updateFrameTiming(long periodNanos) {
+      int count = Math.min(this.intervalCount, TIMING_SAMPLES);
+      this.intervalCount = 0;
+      if (count == 0) {
+        return;
       }
-    };
+      long sum = 0;
+      long deviation = 0;
+      for (int i = 0; i < count; ++i) {
+        long interval = this.intervals[i];
+        this.sortedIntervals[i] = interval;
+        sum += interval;
+        deviation += Math.abs(interval - periodNanos);
+      }
+      Arrays.sort(this.sortedIntervals, 0, count);
+      frameTiming.targetMs = periodNanos / 1000000f;
+      frameTiming.minMs = this.sortedIntervals[0] / 1000000f;
+      frameTiming.maxMs = this.sortedIntervals[count - 1] / 1000000f;
+      frameTiming.avgMs = sum / count / 1000000f;
+      frameTiming.p50Ms = this.sortedIntervals[(int) (.50 * (count - 1))] / 1000000f;
+      frameTiming.p95Ms = this.sortedIntervals[(int) (.95 * (count - 1))] / 1000000f;
+      frameTiming.p99Ms = this.sortedIntervals[(int) (.99 * (count - 1))] / 1000000f;
+      frameTiming.jitterMs = deviation / count / 1000000f;
+    }
   }
 
   /**
@@ -686,7 +1225,7 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
    * @return this
    */
   public LXEngine addTask(Runnable runnable) {
-    this.threadSafeTaskQueue.add(runnable);
+    this.taskQueue.add(runnable);
     return this;
   }
 
@@ -760,12 +1299,12 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     // Process MIDI events
     long midiStart = System.nanoTime();
     this.midi.dispatch();
-    this.profiler.midiNanos = System.nanoTime() - midiStart;
+    this.profiler.midiNanos = this.profiler.midiHistogram.record(midiStart, System.nanoTime());
 
     // Process OSC events
     long oscStart = System.nanoTime();
     this.osc.dispatch();
-    this.profiler.oscNanos = System.nanoTime() - oscStart;
+    this.profiler.oscNanos = this.profiler.oscHistogram.record(oscStart, System.nanoTime());
 
     // Process UI input events
     if (this.inputDispatch == null) {
@@ -773,7 +1312,7 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     } else {
       long inputStart = System.nanoTime();
       this.inputDispatch.dispatch();
-      this.profiler.inputNanos = System.nanoTime() - inputStart;
+      this.profiler.inputNanos = this.profiler.inputHistogram.record(inputStart, System.nanoTime());
     }
   }
 
@@ -783,14 +1322,15 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
     long runStart = System.nanoTime();
 
-    // Compute elapsed time
+    // Compute elapsed time, at sub-millisecond precision
     this.nowMillis = System.currentTimeMillis();
-    if (this.lastMillis == INIT_RUN) {
+    if (!this.hasLastNanos) {
       // Initial frame is arbitrarily 16 milliseconds (~60 fps)
-      this.lastMillis = this.nowMillis - 16;
+      this.lastNanos = runStart - 16000000;
+      this.hasLastNanos = true;
     }
-    double deltaMs = this.nowMillis - this.lastMillis;
-    this.lastMillis = this.nowMillis;
+    double deltaMs = (runStart - this.lastNanos) / 1000000.;
+    this.lastNanos = runStart;
 
     // Override deltaMs if in fixed render mode
     if (this.fixedDeltaMs > 0) {
@@ -800,8 +1340,9 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     // Paused? Reset timers and kill the loop...
     if (this.paused) {
       this.profiler.channelNanos = 0;
+      this.profiler.blendNanos = 0;
       ((LXBus.Profiler) this.mixer.masterBus.profiler).effectNanos = 0;
-      this.profiler.runNanos = System.nanoTime() - runStart;
+      this.profiler.runNanos = this.profiler.runHistogram.record(runStart, System.nanoTime());
       return;
     }
 
@@ -811,23 +1352,16 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
       processInputEvents();
     }
 
-    // Run-once scheduled tasks
-    if (this.threadSafeTaskQueue.size() > 0) {
-      this.engineThreadTaskQueue.clear();
-      synchronized (this.threadSafeTaskQueue) {
-        this.engineThreadTaskQueue.addAll(this.threadSafeTaskQueue);
-        this.threadSafeTaskQueue.clear();
-      }
-      for (Runnable runnable : this.engineThreadTaskQueue) {
-        runnable.run();
-      }
-    }
+    // Run-once scheduled tasks, any added by these tasks will run next frame
+    this.taskQueue.drain(Runnable::run, MpscQueue.UNBOUNDED);
 
     // Run the project scheduler
+    long schedulerStart = System.nanoTime();
     this.lx.scheduler.loop(deltaMs);
+    this.profiler.schedulerNanos = this.profiler.schedulerHistogram.record(schedulerStart, System.nanoTime());
 
-    // Initialize the model context for this render frame
-    this.buffer.render.setModel(this.lx.model);
+    // Claim a frame to render into, initialized with the model context
+    Frame render = this.buffer.claim(this.lx.model);
 
     // Run tempo and audio, always using real-time
     this.lx.engine.tempo.loop(deltaMs);
@@ -837,8 +1371,10 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     deltaMs *= this.speed.getValue();
 
     // Run the modulation and snapshot engines
+    long modulationStart = System.nanoTime();
     this.modulation.loop(deltaMs);
     this.snapshots.loop(deltaMs);
+    this.profiler.modulationNanos = this.profiler.modulationHistogram.record(modulationStart, System.nanoTime());
 
     // Run the color control
     this.lx.engine.palette.loop(deltaMs);
@@ -851,76 +1387,38 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     // Okay, time for the real work, to run and blend all of our channels
     // First, set up a bunch of state to keep track of which buffers we
     // are rendering into.
-    this.mixer.loop(buffer.render, deltaMs);
+    this.mixer.loop(render, deltaMs);
 
-    // Add fixture identification very last
+    // Add fixture mute/identify/solo very last
+    this.fixtureMask.update(render.model, this.lx.structure.fixtures);
     int identifyColor = LXColor.hsb(0, 100, Math.abs(-100 + (runStart / 8000000) % 200));
-    for (LXFixture fixture : this.lx.structure.fixtures) {
-      if (fixture.mute.isOn()) {
-        int start = fixture.getIndexBufferOffset();
-        int end = start + fixture.totalSize();
-        if (end > start) {
-          for (int i = start; i < end; ++i) {
-            this.buffer.render.main[i] = LXColor.BLACK;
-            this.buffer.render.cue[i] = LXColor.BLACK;
-          }
-        }
-      } else if (fixture.identify.isOn()) {
-        int start = fixture.getIndexBufferOffset();
-        int end = start + fixture.totalSize();
-        if (end > start) {
-          for (int i = start; i < end; ++i) {
-            this.buffer.render.main[i] = identifyColor;
-            this.buffer.render.cue[i] = identifyColor;
-          }
-        }
-      }
-      if (fixture.solo.isOn()) {
-        int start = fixture.getIndexBufferOffset();
-        int end = start + fixture.totalSize();
-        if (end > start) {
-          for (int i = 0; i < this.buffer.render.main.length; ++i) {
-            if (i < start || i >= end) {
-              this.buffer.render.main[i] = LXColor.BLACK;
-              this.buffer.render.cue[i] = LXColor.BLACK;
-            }
-          }
-        }
-      }
-    }
+    this.fixtureMask.apply(render.main, render.cue, identifyColor);
 
-    // Step 5: our cue and render frames are ready! Let's get them output
-    boolean isNetworkMultithreaded = this.isNetworkMultithreaded.isOn();
-    boolean isDoubleBuffering = isThreaded()|| isNetworkMultithreaded;
-    if (isDoubleBuffering) {
-      // We are multi-threading, lock the double buffer and flip it
-      this.buffer.flip();
-    }
+    // Step 5: our cue and render frames are ready! Publish the frame so that
+    // the UI and network threads can pick it up, then get it output
+    this.buffer.publish();
 
     int maxPoints = this.lx.permissions.getMaxPoints();
-    this.output.restricted.setValue(maxPoints >= 0 && this.buffer.copy.main.length > maxPoints);
+    this.output.restricted.setValue(maxPoints >= 0 && render.main.length > maxPoints);
 
     if (!this.output.restricted.isOn()) {
-      if (isNetworkMultithreaded) {
+      if (this.isNetworkMultithreaded.isOn()) {
         // Notify the network thread of new work to do!
-        synchronized (this.networkThread) {
-          this.networkThread.notify();
-        }
+        LockSupport.unpark(this.networkThread);
         this.profiler.outputNanos = 0;
       } else {
         // Or do it ourself here on the engine thread
         long outputStart = System.nanoTime();
-        Frame sendFrame = isDoubleBuffering ? this.buffer.copy : this.buffer.render;
-        int[] sendColors = (this.lx.flags.sendCueToOutput && sendFrame.cueOn) ? sendFrame.cue : sendFrame.main;
+        int[] sendColors = (this.lx.flags.sendCueToOutput && render.cueOn) ? render.cue : render.main;
         this.output.send(sendColors);
-        this.profiler.outputNanos = System.nanoTime() - outputStart;
+        this.profiler.outputNanos = this.profiler.outputHistogram.record(outputStart, System.nanoTime());
       }
     } else {
       this.profiler.outputNanos = 0;
     }
 
     // All done running this pass of the engine!
-    this.profiler.runNanos = System.nanoTime() - runStart;
+    this.profiler.runNanos = this.profiler.runHistogram.record(runStart, System.nanoTime());
 
     // Debug trace logging
     if (this.logProfiler) {
@@ -931,18 +1429,37 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
   private void _logProfiler() {
     StringBuilder sb = new StringBuilder();
-    sb.append("LXEngine::run() " + ((int) (this.profiler.runNanos / 1000000)) + "ms\n");
-    sb.append("LXEngine::run()::channels " + ((int) (this.profiler.channelNanos / 1000000)) + "ms\n");
+    sb.append("LXEngine::run() " + _logHistogram(this.profiler.runHistogram) + "\n");
+    sb.append("LXEngine::run()::input " + _logHistogram(this.profiler.inputHistogram) + "\n");
+    sb.append("LXEngine::run()::scheduler " + _logHistogram(this.profiler.schedulerHistogram) + "\n");
+    sb.append("LXEngine::run()::modulation " + _logHistogram(this.profiler.modulationHistogram) + "\n");
+    sb.append("LXEngine::run()::channels " + _logHistogram(this.profiler.channelHistogram) + "\n");
     for (LXAbstractChannel channel : this.mixer.channels) {
-      sb.append("LXEngine::" + channel.getLabel() + "::loop() " + ((int) (channel.profiler.loopNanos / 1000000)) + "ms\n");
+      LXAbstractChannel.Profiler channelProfiler = (LXAbstractChannel.Profiler) channel.profiler;
+      sb.append("LXEngine::" + channel.getLabel() + "::loop() " + _logHistogram(channelProfiler.loopHistogram) + "\n");
       if (channel instanceof LXChannel) {
         LXPattern pattern = ((LXChannel) channel).getActivePattern();
-        sb.append("LXEngine::" + channel.getLabel() + "::" + pattern.getLabel() + "::run() " + ((int) (pattern.profiler.runNanos / 1000000)) + "ms\n");
+        if (pattern != null) {
+          sb.append("LXEngine::" + channel.getLabel() + "::" + pattern.getLabel() + "::run() " + _logHistogram(pattern.profiler.runHistogram) + "\n");
+        }
       }
+      sb.append("LXEngine::" + channel.getLabel() + "::blend() " + _logHistogram(channelProfiler.blendHistogram) + "\n");
     }
+    sb.append("LXEngine::run()::master::effects " + _logHistogram(((LXBus.Profiler) this.mixer.masterBus.profiler).effectHistogram) + "\n");
+    sb.append("LXEngine::run()::output " + _logHistogram(this.profiler.outputHistogram) + "\n");
     LX.log(sb.toString());
   }
 
+  private static String _logHistogram(LatencyHistogram histogram) {
+    return String.format("p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+      histogram.getPercentileMs(50),
+      histogram.getPercentileMs(95),
+      histogram.getPercentileMs(99),
+      histogram.getMaxMs()
+    );
+  }
+
+
   public class NetworkThread extends Thread {
 
     public class Profiler {
@@ -954,44 +1471,53 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
 
     private float actualFrameRate = 0;
 
-    public final Profiler timer = new Profiler();
+    private long lastSequence = 0;
 
-    private final Frame networkFrame;
+    private volatile long droppedFrames = 0;
+
+    public final Profiler timer = new Profiler();
 
     NetworkThread(LX lx) {
       super("LXEngine Network Thread");
-      this.networkFrame = new Frame(lx);
     }
 
     @Override
     public void run() {
       LXOutput.log("LXEngine Network Thread started");
       while (!isInterrupted()) {
-        try {
-          synchronized(this) {
-            wait();
-          }
-        } catch (InterruptedException ix) {
+        LockSupport.park(this);
+        if (isInterrupted()) {
           break;
         }
 
-        if (output.enabled.isOn()) {
-          // Copy from the double-buffer into our local storage and send from here
-          long copyStart = System.nanoTime();
-          synchronized (buffer) {
-            this.networkFrame.copyFrom(buffer.copy);
+        // Acquire the latest frame and send directly from it, no copy needed
+        long acquireStart = System.nanoTime();
+        Frame frame = buffer.acquire();
+        long acquireEnd = System.nanoTime();
+        this.timer.copyNanos = acquireEnd - acquireStart;
+        try {
+          long sequence = frame.getSequence();
+          if (sequence == this.lastSequence) {
+            // Spurious wakeup, or nothing new since the last send
+            continue;
           }
-          long copyEnd = System.nanoTime();
-          this.timer.copyNanos = copyEnd - copyStart;
-          try {
-            output.send(this.networkFrame.main);
-          } catch (Exception x) {
-            // TODO(mcslee): For now we don't flag these, there could be ConcurrentModificationException
-            // or ArrayIndexBounds exceptions if the model/fixtures are being changed in real-time.
-            // This is rare and would only occur at a VERY high framerate.
-            LX.error("Exception in network thread: " + x.getLocalizedMessage());
+          if (this.lastSequence > 0 && sequence > this.lastSequence + 1) {
+            this.droppedFrames += sequence - this.lastSequence - 1;
+          }
+          this.lastSequence = sequence;
+          if (output.enabled.isOn()) {
+            try {
+              output.send(frame.main);
+            } catch (Exception x) {
+              // TODO(mcslee): For now we don't flag these, there could be ConcurrentModificationException
+              // or ArrayIndexBounds exceptions if the model/fixtures are being changed in real-time.
+              // This is rare and would only occur at a VERY high framerate.
+              LX.error("Exception in network thread: " + x.getLocalizedMessage());
+            }
+            this.timer.sendNanos = profiler.outputHistogram.record(acquireEnd, System.nanoTime());
           }
-          this.timer.sendNanos = System.nanoTime() - copyEnd;
+        } finally {
+          buffer.release(frame);
         }
 
         // Compute network framerate
@@ -1006,17 +1532,62 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     public float frameRate() {
       return this.actualFrameRate;
     }
+
+    /**
+     * Total number of engine frames that were rendered but never sent by the network
+     * thread because it was still busy with a previous frame.
+     *
+     * @return Number of dropped frames
+     */
+    public long getDroppedFrames() {
+      return this.droppedFrames;
+    }
   }
 
   /**
-   * This should be used when in threaded mode. It synchronizes on the
-   * double-buffer and duplicates the internal copy buffer into the provided
-   * buffer.
+   * Acquires the most recently completed frame for reading. This never blocks the
+   * engine thread, and the frame is read in place rather than copied. The engine will
+   * not render into the frame until it is handed back via releaseFrame(), which
+   * callers must do promptly, typically in a finally block.
+   *
+   * @return Most recently completed frame
+   */
+  public Frame acquireFrame() {
+    return this.buffer.acquire();
+  }
+
+  /**
+   * Releases a frame that was obtained from acquireFrame()
+   *
+   * @param frame Frame to release
+   */
+  public void releaseFrame(Frame frame) {
+    this.buffer.release(frame);
+  }
+
+  /**
+   * Sequence number of the most recently completed frame
+   *
+   * @return Frame sequence number
+   */
+  public long getFrameSequence() {
+    return this.buffer.getSequence();
+  }
+
+  /**
+   * This may be used when in threaded mode. It duplicates the most recently
+   * completed frame into the provided buffer, without blocking the engine thread.
+   * Where possible, prefer acquireFrame() to read the frame without copying.
    *
    * @param frame Frame buffer to copy into
    */
   public void copyFrameThreadSafe(Frame frame) {
-    this.buffer.copyTo(frame);
+    Frame latest = this.buffer.acquire();
+    try {
+      frame.copyFrom(latest);
+    } finally {
+      this.buffer.release(latest);
+    }
   }
 
   /**
@@ -1050,9 +1621,12 @@ public class LXEngine extends LXComponent implements LXOscComponent, LXModulatio
     this.audio.dispose();
     this.midi.dispose();
     this.osc.dispose();
-    synchronized (this.networkThread) {
-      this.networkThread.interrupt();
-    }
+    this.renderPool.dispose();
+    this.networkThread.interrupt();
+    this.output.dispatcher.dispose();
+    this.output.scheduler.dispose();
+    this.output.transport.close();
+    this.output.socketTransport.close();
     super.dispose();
   }
 
@@ -134,6 +134,46 @@ public abstract class LXLayeredComponent extends LXModelComponent implements LXL
 
   protected /* abstract */ void onLoop(double deltaMs) {}
 
+  /**
+   * Subclasses that support data-parallel rendering may override this method to render
+   * the points of their model in the range [startIndex, endIndex), where the indices
+   * refer to positions in the model.points array. It is invoked by runParallel(). If
+   * isParallelRange() returns true this may happen from several threads at once on
+   * disjoint ranges, so implementations must only read values that were captured
+   * before runParallel() was called and must only write to the colors of points in
+   * their own range. The default implementation renders nothing.
+   *
+   * @param deltaMs Milliseconds elapsed since previous frame
+   * @param startIndex First point index to render, inclusive
+   * @param endIndex Last point index to render, exclusive
+   */
+  protected /* abstract */ void runRange(double deltaMs, int startIndex, int endIndex) {}
+
+  /**
+   * Subclasses which implement runRange() in a thread-safe manner should override
+   * this to return true, which allows runParallel() to split their model across the
+   * render pool. Otherwise runParallel() makes a single call to runRange() over the
+   * whole model, on the calling thread.
+   *
+   * @return Whether runRange() may be invoked concurrently on disjoint ranges
+   */
+  protected boolean isParallelRange() {
+    return false;
+  }
+
+  /**
+   * Renders every point in the model by splitting them into ranges, which are passed
+   * to runRange() on the engine's shared render pool. Subclasses should invoke this from
+   * their run method once all per-frame parameter values have been read into local
+   * state. This method returns once every range has been rendered. Components that
+   * do not opt in via isParallelRange() are rendered in one range on this thread.
+   *
+   * @param deltaMs Milliseconds elapsed since previous frame
+   */
+  protected final void runParallel(double deltaMs) {
+    this.lx.engine.renderPool.run(this, deltaMs, this.model.points.length);
+  }
+
   protected /* abstract */ void afterLayers(double deltaMs) {}
 
   private void checkForReentrancy(LXLayer target, String operation) {
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import heronarts.lx.utils.WorkerThreadFactory;
+
+/**
+ * Shared pool of worker threads used for data-parallel rendering. Components that
+ * implement LXLayeredComponent.runRange() and opt in via isParallelRange() may call
+ * runParallel() from their run method, at which point the points of their model are
+ * split into chunks that are rendered concurrently by this pool. Small models, and
+ * components that do not opt in, are rendered directly on the calling thread.
+ */
+public class LXRenderPool {
+
+  /**
+   * Default minimum number of points rendered by a single task
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+  private static final WorkerThreadFactory THREAD_FACTORY = new WorkerThreadFactory("LXRenderPool worker");
+
+  private final int parallelism;
+
+  private volatile ForkJoinPool pool = null;
+
+  private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  LXRenderPool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  LXRenderPool(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the minimum number of points rendered by a single task. Models with fewer
+   * points than this are never split.
+   *
+   * @param chunkSize Number of points per task
+   * @return this
+   */
+  public LXRenderPool setChunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("LXRenderPool chunk size must be positive: " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public int getChunkSize() {
+    return this.chunkSize;
+  }
+
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  private ForkJoinPool getPool() {
+    ForkJoinPool pool = this.pool;
+    if (pool != null) {
+      return pool;
+    }
+    synchronized (this) {
+      if (this.pool == null) {
+        this.pool = new ForkJoinPool(this.parallelism, THREAD_FACTORY, null, false);
+        LX.log("LXRenderPool started with " + this.parallelism + " workers");
+      }
+      return this.pool;
+    }
+  }
+
+  private class RangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LXLayeredComponent component;
+    private final double deltaMs;
+    private final int startIndex;
+    private final int endIndex;
+    private final int chunkSize;
+
+    private RangeTask(LXLayeredComponent component, double deltaMs, int startIndex, int endIndex, int chunkSize) {
+      this.component = component;
+      this.deltaMs = deltaMs;
+      this.startIndex = startIndex;
+      this.endIndex = endIndex;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.endIndex - this.startIndex <= this.chunkSize) {
+        this.component.runRange(this.deltaMs, this.startIndex, this.endIndex);
+      } else {
+        int midIndex = (this.startIndex + this.endIndex) >>> 1;
+        invokeAll(
+          new RangeTask(this.component, this.deltaMs, this.startIndex, midIndex, this.chunkSize),
+          new RangeTask(this.component, this.deltaMs, midIndex, this.endIndex, this.chunkSize)
+        );
+      }
+    }
+  }
+
+  /**
+   * Renders the range [0, size) of the component, splitting the work across the pool
+   * if it is larger than the chunk size. Returns once every range has been rendered.
+   *
+   * @param component Component to render
+   * @param deltaMs Milliseconds elapsed since previous frame
+   * @param size Total number of points
+   */
+  void run(LXLayeredComponent component, double deltaMs, int size) {
+    int chunkSize = this.chunkSize;
+    if ((this.parallelism <= 1) || (size <= chunkSize) || !component.isParallelRange()) {
+      component.runRange(deltaMs, 0, size);
+    } else {
+      getPool().invoke(new RangeTask(component, deltaMs, 0, size, chunkSize));
+    }
+  }
+
+  private static class TaskList extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<? extends Runnable> tasks;
+
+    private TaskList(List<? extends Runnable> tasks) {
+      this.tasks = tasks;
+    }
+
+    @Override
+    protected void compute() {
+      List<ForkJoinTask<?>> forkJoinTasks = new ArrayList<ForkJoinTask<?>>(this.tasks.size());
+      for (Runnable task : this.tasks) {
+        forkJoinTasks.add(ForkJoinTask.adapt(task));
+      }
+      invokeAll(forkJoinTasks);
+    }
+  }
+
+  /**
+   * Runs a list of independent tasks across the pool, returning once all of them
+   * have completed. This is used for bulk work outside of the render loop, such as
+   * generating fixture geometry while a project is loaded.
+   *
+   * @param tasks Tasks to run
+   */
+  public void invokeAll(List<? extends Runnable> tasks) {
+    if ((this.parallelism <= 1) || (tasks.size() <= 1)) {
+      for (Runnable task : tasks) {
+        task.run();
+      }
+    } else {
+      getPool().invoke(new TaskList(tasks));
+    }
+  }
+
+  synchronized void dispose() {
+    if (this.pool != null) {
+      this.pool.shutdownNow();
+      this.pool = null;
+    }
+  }
+
+}
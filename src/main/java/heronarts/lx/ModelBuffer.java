@@ -30,7 +30,10 @@ public class ModelBuffer implements LXBuffer {
     @Override
     public void modelChanged(LX lx, LXModel model) {
       if (array.length != model.size) {
+        // Keep the contents of the points that are unchanged
+        int[] previous = array;
         initArray(model);
+        System.arraycopy(previous, 0, array, 0, Math.min(previous.length, array.length));
       }
     }
   };
@@ -35,12 +35,6 @@ public class DissolveBlend extends LXBlend {
   @Override
   public void blend(int[] dst, int[] src, double alpha, int[] output) {
     // Multiply the src alpha only by half!
-    int srcAlpha = (int) (alpha * 0x80);
-    for (int i = 0; i < src.length; ++i) {
-      int dstAlpha = 0x100 - srcAlpha;
-      output[i] = 0xff << LXColor.ALPHA_SHIFT |
-          ((dst[i] & LXColor.RB_MASK) * dstAlpha + (src[i] & LXColor.RB_MASK) * srcAlpha) >>> 8 & LXColor.RB_MASK |
-          ((dst[i] & LXColor.G_MASK) * dstAlpha + (src[i] & LXColor.G_MASK) * srcAlpha) >>> 8 & LXColor.G_MASK;
-    }
+    LXColor.dissolve(dst, src, (int) (alpha * 0x80), output, 0, src.length);
   }
 }
@@ -48,17 +48,70 @@ public abstract class LXBlend extends LXModulatorComponent {
       public int apply(int dst, int src, int alpha);
     }
 
+    /**
+     * Functional interface for a blending function applied to entire buffers
+     */
+    public interface BufferFunction {
+      /**
+       * Blend function to combine a range of two buffers of colors
+       *
+       * @param dst Background colors
+       * @param src Overlay colors
+       * @param alpha Secondary alpha mask (from 0x00 - 0x100)
+       * @param output Output buffer, which may be the same as src or dst
+       * @param start First index to blend
+       * @param end Index after the last to blend
+       */
+      public void apply(int[] dst, int[] src, int alpha, int[] output, int start, int end);
+    }
+
     private final BlendFunction function;
 
+    private final BufferFunction bufferFunction;
+
     public FunctionalBlend(LX lx, BlendFunction function) {
+      this(lx, function, null);
+    }
+
+    /**
+     * Constructs a blend with a buffer function as well as a per-color function. Where
+     * the per-color function is invoked once per pixel from a loop shared by every
+     * functional blend, the buffer function owns its loop, which may be optimized
+     * much more aggressively by the JIT.
+     *
+     * @param lx LX instance
+     * @param function Blend function for a single color
+     * @param bufferFunction Blend function for an entire buffer
+     */
+    public FunctionalBlend(LX lx, BlendFunction function, BufferFunction bufferFunction) {
       super(lx);
       this.function = function;
+      this.bufferFunction = bufferFunction;
     }
 
     @Override
     public void blend(int[] dst, int[] src, double alpha, int[] output) {
-      int alphaMask = (int) (alpha * 0x100);
-      for (int i = 0; i < dst.length; ++i) {
+      blend(dst, src, (int) (alpha * 0x100), output, 0, dst.length);
+    }
+
+    /**
+     * Blends a range of the src buffer onto the destination buffer. Unlike general
+     * blends, functional blends treat every pixel independently, so a buffer may be
+     * blended piecewise.
+     *
+     * @param dst Destination buffer (lower layer)
+     * @param src Source buffer (top layer)
+     * @param alphaMask Alpha mask (from 0x00 - 0x100)
+     * @param output Output buffer, which may be the same as src or dst
+     * @param start First index to blend
+     * @param end Index after the last to blend
+     */
+    public void blend(int[] dst, int[] src, int alphaMask, int[] output, int start, int end) {
+      if (this.bufferFunction != null) {
+        this.bufferFunction.apply(dst, src, alphaMask, output, start, end);
+        return;
+      }
+      for (int i = start; i < end; ++i) {
         output[i] = this.function.apply(dst[i], src[i], alphaMask);
       }
     }
@@ -23,6 +23,6 @@ import heronarts.lx.color.LXColor;
 
 public class LightestBlend extends LXBlend.FunctionalBlend {
   public LightestBlend(LX lx) {
-    super(lx, LXColor::lightest);
+    super(lx, LXColor::lightest, LXColor::lightest);
   }
 }
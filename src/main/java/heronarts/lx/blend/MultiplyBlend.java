@@ -24,7 +24,7 @@ import heronarts.lx.color.LXColor;
 public class MultiplyBlend extends LXBlend.FunctionalBlend {
 
   public MultiplyBlend(LX lx) {
-    super(lx, LXColor::multiply);
+    super(lx, LXColor::multiply, LXColor::multiply);
   }
 
 }
\ No newline at end of file
@@ -617,6 +617,118 @@ public class LXColor {
       ((dst & G_MASK) * dstAlpha + gn * srcAlpha) >>> 8 & G_MASK;
   }
 
+  /**
+   * Dissolves two colors, as used by the crossfader. This is a linear blend which
+   * disregards the alpha channels of both colors, and always produces an opaque color.
+   *
+   * @param dst Background color
+   * @param src Overlay color
+   * @param srcAlpha Weight of the overlay color, from 0 to 0x100
+   * @return Dissolved color
+   */
+  public static int dissolve(int dst, int src, int srcAlpha) {
+    int dstAlpha = 0x100 - srcAlpha;
+    return 0xff << ALPHA_SHIFT |
+      ((dst & RB_MASK) * dstAlpha + (src & RB_MASK) * srcAlpha) >>> 8 & RB_MASK |
+      ((dst & G_MASK) * dstAlpha + (src & G_MASK) * srcAlpha) >>> 8 & G_MASK;
+  }
+
+  // NOTE: the buffer versions of the blend functions below are all deliberately
+  // written out as individual loops. Each loop only ever calls a single static
+  // function, so the JIT is able to inline and unroll it. A shared loop which
+  // invokes a different blend function per-pixel can't be optimized this way.
+  // On Java 17+ with the Vector API module present, VectorBlend is used instead.
+
+  public static void lerp(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.lerp(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = lerp(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void add(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.add(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = add(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void subtract(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.subtract(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = subtract(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void multiply(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.multiply(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = multiply(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void screen(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.screen(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = screen(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void lightest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.lightest(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = lightest(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void darkest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.darkest(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = darkest(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void difference(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.difference(dst, src, alpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = difference(dst[i], src[i], alpha);
+    }
+  }
+
+  public static void dissolve(int[] dst, int[] src, int srcAlpha, int[] output, int start, int end) {
+    if (VectorBlend.ENABLED) {
+      VectorBlend.dissolve(dst, src, srcAlpha, output, start, end);
+      return;
+    }
+    for (int i = start; i < end; ++i) {
+      output[i] = dissolve(dst[i], src[i], srcAlpha);
+    }
+  }
+
   private static int min(int a, int b) {
     return (a < b) ? a : b;
   }
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.color;
+
+/**
+ * SIMD versions of the buffer blend functions in {@link LXColor}. This is the
+ * Java 8 version of the class, in which they are never enabled and the scalar
+ * loops are always used. Should they be called regardless, they blend with the
+ * per-color functions. The multi-release jar replaces this class on Java 17 and
+ * above, where the incubating Vector API is used if the JVM was started with
+ * <code>--add-modules jdk.incubator.vector</code>.
+ */
+class VectorBlend {
+
+  /**
+   * Whether the SIMD blend functions may be used
+   */
+  static final boolean ENABLED = false;
+
+  static void lerp(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.lerp(dst[i], src[i], alpha);
+    }
+  }
+
+  static void add(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.add(dst[i], src[i], alpha);
+    }
+  }
+
+  static void subtract(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.subtract(dst[i], src[i], alpha);
+    }
+  }
+
+  static void multiply(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.multiply(dst[i], src[i], alpha);
+    }
+  }
+
+  static void screen(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.screen(dst[i], src[i], alpha);
+    }
+  }
+
+  static void lightest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.lightest(dst[i], src[i], alpha);
+    }
+  }
+
+  static void darkest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.darkest(dst[i], src[i], alpha);
+    }
+  }
+
+  static void difference(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.difference(dst[i], src[i], alpha);
+    }
+  }
+
+  static void dissolve(int[] dst, int[] src, int srcAlpha, int[] output, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      output[i] = LXColor.dissolve(dst[i], src[i], srcAlpha);
+    }
+  }
+
+}
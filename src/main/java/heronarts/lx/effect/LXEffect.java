@@ -33,6 +33,7 @@ import heronarts.lx.parameter.BooleanParameter;
 import heronarts.lx.parameter.LXListenableNormalizedParameter;
 import heronarts.lx.parameter.LXParameterListener;
 import heronarts.lx.parameter.MutableParameter;
+import heronarts.lx.utils.LatencyHistogram;
 
 /**
  * Class to represent an effect that may be applied to the color array. Effects
@@ -103,6 +104,7 @@ public abstract class LXEffect extends LXDeviceComponent implements LXComponent.
 
   public class Profiler {
     public long runNanos = 0;
+    public final LatencyHistogram runHistogram = new LatencyHistogram();
   }
 
   public final Profiler profiler = new Profiler();
@@ -288,7 +290,7 @@ public abstract class LXEffect extends LXDeviceComponent implements LXComponent.
     } else {
       run(deltaMs, this.enabled.isOn() ? 1 : 0);
     }
-    this.profiler.runNanos = System.nanoTime() - runStart;
+    this.profiler.runNanos = this.profiler.runHistogram.record(runStart, System.nanoTime());
   }
 
   /**
@@ -32,6 +32,7 @@ import heronarts.lx.osc.LXOscComponent;
 import heronarts.lx.osc.OscMessage;
 import heronarts.lx.parameter.BooleanParameter;
 import heronarts.lx.parameter.LXParameter;
+import heronarts.lx.utils.MpscQueue;
 import uk.co.xfactorylibrarians.coremidi4j.CoreMidiDeviceProvider;
 import uk.co.xfactorylibrarians.coremidi4j.CoreMidiException;
 import uk.co.xfactorylibrarians.coremidi4j.CoreMidiNotification;
@@ -103,11 +104,22 @@ public class LXMidiEngine extends LXComponent implements LXOscComponent {
   private final List<DeviceListener> deviceListeners = new ArrayList<DeviceListener>();
   private final List<MappingListener> mappingListeners = new ArrayList<MappingListener>();
 
-  private final List<LXShortMessage> threadSafeInputQueue =
-    Collections.synchronizedList(new ArrayList<LXShortMessage>());
+  /**
+   * Maximum number of received messages held in the input queue, beyond which
+   * messages are dropped until the engine thread catches up
+   */
+  public static final int MAX_QUEUED_MESSAGES = 8192;
+
+  /**
+   * Maximum number of messages dispatched on each engine frame, any more than this
+   * are left for the next frame
+   */
+  public static final int MAX_DISPATCH_MESSAGES = 2048;
 
-  private final List<LXShortMessage> engineThreadInputQueue =
-    new ArrayList<LXShortMessage>();
+  private final MpscQueue<LXShortMessage> inputQueue =
+    new MpscQueue<LXShortMessage>(MAX_QUEUED_MESSAGES);
+
+  private long droppedMessages = 0;
 
   private final List<LXMidiInput> mutableInputs = new CopyOnWriteArrayList<LXMidiInput>();
   private final List<LXMidiOutput> mutableOutputs = new CopyOnWriteArrayList<LXMidiOutput>();
@@ -669,7 +681,7 @@ public class LXMidiEngine extends LXComponent implements LXOscComponent {
   }
 
   void queueInputMessage(LXShortMessage message) {
-    this.threadSafeInputQueue.add(message);
+    this.inputQueue.add(message);
   }
 
   private static final String PATH_NOTE = "note";
@@ -798,20 +810,40 @@ public class LXMidiEngine extends LXComponent implements LXOscComponent {
    * input queue.
    */
   public void dispatch() {
-    this.engineThreadInputQueue.clear();
-    synchronized (this.threadSafeInputQueue) {
-      this.engineThreadInputQueue.addAll(this.threadSafeInputQueue);
-      this.threadSafeInputQueue.clear();
-    }
-    for (LXShortMessage message : this.engineThreadInputQueue) {
+    this.inputQueue.drain((message) -> {
       LXMidiInput input = message.getInput();
       input.dispatch(message);
       if (input.enabled.isOn()) {
         dispatch(message);
       }
+    }, MAX_DISPATCH_MESSAGES);
+
+    long droppedMessages = this.inputQueue.getDroppedCount();
+    if (droppedMessages != this.droppedMessages) {
+      error("Dropped " + (droppedMessages - this.droppedMessages) + " MIDI messages, input queue is full");
+      this.droppedMessages = droppedMessages;
     }
   }
 
+  /**
+   * Total number of input messages dropped because the input queue was full
+   *
+   * @return Number of dropped messages
+   */
+  public long getDroppedMessages() {
+    return this.inputQueue.getDroppedCount();
+  }
+
+  /**
+   * Total number of times an input message was held over to a later frame because
+   * the per-frame dispatch limit was reached
+   *
+   * @return Number of deferred messages
+   */
+  public long getDeferredMessages() {
+    return this.inputQueue.getDeferredCount();
+  }
+
   public void dispatch(LXShortMessage message) {
     LXMidiInput input = message.getInput();
     if (input != null) {
@@ -35,6 +35,7 @@ import heronarts.lx.parameter.CompoundParameter;
 import heronarts.lx.parameter.EnumParameter;
 import heronarts.lx.parameter.LXParameter;
 import heronarts.lx.parameter.ObjectParameter;
+import heronarts.lx.utils.LatencyHistogram;
 
 /**
  * Abstract subclass for both groups and channels
@@ -54,7 +55,24 @@ public abstract class LXAbstractChannel extends LXBus implements LXComponent.Ren
   private final List<Listener> listeners = new ArrayList<Listener>();
 
   public class Profiler extends LXBus.Profiler {
+    /**
+     * Time taken to blend this channel into the mixer. Functional blends are only
+     * queued here and applied later, their cost is in the engine's blend time.
+     */
     public long blendNanos;
+
+    public final LatencyHistogram blendHistogram = new LatencyHistogram();
+
+    /**
+     * Time this channel's task spent waiting to be picked up by the channel executor
+     */
+    public long queueNanos;
+
+    /**
+     * Total time of this channel's task in the channel executor. For groups this
+     * includes running all of the group's channels and compositing them.
+     */
+    public long taskNanos;
   }
 
   @Override
@@ -72,6 +90,10 @@ public abstract class LXAbstractChannel extends LXBus implements LXComponent.Ren
   // are actively animating (e.g. they are enabled or cued)
   boolean isAnimating;
 
+  // An internal state flag used by the engine to track which channels have
+  // colors that are identical to those of the previous frame. Groups never are.
+  boolean isStaticFrame = false;
+
   /**
    * The index of this channel in the engine.
    */
@@ -127,51 +149,6 @@ public abstract class LXAbstractChannel extends LXBus implements LXComponent.Ren
 
   private LXBlend activeBlend;
 
-  final ChannelThread thread = new ChannelThread();
-
-  private static int channelThreadCount = 1;
-
-  class ChannelThread extends Thread {
-
-    ChannelThread() {
-      super("LXChannel thread #" + channelThreadCount++);
-    }
-
-    boolean hasStarted = false;
-    boolean workReady = true;
-    double deltaMs;
-
-    class Signal {
-      boolean workDone = false;
-    }
-
-    Signal signal = new Signal();
-
-    @Override
-    public void run() {
-      LX.log("LXEngine Channel thread started [" + getLabel() + "]");
-      while (!isInterrupted()) {
-        synchronized (this) {
-          try {
-            while (!this.workReady) {
-              wait();
-            }
-          } catch (InterruptedException ix) {
-            // Channel is finished
-            break;
-          }
-          this.workReady = false;
-        }
-        loop(this.deltaMs);
-        synchronized (this.signal) {
-          this.signal.workDone = true;
-          this.signal.notify();
-        }
-      }
-      LX.log("LXEngine Channel thread finished [" + getLabel() + "]");
-    }
-  };
-
   protected LXAbstractChannel(LX lx, int index, String label) {
     super(lx, label);
     this.index = index;
@@ -335,9 +312,6 @@ public abstract class LXAbstractChannel extends LXBus implements LXComponent.Ren
 
   @Override
   public void dispose() {
-    synchronized (this.thread) {
-      this.thread.interrupt();
-    }
     super.dispose();
     this.blendBuffer.dispose();
     this.midiListeners.clear();
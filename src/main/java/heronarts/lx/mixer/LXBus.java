@@ -29,6 +29,7 @@ import heronarts.lx.osc.LXOscComponent;
 import heronarts.lx.osc.LXOscEngine;
 import heronarts.lx.osc.OscMessage;
 import heronarts.lx.parameter.BooleanParameter;
+import heronarts.lx.utils.LatencyHistogram;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -62,6 +63,9 @@ public abstract class LXBus extends LXModelComponent implements LXOscComponent {
 
   public class Profiler extends LXModulatorComponent.Profiler {
     public long effectNanos;
+
+    public final LatencyHistogram loopHistogram = new LatencyHistogram();
+    public final LatencyHistogram effectHistogram = new LatencyHistogram();
   }
 
   @Override
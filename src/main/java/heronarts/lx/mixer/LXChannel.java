@@ -806,6 +806,9 @@ public class LXChannel extends LXAbstractChannel {
     }
   }
 
+  // Active pattern as of the previous frame
+  private LXPattern staticPattern = null;
+
   @Override
   public void loop(double deltaMs) {
     long loopStart = System.nanoTime();
@@ -816,6 +819,8 @@ public class LXChannel extends LXAbstractChannel {
     // LXChannelBus will have figured out if we need to run everything.
     // If not, then we're done here and skip the rest.
     if (!this.isAnimating) {
+      // Our colors are not touched when we're not animating
+      this.isStaticFrame = true;
       this.profiler.loopNanos = System.nanoTime() - loopStart;
       return;
     }
@@ -885,7 +890,19 @@ public class LXChannel extends LXAbstractChannel {
         effect.loop(deltaMs);
       }
     }
-    ((LXBus.Profiler) this.profiler).effectNanos = System.nanoTime() - effectStart;
+    LXBus.Profiler profiler = (LXBus.Profiler) this.profiler;
+    profiler.effectNanos = profiler.effectHistogram.record(effectStart, System.nanoTime());
+
+    // Our colors are unchanged if they came straight from the same pattern as
+    // last frame, and that pattern reused its previous colors
+    this.isStaticFrame =
+      (activePattern != null) &&
+      (activePattern == this.staticPattern) &&
+      activePattern.isStaticFrame() &&
+      (this.transition == null) &&
+      this.mutableEffects.isEmpty() &&
+      (colors == this.colors);
+    this.staticPattern = activePattern;
 
     this.colors = colors;
     this.profiler.loopNanos = System.nanoTime() - loopStart;
@@ -898,9 +915,6 @@ public class LXChannel extends LXAbstractChannel {
       pattern.dispose();
     }
     this.mutablePatterns.clear();
-    if (this.thread.hasStarted) {
-      this.thread.interrupt();
-    }
     this.listeners.clear();
     super.dispose();
   }
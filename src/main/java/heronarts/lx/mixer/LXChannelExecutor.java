@@ -0,0 +1,196 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.mixer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import heronarts.lx.LX;
+import heronarts.lx.utils.WorkerThreadFactory;
+
+/**
+ * A channel executor is responsible for running the loop of every channel in the
+ * mixer, along with the compositing and effects of any groups. Groups are always
+ * looped before the channels they contain, and a group is only composited once all
+ * of its channels have finished. Beyond that ordering, an executor is free to run
+ * channels however it sees fit.
+ */
+public abstract class LXChannelExecutor {
+
+  /**
+   * Loops all of the channels in the mixer
+   *
+   * @param channels Channels in mixer order, groups preceding their channels
+   * @param deltaMs Milliseconds elapsed since previous frame
+   */
+  protected abstract void execute(List<LXAbstractChannel> channels, double deltaMs);
+
+  /**
+   * Releases any resources (e.g. threads) held by this executor
+   */
+  public void dispose() {}
+
+  /**
+   * Runs the loop of a single channel, recording its timing into the channel's profiler.
+   */
+  private static void loopChannel(LXAbstractChannel channel, double deltaMs, long queueNanos) {
+    long taskStart = System.nanoTime();
+    channel.loop(deltaMs);
+    LXAbstractChannel.Profiler profiler = (LXAbstractChannel.Profiler) channel.profiler;
+    profiler.queueNanos = queueNanos;
+    profiler.taskNanos = profiler.loopHistogram.record(taskStart, System.nanoTime());
+  }
+
+  private static void afterGroupLoop(LXGroup group, double deltaMs) {
+    if (group.isAnimating) {
+      group.afterLoop(deltaMs);
+    }
+  }
+
+  /**
+   * Default executor which runs every channel in order on the calling thread.
+   */
+  public static class Serial extends LXChannelExecutor {
+
+    @Override
+    protected void execute(List<LXAbstractChannel> channels, double deltaMs) {
+      for (LXAbstractChannel channel : channels) {
+        loopChannel(channel, deltaMs, 0);
+      }
+      for (LXAbstractChannel channel : channels) {
+        if (channel instanceof LXGroup) {
+          long compositeStart = System.nanoTime();
+          afterGroupLoop((LXGroup) channel, deltaMs);
+          ((LXAbstractChannel.Profiler) channel.profiler).taskNanos += System.nanoTime() - compositeStart;
+        }
+      }
+    }
+  }
+
+  /**
+   * Executor backed by a fixed-size work-stealing pool. Every top-level channel or
+   * group is scheduled as a task. Group tasks loop the group, then fork a task for
+   * each of their channels, and composite once those have been joined.
+   */
+  public static class WorkStealing extends LXChannelExecutor {
+
+    private static final WorkerThreadFactory THREAD_FACTORY = new WorkerThreadFactory("LXChannel worker");
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a work-stealing executor with one worker per available processor
+     */
+    public WorkStealing() {
+      this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a work-stealing executor with a fixed number of workers
+     *
+     * @param parallelism Number of worker threads
+     */
+    public WorkStealing(int parallelism) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("LXChannelExecutor.WorkStealing parallelism must be positive: " + parallelism);
+      }
+      this.pool = new ForkJoinPool(parallelism, THREAD_FACTORY, null, false);
+      LX.log("LXChannelExecutor started with " + parallelism + " workers");
+    }
+
+    /**
+     * Number of worker threads in the pool
+     *
+     * @return Parallelism of the pool
+     */
+    public int getParallelism() {
+      return this.pool.getParallelism();
+    }
+
+    private class ChannelTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final LXAbstractChannel channel;
+      private final double deltaMs;
+      private final long forkNanos = System.nanoTime();
+
+      private ChannelTask(LXAbstractChannel channel, double deltaMs) {
+        this.channel = channel;
+        this.deltaMs = deltaMs;
+      }
+
+      @Override
+      protected void compute() {
+        long taskStart = System.nanoTime();
+        loopChannel(this.channel, this.deltaMs, taskStart - this.forkNanos);
+        if (this.channel instanceof LXGroup) {
+          LXGroup group = (LXGroup) this.channel;
+          List<ChannelTask> children = new ArrayList<ChannelTask>(group.channels.size());
+          for (LXChannel child : group.channels) {
+            children.add(new ChannelTask(child, this.deltaMs));
+          }
+          ForkJoinTask.invokeAll(children);
+          afterGroupLoop(group, this.deltaMs);
+          ((LXAbstractChannel.Profiler) group.profiler).taskNanos = System.nanoTime() - taskStart;
+        }
+      }
+    }
+
+    private class MixerTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final List<LXAbstractChannel> channels;
+      private final double deltaMs;
+
+      private MixerTask(List<LXAbstractChannel> channels, double deltaMs) {
+        this.channels = channels;
+        this.deltaMs = deltaMs;
+      }
+
+      @Override
+      protected void compute() {
+        List<ChannelTask> tasks = new ArrayList<ChannelTask>(this.channels.size());
+        for (LXAbstractChannel channel : this.channels) {
+          // Grouped channels are scheduled by their group's task
+          if (channel.getGroup() == null) {
+            tasks.add(new ChannelTask(channel, this.deltaMs));
+          }
+        }
+        ForkJoinTask.invokeAll(tasks);
+      }
+    }
+
+    @Override
+    protected void execute(List<LXAbstractChannel> channels, double deltaMs) {
+      this.pool.invoke(new MixerTask(channels, deltaMs));
+    }
+
+    @Override
+    public void dispose() {
+      this.pool.shutdownNow();
+      LX.log("LXChannelExecutor shut down");
+    }
+  }
+
+}
@@ -29,11 +29,14 @@ import heronarts.lx.clip.LXClip;
 import heronarts.lx.clip.LXGroupClip;
 import heronarts.lx.effect.LXEffect;
 import heronarts.lx.parameter.LXParameter;
+import heronarts.lx.utils.LatencyHistogram;
 
 public class LXGroup extends LXAbstractChannel {
 
   public class Profiler extends LXAbstractChannel.Profiler {
     public long compositeNanos;
+
+    public final LatencyHistogram compositeHistogram = new LatencyHistogram();
   }
 
   @Override
@@ -114,7 +117,8 @@ public class LXGroup extends LXAbstractChannel {
       }
     }
     this.colors = blendDestination;
-    ((LXGroup.Profiler) this.profiler).compositeNanos = System.nanoTime() - compositeStart;
+    LXGroup.Profiler profiler = (LXGroup.Profiler) this.profiler;
+    profiler.compositeNanos = profiler.compositeHistogram.record(compositeStart, System.nanoTime());
 
     // Run group effects
     long effectStart = System.nanoTime();
@@ -128,7 +132,7 @@ public class LXGroup extends LXAbstractChannel {
       }
       this.colors = blendOutput;
     }
-    ((LXBus.Profiler) this.profiler).effectNanos = System.nanoTime() - effectStart;
+    profiler.effectNanos = profiler.effectHistogram.record(effectStart, System.nanoTime());
 
   }
 
@@ -19,6 +19,7 @@
 package heronarts.lx.mixer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -785,41 +786,85 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
     }
   }
 
+  // Number of points processed at a time when several blends are fused together.
+  // The destination, source and output for a tile of this size fit in L1 cache.
+  private static final int BLEND_TILE_SIZE = 2048;
+
+  // A blend stack applies a sequence of blends onto a destination buffer. Rather than
+  // running each blend over the whole buffer in turn, functional blends are queued up
+  // as a plan and then run together tile-by-tile, so that the intermediate result stays
+  // in cache. Anything that needs to read the result, or a blend that can't be applied
+  // piecewise, flushes the plan first.
   private class BlendStack {
 
     private int[] destination;
     private int[] output;
     private boolean hasOutput;
 
+    // Pending plan of blends, not yet applied. The first reads from planDestination,
+    // every one writes to output, and the rest read from output.
+    private int[] planDestination;
+    private LXBlend.FunctionalBlend[] planBlends = new LXBlend.FunctionalBlend[8];
+    private int[][] planSources = new int[8][];
+    private int[] planAlphas = new int[8];
+    private int planSize = 0;
+
     void initialize(int[] destination, int[] output) {
       this.destination = destination;
       this.output = output;
       this.hasOutput = false;
+      this.planSize = 0;
     }
 
     void blend(LXBlend blend, BlendStack that, double alpha) {
+      that.flush();
       blend(blend, that.destination, alpha);
     }
 
     void blend(LXBlend blend, int[] src, double alpha) {
-      blend.blend(this.destination, src, alpha, this.output);
+      if (blend instanceof LXBlend.FunctionalBlend) {
+        int alphaMask = (int) (alpha * 0x100);
+        if (alphaMask <= 0) {
+          // Functional blends at zero alpha leave the destination untouched
+          return;
+        }
+        if (this.planSize == 0) {
+          this.planDestination = this.destination;
+        } else if (this.planSize == this.planBlends.length) {
+          this.planBlends = Arrays.copyOf(this.planBlends, this.planSize * 2);
+          this.planSources = Arrays.copyOf(this.planSources, this.planSize * 2);
+          this.planAlphas = Arrays.copyOf(this.planAlphas, this.planSize * 2);
+        }
+        this.planBlends[this.planSize] = (LXBlend.FunctionalBlend) blend;
+        this.planSources[this.planSize] = src;
+        this.planAlphas[this.planSize] = alphaMask;
+        ++this.planSize;
+      } else {
+        flush();
+        blend.blend(this.destination, src, alpha, this.output);
+      }
       this.destination = this.output;
       this.hasOutput = true;
     }
 
-    void transition(LXBlend blend, int[] src, double lerp) {
-      blend.lerp(this.destination, src, lerp, this.output);
+    void transition(LXBlend blend, BlendStack that, double lerp) {
+      flush();
+      that.flush();
+      blend.lerp(this.destination, that.destination, lerp, this.output);
       this.destination = this.output;
       this.hasOutput = true;
     }
 
     void copyFrom(BlendStack that) {
+      that.flush();
+      this.planSize = 0;
       System.arraycopy(that.destination, 0, this.output, 0, that.destination.length);
       this.destination = this.output;
       this.hasOutput = true;
     }
 
     void flatten() {
+      flush();
       if (!this.hasOutput) {
         System.arraycopy(this.destination, 0, this.output, 0, this.destination.length);
         this.destination = this.output;
@@ -827,6 +872,184 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
       }
     }
 
+    // Applies all of the pending blends
+    void flush() {
+      final int planSize = this.planSize;
+      if (planSize == 0) {
+        return;
+      }
+      final int length = this.output.length;
+      if (planSize == 1) {
+        this.planBlends[0].blend(this.planDestination, this.planSources[0], this.planAlphas[0], this.output, 0, length);
+      } else {
+        for (int start = 0; start < length; start += BLEND_TILE_SIZE) {
+          int end = Math.min(length, start + BLEND_TILE_SIZE);
+          int[] dst = this.planDestination;
+          for (int i = 0; i < planSize; ++i) {
+            this.planBlends[i].blend(dst, this.planSources[i], this.planAlphas[i], this.output, start, end);
+            dst = this.output;
+          }
+        }
+      }
+      for (int i = 0; i < planSize; ++i) {
+        this.planSources[i] = null;
+      }
+      this.planDestination = null;
+      this.planSize = 0;
+    }
+
+  }
+
+  private final LXChannelExecutor serialExecutor = new LXChannelExecutor.Serial();
+
+  private LXChannelExecutor threadedExecutor = null;
+
+  // Whether threadedExecutor was created on demand, rather than set explicitly
+  private boolean isDefaultExecutor = false;
+
+  /**
+   * Sets the executor used to run channels when the engine is in channel-multithreaded
+   * mode. If none is specified, a work-stealing pool with one worker per processor is
+   * created on demand, and disposed again when channel multithreading is turned off.
+   * An executor that is set explicitly is kept until it is replaced or the mixer is
+   * disposed. Any previously set executor is disposed.
+   *
+   * @param executor Channel executor
+   * @return this
+   */
+  public LXMixerEngine setChannelExecutor(LXChannelExecutor executor) {
+    Objects.requireNonNull(executor, "May not set null LXChannelExecutor");
+    if (this.threadedExecutor != null && this.threadedExecutor != executor) {
+      this.threadedExecutor.dispose();
+    }
+    this.threadedExecutor = executor;
+    this.isDefaultExecutor = false;
+    return this;
+  }
+
+  private LXChannelExecutor getChannelExecutor() {
+    if (!this.lx.engine.isChannelMultithreaded.isOn()) {
+      // Don't hold on to idle worker threads while running serially
+      if (this.isDefaultExecutor) {
+        this.threadedExecutor.dispose();
+        this.threadedExecutor = null;
+        this.isDefaultExecutor = false;
+      }
+      return this.serialExecutor;
+    }
+    if (this.threadedExecutor == null) {
+      this.threadedExecutor = new LXChannelExecutor.WorkStealing();
+      this.isDefaultExecutor = true;
+    }
+    return this.threadedExecutor;
+  }
+
+  // Holds on to the result of the most recent blend, along with everything that went
+  // into it. When every channel reports that its colors are unchanged and none of the
+  // mixer's blend settings have changed, the blend is skipped and this is reused.
+  private class StaticMix {
+
+    private static final int VALUES_PER_CHANNEL = 4;
+
+    private int[] main = new int[0];
+    private int[] cue = new int[0];
+    private boolean cueOn = false;
+    private boolean isValid = false;
+
+    private LXAbstractChannel[] channels = new LXAbstractChannel[0];
+    private LXBlend[] blends = new LXBlend[0];
+    private double[] values = new double[0];
+    private LXBlend crossfaderBlend = null;
+    private double crossfader = -1;
+    private boolean cueA = false, cueB = false;
+
+    // Updates the mix state, returning true if anything has changed
+    private boolean update() {
+      int numChannels = LXMixerEngine.this.channels.size();
+      boolean changed = false;
+      if (this.channels.length != numChannels) {
+        this.channels = new LXAbstractChannel[numChannels];
+        this.blends = new LXBlend[numChannels];
+        this.values = new double[numChannels * VALUES_PER_CHANNEL];
+        changed = true;
+      }
+      int i = 0;
+      for (LXAbstractChannel channel : LXMixerEngine.this.channels) {
+        LXBlend blend = channel.blendMode.getObject();
+        if ((this.channels[i] != channel) || (this.blends[i] != blend)) {
+          this.channels[i] = channel;
+          this.blends[i] = blend;
+          changed = true;
+        }
+        int v = i * VALUES_PER_CHANNEL;
+        changed = updateValue(v, channel.enabled.isOn() ? 1 : 0) || changed;
+        changed = updateValue(v+1, channel.fader.getValue()) || changed;
+        changed = updateValue(v+2, channel.crossfadeGroup.getEnum().ordinal()) || changed;
+        changed = updateValue(v+3, channel.cueActive.isOn() ? 1 : 0) || changed;
+        ++i;
+      }
+
+      LXBlend crossfaderBlend = crossfaderBlendMode.getObject();
+      double crossfader = LXMixerEngine.this.crossfader.getValue();
+      boolean cueA = LXMixerEngine.this.cueA.isOn();
+      boolean cueB = LXMixerEngine.this.cueB.isOn();
+      if ((this.crossfaderBlend != crossfaderBlend) ||
+          (this.crossfader != crossfader) ||
+          (this.cueA != cueA) ||
+          (this.cueB != cueB)) {
+        this.crossfaderBlend = crossfaderBlend;
+        this.crossfader = crossfader;
+        this.cueA = cueA;
+        this.cueB = cueB;
+        changed = true;
+      }
+      return changed;
+    }
+
+    private boolean updateValue(int index, double value) {
+      if (this.values[index] != value) {
+        this.values[index] = value;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean canReuse(LXEngine.Frame render) {
+      return this.isValid && (this.main.length == render.getMain().length);
+    }
+
+    private void save(LXEngine.Frame render, boolean cueOn) {
+      int[] main = render.getMain();
+      int[] cue = render.getCue();
+      if (this.main.length != main.length) {
+        this.main = new int[main.length];
+        this.cue = new int[cue.length];
+      }
+      System.arraycopy(main, 0, this.main, 0, main.length);
+      System.arraycopy(cue, 0, this.cue, 0, cue.length);
+      this.cueOn = cueOn;
+      this.isValid = true;
+    }
+
+    private void restore(LXEngine.Frame render) {
+      System.arraycopy(this.main, 0, render.getMain(), 0, this.main.length);
+      System.arraycopy(this.cue, 0, render.getCue(), 0, this.cue.length);
+      render.setCueOn(this.cueOn);
+    }
+  }
+
+  private final StaticMix staticMix = new StaticMix();
+
+  private boolean isStaticFrame = false;
+
+  /**
+   * Whether the most recent frame reused the previous mix, because no channel's
+   * colors and none of the mixer settings had changed.
+   *
+   * @return True if the mixer output was unchanged on the last frame
+   */
+  public boolean isStaticFrame() {
+    return this.isStaticFrame;
   }
 
   private final BlendStack blendStackMain = new BlendStack();
@@ -849,56 +1072,39 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
     boolean rightBusActive = crossfadeValue > 0.;
     boolean cueBusActive = false;
 
-    boolean isChannelMultithreaded = this.lx.engine.isChannelMultithreaded.isOn();
+    // Step 1: Loop all of the channels and composite any groups, either serially or
+    // on the pool of channel workers if we are in super-threaded mode
+    getChannelExecutor().execute(this.channels, deltaMs);
 
-    // Step 1a: Loop all of the channels
-    if (isChannelMultithreaded) {
-      // If we are in super-threaded mode, run the channels on their own threads!
-      for (LXAbstractChannel channel : this.channels) {
-        synchronized (channel.thread) {
-          channel.thread.signal.workDone = false;
-          channel.thread.deltaMs = deltaMs;
-          channel.thread.workReady = true;
-          channel.thread.notify();
-          if (!channel.thread.hasStarted) {
-            channel.thread.hasStarted = true;
-            channel.thread.start();
-          }
-        }
-      }
-
-      // Wait for all the channel threads to finish
-      for (LXAbstractChannel channel : this.mutableChannels) {
-        synchronized (channel.thread.signal) {
-          while (!channel.thread.signal.workDone) {
-            try {
-              channel.thread.signal.wait();
-            } catch (InterruptedException ix) {
-              Thread.currentThread().interrupt();
-              break;
-            }
-          }
-          channel.thread.signal.workDone = false;
-        }
-      }
-    } else {
-      // We are not in super-threaded mode, just loop all the channels
-      for (LXAbstractChannel channel : this.channels) {
-        channel.loop(deltaMs);
-      }
-    }
-    // Step 1b: Run the master channel (it may have clips on it)
+    // Step 2: Run the master channel (it may have clips on it)
+    long masterStart = System.nanoTime();
     this.masterBus.loop(deltaMs);
-    this.lx.engine.profiler.channelNanos = System.nanoTime() - channelStart;
-
-    // Step 2: composite any group channels
+    long masterEnd = System.nanoTime();
+    ((LXBus.Profiler) this.masterBus.profiler).loopHistogram.record(masterStart, masterEnd);
+    LXEngine.Profiler engineProfiler = this.lx.engine.profiler;
+    engineProfiler.channelNanos = engineProfiler.channelHistogram.record(channelStart, masterEnd);
+
+    // Skip blending if the result would be identical to the previous frame. Master
+    // effects are always assumed to be animating.
+    boolean allStatic = this.masterBus.effects.isEmpty();
     for (LXAbstractChannel channel : this.channels) {
-      if (channel instanceof LXGroup && channel.isAnimating) {
-        ((LXGroup) channel).afterLoop(deltaMs);
+      allStatic = allStatic && channel.isStaticFrame;
+    }
+    if (allStatic) {
+      boolean changed = this.staticMix.update();
+      if (!changed && this.staticMix.canReuse(render)) {
+        this.staticMix.restore(render);
+        this.isStaticFrame = true;
+        engineProfiler.blendNanos = 0;
+        return;
       }
+    } else {
+      this.staticMix.isValid = false;
     }
+    this.isStaticFrame = false;
 
     // Step 3: blend the channel buffers down
+    long mixStart = System.nanoTime();
     boolean blendLeft = leftBusActive || this.cueA.isOn();
     boolean blendRight = rightBusActive || this.cueB.isOn();
     boolean leftExists = false, rightExists = false;
@@ -943,7 +1149,8 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
         this.blendStackCue.blend(this.addBlend, channel.getColors(), 1);
       }
 
-      ((LXAbstractChannel.Profiler) channel.profiler).blendNanos = System.nanoTime() - blendStart;
+      LXAbstractChannel.Profiler profiler = (LXAbstractChannel.Profiler) channel.profiler;
+      profiler.blendNanos = profiler.blendHistogram.record(blendStart, System.nanoTime());
     }
 
     // Check if the crossfade group buses are cued
@@ -964,7 +1171,7 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
     if (leftContent && rightContent) {
       // There are left and right channels assigned!
       LXBlend blend = this.crossfaderBlendMode.getObject();
-      blendStackLeft.transition(blend, blendStackRight.destination, crossfadeValue);
+      blendStackLeft.transition(blend, blendStackRight, crossfadeValue);
       // Add the crossfaded groups to the main buffer
       this.blendStackMain.blend(this.addBlend, blendStackLeft, 1.);
     } else if (leftContent) {
@@ -977,6 +1184,8 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
 
     // Check for edge case of all channels being off, don't leave stale data in blend buffer!
     this.blendStackMain.flatten();
+    this.blendStackCue.flush();
+    engineProfiler.blendNanos = engineProfiler.blendHistogram.record(mixStart, System.nanoTime());
 
     // Time to apply master FX to the main blended output
     long effectStart = System.nanoTime();
@@ -984,10 +1193,16 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
       effect.setBuffer(render);
       effect.loop(deltaMs);
     }
-    ((LXBus.Profiler) this.masterBus.profiler).effectNanos = System.nanoTime() - effectStart;
+    LXBus.Profiler masterProfiler = (LXBus.Profiler) this.masterBus.profiler;
+    masterProfiler.effectNanos = masterProfiler.effectHistogram.record(effectStart, System.nanoTime());
 
     // Mark the cue active state of the buffer
     render.setCueOn(cueBusActive);
+
+    // Keep this mix around if it may be reused next frame
+    if (allStatic) {
+      this.staticMix.save(render, cueBusActive);
+    }
   }
 
   private static final String KEY_CHANNELS = "channels";
@@ -1032,6 +1247,9 @@ public class LXMixerEngine extends LXComponent implements LXOscComponent {
       removeChannel(channel);
     }
     this.masterBus.dispose();
+    if (this.threadedExecutor != null) {
+      this.threadedExecutor.dispose();
+    }
     super.dispose();
   }
 
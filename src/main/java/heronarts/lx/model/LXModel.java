@@ -19,6 +19,7 @@
 package heronarts.lx.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -90,6 +91,7 @@ public class LXModel implements LXSerializable {
    */
   public final LXPoint[] points;
 
+  // Backed by the points array, so that spliced points are reflected
   private final List<LXPoint> pointList;
 
   /**
@@ -124,6 +126,40 @@ public class LXModel implements LXSerializable {
 
   private int generation = 0;
 
+  private interface PointFunction {
+    float get(LXPoint p);
+  }
+
+  private enum PointField {
+    X((p) -> p.x),
+    Y((p) -> p.y),
+    Z((p) -> p.z),
+    R((p) -> p.r),
+    RC((p) -> p.rc),
+    THETA((p) -> p.theta),
+    AZIMUTH((p) -> p.azimuth),
+    ELEVATION((p) -> p.elevation),
+    XN((p) -> p.xn),
+    YN((p) -> p.yn),
+    ZN((p) -> p.zn),
+    RN((p) -> p.rn),
+    RCN((p) -> p.rcn);
+
+    private final PointFunction function;
+
+    private PointField(PointFunction function) {
+      this.function = function;
+    }
+  }
+
+  // Structure-of-arrays copies of point fields, in the same order as the points
+  // array. Each is built on first use, and discarded whenever the geometry changes.
+  private final float[][] pointArrays = new float[PointField.values().length][];
+
+  private int[] indexArray = null;
+
+  private LXSpatialIndex spatialIndex = null;
+
   /**
    * Total number of points in the model
    */
@@ -321,10 +357,10 @@ public class LXModel implements LXSerializable {
    */
   public LXModel(List<LXPoint> points, LXModel[] children, Map<String, String> metaData, String ... keys) {
     this.keys = validateKeys(keys);
-    this.pointList = Collections.unmodifiableList(new ArrayList<LXPoint>(points));
+    this.points = points.toArray(new LXPoint[0]);
+    this.pointList = Collections.unmodifiableList(Arrays.asList(this.points));
     addChildren(children);
     this.children = children.clone();
-    this.points = this.pointList.toArray(new LXPoint[0]);
     this.size = this.points.length;
     this.outputs = Collections.unmodifiableList(new ArrayList<LXOutput>());
 
@@ -368,7 +404,7 @@ public class LXModel implements LXSerializable {
     }
     this.children = children.clone();
     this.points = _points.toArray(new LXPoint[0]);
-    this.pointList = Collections.unmodifiableList(_points);
+    this.pointList = Collections.unmodifiableList(Arrays.asList(this.points));
     this.size = _points.size();
     this.outputs = Collections.unmodifiableList(new ArrayList<LXOutput>());
     this.metaData = Collections.unmodifiableMap(new HashMap<String, String>());
@@ -395,7 +431,7 @@ public class LXModel implements LXSerializable {
     }
     addChildren(children);
     this.points = _points.toArray(new LXPoint[0]);
-    this.pointList = Collections.unmodifiableList(_points);
+    this.pointList = Collections.unmodifiableList(Arrays.asList(this.points));
     this.size = this.points.length;
     this.outputs = Collections.unmodifiableList(new ArrayList<LXOutput>(builder.outputs));
     this.metaData = Collections.unmodifiableMap(new HashMap<String, String>());
@@ -451,6 +487,7 @@ public class LXModel implements LXSerializable {
    * @return this
    */
   public LXModel reindexPoints() {
+    clearPointArrays();
     int index = 0;
     for (LXPoint p : this.points) {
       p.index = index++;
@@ -588,6 +625,7 @@ public class LXModel implements LXSerializable {
    * @return this
    */
   public LXModel bang() {
+    clearPointArrays();
     ++this.generation;
     // Notify the listeners of this model that it has changed
     for (Listener listener : this.listeners) {
@@ -710,6 +748,7 @@ public class LXModel implements LXSerializable {
    * @return this
    */
   public LXModel normalizePoints() {
+    clearPointArrays();
     for (LXPoint p : this.points) {
       p.normalize(this);
     }
@@ -745,6 +784,198 @@ public class LXModel implements LXSerializable {
     return this;
   }
 
+  // Points are shared with submodels and with every ancestor model, so their copies
+  // are discarded as well. The ancestors' other submodels do not hold these points.
+  private void clearPointArrays() {
+    clearSubmodelPointArrays();
+    for (LXModel ancestor = this.parent; ancestor != null; ancestor = ancestor.parent) {
+      ancestor.clearOwnPointArrays();
+    }
+  }
+
+  private void clearSubmodelPointArrays() {
+    clearOwnPointArrays();
+    for (LXModel child : this.children) {
+      child.clearSubmodelPointArrays();
+    }
+  }
+
+  private void clearOwnPointArrays() {
+    synchronized (this.pointArrays) {
+      Arrays.fill(this.pointArrays, null);
+      this.indexArray = null;
+      this.spatialIndex = null;
+    }
+  }
+
+  private float[] getPointArray(PointField field) {
+    synchronized (this.pointArrays) {
+      float[] array = this.pointArrays[field.ordinal()];
+      if (array == null) {
+        array = new float[this.points.length];
+        for (int i = 0; i < array.length; ++i) {
+          array[i] = field.function.get(this.points[i]);
+        }
+        this.pointArrays[field.ordinal()] = array;
+      }
+      return array;
+    }
+  }
+
+  /**
+   * Gets the color buffer index of every point in this model, in the same order as
+   * the points array. The returned array is shared and must not be modified.
+   *
+   * @return Color buffer indices of the points
+   */
+  public int[] indices() {
+    synchronized (this.pointArrays) {
+      if (this.indexArray == null) {
+        this.indexArray = toIndexBuffer();
+      }
+      return this.indexArray;
+    }
+  }
+
+  /**
+   * Gets the x-coordinate of every point in this model, in the same order as the
+   * points array. Iterating over this array, rather than reading the field of each
+   * point object, keeps the values contiguous in memory. The array is cached until
+   * the geometry of the model changes, and must not be modified. Callers should
+   * retrieve it again each frame rather than holding on to it.
+   *
+   * @return Array of point x-coordinates
+   */
+  public float[] x() {
+    return getPointArray(PointField.X);
+  }
+
+  /**
+   * Gets the y-coordinate of every point in this model, see {@link #x()}
+   *
+   * @return Array of point y-coordinates
+   */
+  public float[] y() {
+    return getPointArray(PointField.Y);
+  }
+
+  /**
+   * Gets the z-coordinate of every point in this model, see {@link #x()}
+   *
+   * @return Array of point z-coordinates
+   */
+  public float[] z() {
+    return getPointArray(PointField.Z);
+  }
+
+  /**
+   * Gets the radius from the origin of every point in this model, see {@link #x()}
+   *
+   * @return Array of point radii
+   */
+  public float[] r() {
+    return getPointArray(PointField.R);
+  }
+
+  /**
+   * Gets the radius from the model center of every point in this model, see {@link #x()}
+   *
+   * @return Array of point radii from center
+   */
+  public float[] rc() {
+    return getPointArray(PointField.RC);
+  }
+
+  /**
+   * Gets the angle in the x-y plane of every point in this model, see {@link #x()}
+   *
+   * @return Array of point theta angles
+   */
+  public float[] theta() {
+    return getPointArray(PointField.THETA);
+  }
+
+  /**
+   * Gets the azimuth of every point in this model, see {@link #x()}
+   *
+   * @return Array of point azimuths
+   */
+  public float[] azimuth() {
+    return getPointArray(PointField.AZIMUTH);
+  }
+
+  /**
+   * Gets the elevation of every point in this model, see {@link #x()}
+   *
+   * @return Array of point elevations
+   */
+  public float[] elevation() {
+    return getPointArray(PointField.ELEVATION);
+  }
+
+  /**
+   * Gets the normalized x-position of every point in this model, see {@link #x()}
+   *
+   * @return Array of normalized point x-positions
+   */
+  public float[] xn() {
+    return getPointArray(PointField.XN);
+  }
+
+  /**
+   * Gets the normalized y-position of every point in this model, see {@link #x()}
+   *
+   * @return Array of normalized point y-positions
+   */
+  public float[] yn() {
+    return getPointArray(PointField.YN);
+  }
+
+  /**
+   * Gets the normalized z-position of every point in this model, see {@link #x()}
+   *
+   * @return Array of normalized point z-positions
+   */
+  public float[] zn() {
+    return getPointArray(PointField.ZN);
+  }
+
+  /**
+   * Gets the normalized radius from the origin of every point in this model, see {@link #x()}
+   *
+   * @return Array of normalized point radii
+   */
+  public float[] rn() {
+    return getPointArray(PointField.RN);
+  }
+
+  /**
+   * Gets the normalized radius from the model center of every point in this model,
+   * see {@link #x()}
+   *
+   * @return Array of normalized point radii from center
+   */
+  public float[] rcn() {
+    return getPointArray(PointField.RCN);
+  }
+
+  /**
+   * Gets a spatial index over the positions of the points in this model, for radius,
+   * nearest-neighbor and box queries. The index is built on first use, which takes
+   * O(n log n) time, and is rebuilt after the geometry of the model changes. Callers
+   * should retrieve it again each frame rather than holding on to it.
+   *
+   * @return Spatial index of this model's points
+   */
+  public LXSpatialIndex getSpatialIndex() {
+    synchronized (this.pointArrays) {
+      if ((this.spatialIndex == null) || (this.spatialIndex.generation != this.generation)) {
+        this.spatialIndex = new LXSpatialIndex(this, this.generation);
+      }
+      return this.spatialIndex;
+    }
+  }
+
   /**
    * Accessor for a list of all points in the model. Generally preferable
    * to directly access the points array when iterating over a full buffer,
@@ -768,7 +999,10 @@ public class LXModel implements LXSerializable {
 
   public void dispose() {
     for (LXModel child : this.children) {
-      child.dispose();
+      // Children may have been re-used by a newer model, those are not ours to dispose
+      if (child.parent == this) {
+        child.dispose();
+      }
     }
     this.listeners.clear();
   }
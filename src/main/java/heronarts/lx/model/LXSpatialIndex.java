@@ -0,0 +1,432 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.model;
+
+/**
+ * A k-d tree over the x/y/z positions of the points in a model, which supports
+ * radius, nearest-neighbor and axis-aligned box queries. An index is obtained
+ * from {@link LXModel#getSpatialIndex()}, which builds it when first needed and
+ * rebuilds it whenever the model's generation changes.
+ *
+ * The tree is stored implicitly in flat arrays: each node is the median of a range
+ * of points, with the points on either side of it forming its subtrees, and small
+ * ranges are scanned directly. Queries write the color buffer indices of matching
+ * points into buffers provided by the caller, and do not allocate. An index is
+ * immutable once built and may be queried from multiple threads at once.
+ */
+public class LXSpatialIndex {
+
+  // Ranges of this many points or fewer are scanned rather than split
+  private static final int LEAF_SIZE = 8;
+
+  private static final byte AXIS_X = 0;
+  private static final byte AXIS_Y = 1;
+  private static final byte AXIS_Z = 2;
+
+  /**
+   * Generation of the model this index was built from
+   */
+  public final int generation;
+
+  /**
+   * Number of points in the index
+   */
+  public final int size;
+
+  // Point positions and color indices, in tree order
+  private final float[] x;
+  private final float[] y;
+  private final float[] z;
+  private final int[] index;
+
+  // Split axis of the node at the median of each range, unused for leaves
+  private final byte[] axis;
+
+  LXSpatialIndex(LXModel model, int generation) {
+    this.generation = generation;
+    this.size = model.points.length;
+    float[] mx = model.x();
+    float[] my = model.y();
+    float[] mz = model.z();
+    int[] mIndex = model.indices();
+
+    int[] order = new int[this.size];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    this.axis = new byte[this.size];
+    build(order, 0, this.size, mx, my, mz);
+
+    this.x = new float[this.size];
+    this.y = new float[this.size];
+    this.z = new float[this.size];
+    this.index = new int[this.size];
+    for (int i = 0; i < this.size; ++i) {
+      int o = order[i];
+      this.x[i] = mx[o];
+      this.y[i] = my[o];
+      this.z[i] = mz[o];
+      this.index[i] = mIndex[o];
+    }
+  }
+
+  private void build(int[] order, int lo, int hi, float[] x, float[] y, float[] z) {
+    if (hi - lo <= LEAF_SIZE) {
+      return;
+    }
+
+    // Split on the axis with the greatest extent
+    float xMin = Float.MAX_VALUE, xMax = -Float.MAX_VALUE;
+    float yMin = Float.MAX_VALUE, yMax = -Float.MAX_VALUE;
+    float zMin = Float.MAX_VALUE, zMax = -Float.MAX_VALUE;
+    for (int i = lo; i < hi; ++i) {
+      int o = order[i];
+      xMin = Math.min(xMin, x[o]);
+      xMax = Math.max(xMax, x[o]);
+      yMin = Math.min(yMin, y[o]);
+      yMax = Math.max(yMax, y[o]);
+      zMin = Math.min(zMin, z[o]);
+      zMax = Math.max(zMax, z[o]);
+    }
+    float xRange = xMax - xMin, yRange = yMax - yMin, zRange = zMax - zMin;
+    byte splitAxis;
+    float[] coords;
+    if (xRange >= yRange && xRange >= zRange) {
+      splitAxis = AXIS_X;
+      coords = x;
+    } else if (yRange >= zRange) {
+      splitAxis = AXIS_Y;
+      coords = y;
+    } else {
+      splitAxis = AXIS_Z;
+      coords = z;
+    }
+
+    int mid = (lo + hi) >>> 1;
+    select(order, coords, lo, hi - 1, mid);
+    this.axis[mid] = splitAxis;
+    build(order, lo, mid, x, y, z);
+    build(order, mid + 1, hi, x, y, z);
+  }
+
+  // Partially sorts order[left..right] so that position k holds the median, with no
+  // greater values before it and no lesser values after it
+  private static void select(int[] order, float[] coords, int left, int right, int k) {
+    while (right > left) {
+      float pivot = coords[order[(left + right) >>> 1]];
+      int i = left, j = right;
+      while (i <= j) {
+        while (coords[order[i]] < pivot) {
+          ++i;
+        }
+        while (coords[order[j]] > pivot) {
+          --j;
+        }
+        if (i <= j) {
+          int swap = order[i];
+          order[i] = order[j];
+          order[j] = swap;
+          ++i;
+          --j;
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        // Everything between j and i is equal to the pivot
+        break;
+      }
+    }
+  }
+
+  private float coordinate(int i, int axis) {
+    switch (axis) {
+    case AXIS_X: return this.x[i];
+    case AXIS_Y: return this.y[i];
+    default: return this.z[i];
+    }
+  }
+
+  private float distanceSq(int i, float qx, float qy, float qz) {
+    float dx = this.x[i] - qx;
+    float dy = this.y[i] - qy;
+    float dz = this.z[i] - qz;
+    return dx*dx + dy*dy + dz*dz;
+  }
+
+  /**
+   * Finds all the points within a radius of a position. If more points match than
+   * fit in the result buffer, the buffer is filled with an arbitrary subset of them
+   * and the total number of matches is still returned.
+   *
+   * @param x Position x
+   * @param y Position y
+   * @param z Position z
+   * @param radius Radius
+   * @param result Buffer that receives the color buffer indices of matching points
+   * @return Total number of points within the radius
+   */
+  public int radius(float x, float y, float z, float radius, int[] result) {
+    return radius(0, this.size, x, y, z, radius * radius, result, 0);
+  }
+
+  private int radius(int lo, int hi, float qx, float qy, float qz, float radiusSq, int[] result, int count) {
+    if (hi - lo <= LEAF_SIZE) {
+      for (int i = lo; i < hi; ++i) {
+        if (distanceSq(i, qx, qy, qz) <= radiusSq) {
+          if (count < result.length) {
+            result[count] = this.index[i];
+          }
+          ++count;
+        }
+      }
+      return count;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = this.axis[mid];
+    float diff = ((axis == AXIS_X) ? qx : (axis == AXIS_Y) ? qy : qz) - coordinate(mid, axis);
+    if (distanceSq(mid, qx, qy, qz) <= radiusSq) {
+      if (count < result.length) {
+        result[count] = this.index[mid];
+      }
+      ++count;
+    }
+    boolean crosses = diff * diff <= radiusSq;
+    if (diff <= 0 || crosses) {
+      count = radius(lo, mid, qx, qy, qz, radiusSq, result, count);
+    }
+    if (diff >= 0 || crosses) {
+      count = radius(mid + 1, hi, qx, qy, qz, radiusSq, result, count);
+    }
+    return count;
+  }
+
+  /**
+   * Finds all the points inside an axis-aligned box, bounds inclusive. If more points
+   * match than fit in the result buffer, the buffer is filled with an arbitrary
+   * subset of them and the total number of matches is still returned.
+   *
+   * @param xMin Minimum x
+   * @param yMin Minimum y
+   * @param zMin Minimum z
+   * @param xMax Maximum x
+   * @param yMax Maximum y
+   * @param zMax Maximum z
+   * @param result Buffer that receives the color buffer indices of matching points
+   * @return Total number of points inside the box
+   */
+  public int box(float xMin, float yMin, float zMin, float xMax, float yMax, float zMax, int[] result) {
+    return box(0, this.size, xMin, yMin, zMin, xMax, yMax, zMax, result, 0);
+  }
+
+  private boolean inBox(int i, float xMin, float yMin, float zMin, float xMax, float yMax, float zMax) {
+    return
+      this.x[i] >= xMin && this.x[i] <= xMax &&
+      this.y[i] >= yMin && this.y[i] <= yMax &&
+      this.z[i] >= zMin && this.z[i] <= zMax;
+  }
+
+  private int box(int lo, int hi, float xMin, float yMin, float zMin, float xMax, float yMax, float zMax, int[] result, int count) {
+    if (hi - lo <= LEAF_SIZE) {
+      for (int i = lo; i < hi; ++i) {
+        if (inBox(i, xMin, yMin, zMin, xMax, yMax, zMax)) {
+          if (count < result.length) {
+            result[count] = this.index[i];
+          }
+          ++count;
+        }
+      }
+      return count;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = this.axis[mid];
+    float split = coordinate(mid, axis);
+    if (inBox(mid, xMin, yMin, zMin, xMax, yMax, zMax)) {
+      if (count < result.length) {
+        result[count] = this.index[mid];
+      }
+      ++count;
+    }
+    float min = (axis == AXIS_X) ? xMin : (axis == AXIS_Y) ? yMin : zMin;
+    float max = (axis == AXIS_X) ? xMax : (axis == AXIS_Y) ? yMax : zMax;
+    if (min <= split) {
+      count = box(lo, mid, xMin, yMin, zMin, xMax, yMax, zMax, result, count);
+    }
+    if (max >= split) {
+      count = box(mid + 1, hi, xMin, yMin, zMin, xMax, yMax, zMax, result, count);
+    }
+    return count;
+  }
+
+  /**
+   * Finds the point nearest to a position
+   *
+   * @param x Position x
+   * @param y Position y
+   * @param z Position z
+   * @return Color buffer index of the nearest point, or -1 if the index is empty
+   */
+  public int nearest(float x, float y, float z) {
+    if (this.size == 0) {
+      return -1;
+    }
+    return this.index[nearest(0, this.size, x, y, z, 0)];
+  }
+
+  private int nearest(int lo, int hi, float qx, float qy, float qz, int best) {
+    if (hi - lo <= LEAF_SIZE) {
+      float bestSq = distanceSq(best, qx, qy, qz);
+      for (int i = lo; i < hi; ++i) {
+        float dSq = distanceSq(i, qx, qy, qz);
+        if (dSq < bestSq) {
+          best = i;
+          bestSq = dSq;
+        }
+      }
+      return best;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = this.axis[mid];
+    float diff = ((axis == AXIS_X) ? qx : (axis == AXIS_Y) ? qy : qz) - coordinate(mid, axis);
+    if (distanceSq(mid, qx, qy, qz) < distanceSq(best, qx, qy, qz)) {
+      best = mid;
+    }
+    if (diff <= 0) {
+      best = nearest(lo, mid, qx, qy, qz, best);
+      if (diff * diff <= distanceSq(best, qx, qy, qz)) {
+        best = nearest(mid + 1, hi, qx, qy, qz, best);
+      }
+    } else {
+      best = nearest(mid + 1, hi, qx, qy, qz, best);
+      if (diff * diff <= distanceSq(best, qx, qy, qz)) {
+        best = nearest(lo, mid, qx, qy, qz, best);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Finds the k points nearest to a position, ordered from nearest to furthest
+   *
+   * @param x Position x
+   * @param y Position y
+   * @param z Position z
+   * @param k Number of points to find
+   * @param result Buffer that receives the color buffer indices of the nearest points, of length at least k
+   * @param distanceSq Buffer that receives the squared distances of the nearest points, of length at least k
+   * @return Number of points found, which is k unless the index holds fewer points
+   */
+  public int nearest(float x, float y, float z, int k, int[] result, float[] distanceSq) {
+    if (k < 0 || result.length < k || distanceSq.length < k) {
+      throw new IllegalArgumentException("Nearest-neighbor result buffers must hold k=" + k + " points");
+    }
+    if (k == 0) {
+      return 0;
+    }
+    // The buffers hold a max-heap of positions in the tree while searching
+    int count = nearest(0, this.size, x, y, z, k, result, distanceSq, 0);
+
+    // Heap-sort into ascending distance, then swap tree positions for color indices
+    for (int end = count - 1; end > 0; --end) {
+      swap(result, distanceSq, 0, end);
+      siftDown(result, distanceSq, 0, end);
+    }
+    for (int i = 0; i < count; ++i) {
+      result[i] = this.index[result[i]];
+    }
+    return count;
+  }
+
+  private int nearest(int lo, int hi, float qx, float qy, float qz, int k, int[] heap, float[] heapDistSq, int count) {
+    if (hi - lo <= LEAF_SIZE) {
+      for (int i = lo; i < hi; ++i) {
+        count = offer(i, distanceSq(i, qx, qy, qz), k, heap, heapDistSq, count);
+      }
+      return count;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = this.axis[mid];
+    float diff = ((axis == AXIS_X) ? qx : (axis == AXIS_Y) ? qy : qz) - coordinate(mid, axis);
+    count = offer(mid, distanceSq(mid, qx, qy, qz), k, heap, heapDistSq, count);
+    int nearLo = (diff <= 0) ? lo : mid + 1;
+    int nearHi = (diff <= 0) ? mid : hi;
+    int farLo = (diff <= 0) ? mid + 1 : lo;
+    int farHi = (diff <= 0) ? hi : mid;
+    count = nearest(nearLo, nearHi, qx, qy, qz, k, heap, heapDistSq, count);
+    if (count < k || diff * diff <= heapDistSq[0]) {
+      count = nearest(farLo, farHi, qx, qy, qz, k, heap, heapDistSq, count);
+    }
+    return count;
+  }
+
+  // Adds a candidate to the bounded max-heap of nearest points
+  private static int offer(int i, float dSq, int k, int[] heap, float[] heapDistSq, int count) {
+    if (count < k) {
+      // Sift up the new entry
+      int child = count;
+      heap[child] = i;
+      heapDistSq[child] = dSq;
+      while (child > 0) {
+        int parent = (child - 1) >>> 1;
+        if (heapDistSq[parent] >= heapDistSq[child]) {
+          break;
+        }
+        swap(heap, heapDistSq, parent, child);
+        child = parent;
+      }
+      return count + 1;
+    }
+    if (dSq < heapDistSq[0]) {
+      // Replace the furthest entry
+      heap[0] = i;
+      heapDistSq[0] = dSq;
+      siftDown(heap, heapDistSq, 0, count);
+    }
+    return count;
+  }
+
+  private static void siftDown(int[] heap, float[] heapDistSq, int parent, int count) {
+    while (true) {
+      int child = 2 * parent + 1;
+      if (child >= count) {
+        return;
+      }
+      if (child + 1 < count && heapDistSq[child + 1] > heapDistSq[child]) {
+        ++child;
+      }
+      if (heapDistSq[parent] >= heapDistSq[child]) {
+        return;
+      }
+      swap(heap, heapDistSq, parent, child);
+      parent = child;
+    }
+  }
+
+  private static void swap(int[] heap, float[] heapDistSq, int a, int b) {
+    int i = heap[a];
+    heap[a] = heap[b];
+    heap[b] = i;
+    float d = heapDistSq[a];
+    heapDistSq[a] = heapDistSq[b];
+    heapDistSq[b] = d;
+  }
+
+}
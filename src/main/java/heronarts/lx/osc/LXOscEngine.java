@@ -27,7 +27,6 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -40,6 +39,7 @@ import heronarts.lx.parameter.LXNormalizedParameter;
 import heronarts.lx.parameter.LXParameter;
 import heronarts.lx.parameter.LXParameterListener;
 import heronarts.lx.parameter.StringParameter;
+import heronarts.lx.utils.MpscQueue;
 
 public class LXOscEngine extends LXComponent {
 
@@ -51,6 +51,18 @@ public class LXOscEngine extends LXComponent {
 
   private final static int DEFAULT_MAX_PACKET_SIZE = 8192;
 
+  /**
+   * Maximum number of received messages held by a receiver, beyond which messages
+   * are dropped until the engine thread catches up
+   */
+  public final static int MAX_QUEUED_MESSAGES = 16384;
+
+  /**
+   * Maximum number of messages dispatched by a receiver on each engine frame, any
+   * more than this are left for the next frame
+   */
+  public final static int MAX_DISPATCH_MESSAGES = 4096;
+
   public final StringParameter receiveHost = new StringParameter("RX Host",
     DEFAULT_RECEIVE_HOST)
       .setDescription("Hostname to which OSC input socket is bound");
@@ -109,6 +121,13 @@ public class LXOscEngine extends LXComponent {
     return this;
   }
 
+  public LXOscEngine sendMessage(String path, float value) {
+    if (this.engineTransmitter != null) {
+      this.engineTransmitter.sendMessage(path, value);
+    }
+    return this;
+  }
+
   public LXOscEngine sendParameter(LXParameter parameter) {
     if (this.engineTransmitter != null) {
       this.engineTransmitter.onParameterChanged(parameter);
@@ -239,6 +258,14 @@ public class LXOscEngine extends LXComponent {
       sendMessage(oscMessage);
     }
 
+    private void sendMessage(String address, float value) {
+      oscMessage.clearArguments();
+      oscMessage.setAddressPattern(address);
+      oscFloat.setValue(value);
+      oscMessage.add(oscFloat);
+      sendMessage(oscMessage);
+    }
+
     private void sendMessage(OscMessage message) {
       try {
         send(oscMessage);
@@ -258,10 +285,9 @@ public class LXOscEngine extends LXComponent {
     private final byte[] buffer;
     private final ReceiverThread thread;
 
-    private final List<OscMessage> threadSafeEventQueue = Collections
-      .synchronizedList(new ArrayList<OscMessage>());
+    private final MpscQueue<OscMessage> eventQueue = new MpscQueue<OscMessage>(MAX_QUEUED_MESSAGES);
 
-    private final List<OscMessage> engineThreadEventQueue = new ArrayList<OscMessage>();
+    private long droppedMessages = 0;
 
     private final List<LXOscListener> listeners = new ArrayList<LXOscListener>();
     private final List<LXOscListener> listenerSnapshot = new ArrayList<LXOscListener>();
@@ -319,10 +345,10 @@ public class LXOscEngine extends LXComponent {
 
               // Add all messages in the packet to the queue
               if (oscPacket instanceof OscMessage) {
-                threadSafeEventQueue.add((OscMessage) oscPacket);
+                eventQueue.add((OscMessage) oscPacket);
               } else if (oscPacket instanceof OscBundle) {
                 for (OscMessage message : (OscBundle) oscPacket) {
-                  threadSafeEventQueue.add(message);
+                  eventQueue.add(message);
                 }
               }
             } catch (OscException oscx) {
@@ -341,24 +367,44 @@ public class LXOscEngine extends LXComponent {
     }
 
     private void dispatch() {
-      this.engineThreadEventQueue.clear();
-      synchronized (this.threadSafeEventQueue) {
-        this.engineThreadEventQueue.addAll(this.threadSafeEventQueue);
-        this.threadSafeEventQueue.clear();
-      }
       // TODO(mcslee): do we want to handle NTP timetags?
 
       // NOTE(mcslee): we iterate this way so that listeners can modify the
       // listener list
       this.listenerSnapshot.clear();
       this.listenerSnapshot.addAll(this.listeners);
-      for (OscMessage message : this.engineThreadEventQueue) {
+      this.eventQueue.drain((message) -> {
         for (LXOscListener listener : this.listenerSnapshot) {
           listener.oscMessage(message);
         }
+      }, MAX_DISPATCH_MESSAGES);
+
+      long droppedMessages = this.eventQueue.getDroppedCount();
+      if (droppedMessages != this.droppedMessages) {
+        error("OSC receiver on port " + this.port + " dropped " + (droppedMessages - this.droppedMessages) + " messages, input queue is full");
+        this.droppedMessages = droppedMessages;
       }
     }
 
+    /**
+     * Total number of messages dropped by this receiver because its queue was full
+     *
+     * @return Number of dropped messages
+     */
+    public long getDroppedMessages() {
+      return this.eventQueue.getDroppedCount();
+    }
+
+    /**
+     * Total number of times a message was held over to a later frame because the
+     * per-frame dispatch limit was reached
+     *
+     * @return Number of deferred messages
+     */
+    public long getDeferredMessages() {
+      return this.eventQueue.getDeferredCount();
+    }
+
     public void stop() {
       this.thread.interrupt();
       this.socket.close();
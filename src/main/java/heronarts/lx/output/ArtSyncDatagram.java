@@ -49,4 +49,9 @@ public class ArtSyncDatagram extends LXDatagram {
     return 0;
   }
 
+  @Override
+  protected boolean isSyncPacket() {
+    return true;
+  }
+
 }
@@ -86,6 +86,14 @@ public class DDPDatagram extends LXDatagram {
     return this;
   }
 
+  /**
+   * Datagrams with the push flag set are held back until all other data is sent
+   */
+  @Override
+  protected boolean isSyncPacket() {
+    return (this.buffer[FLAGS_INDEX] & 0x01) != 0;
+  }
+
   /**
    * Sets the data offset for this packet
    *
@@ -0,0 +1,303 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import heronarts.lx.utils.LatencyHistogram;
+
+/**
+ * NIO transport used to send datagrams. A non-blocking DatagramChannel is opened
+ * for each destination, and packets are written from direct buffers that are handed
+ * out of a shared pool. A write that would block because the channel's send buffer
+ * is full drops the packet, and is counted as back-pressure on that destination
+ * rather than stalling the output thread.
+ *
+ * Channels are deliberately not connected. A connected UDP channel reports ICMP
+ * port unreachable messages as errors on subsequent writes, which would put a host
+ * that is routable but not yet listening into error backoff. Unconnected sends
+ * behave like the DatagramSocket they replace, and only fail on local errors.
+ *
+ * Destinations are reference counted. Each datagram holds a reference to the
+ * destination it sends to, and releases it when its address changes or it is
+ * disposed, at which point channels that are no longer used are closed. The
+ * engine owns one transport, which is closed when the engine is disposed.
+ */
+public class DatagramTransport {
+
+  /**
+   * Per-destination channel and statistics. The counters are written by whichever
+   * thread is sending to this destination, and may be read from any thread.
+   */
+  public static class Destination {
+
+    public final InetSocketAddress address;
+
+    /**
+     * Interface that multicast packets are sent from, null for the system default
+     */
+    public final NetworkInterface networkInterface;
+
+    private final DatagramChannel channel;
+
+    // Number of datagrams sending to this destination, guarded by the transport
+    private int references = 0;
+
+    private volatile long sentPackets = 0;
+    private volatile long sentBytes = 0;
+    private volatile long blockedPackets = 0;
+    private volatile long suppressedPackets = 0;
+
+    /**
+     * Time taken to send each datagram to this destination
+     */
+    public final LatencyHistogram sendHistogram = new LatencyHistogram();
+
+    private Destination(InetSocketAddress address, NetworkInterface networkInterface) throws IOException {
+      this.address = address;
+      this.networkInterface = networkInterface;
+      this.channel = DatagramChannel.open();
+      this.channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+      if (networkInterface != null) {
+        this.channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+      }
+      this.channel.configureBlocking(false);
+    }
+
+    boolean matches(InetAddress address, int port, NetworkInterface networkInterface) {
+      return
+        (this.address.getPort() == port) &&
+        this.address.getAddress().equals(address) &&
+        Objects.equals(this.networkInterface, networkInterface);
+    }
+
+    private void close() {
+      try {
+        this.channel.close();
+      } catch (IOException iox) {
+        LXOutput.error(iox, "Error closing datagram channel to " + this);
+      }
+    }
+
+    /**
+     * Number of packets successfully handed to the network stack
+     *
+     * @return Number of packets sent
+     */
+    public long getSentPackets() {
+      return this.sentPackets;
+    }
+
+    /**
+     * Number of payload bytes successfully handed to the network stack
+     *
+     * @return Number of bytes sent
+     */
+    public long getSentBytes() {
+      return this.sentBytes;
+    }
+
+    /**
+     * Number of packets dropped because the channel's send buffer was full
+     *
+     * @return Number of packets dropped due to back-pressure
+     */
+    public long getBlockedPackets() {
+      return this.blockedPackets;
+    }
+
+    /**
+     * Number of packets to this destination that were not sent in delta mode,
+     * because their contents were unchanged
+     *
+     * @return Number of packets suppressed
+     */
+    public long getSuppressedPackets() {
+      return this.suppressedPackets;
+    }
+
+    void countSuppressed() {
+      ++this.suppressedPackets;
+    }
+
+    @Override
+    public String toString() {
+      return (this.networkInterface != null) ? (this.address + "%" + this.networkInterface.getName()) : this.address.toString();
+    }
+  }
+
+  private static class Key {
+
+    private final InetSocketAddress address;
+    private final NetworkInterface networkInterface;
+
+    private Key(InetSocketAddress address, NetworkInterface networkInterface) {
+      this.address = address;
+      this.networkInterface = networkInterface;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.address.hashCode() + Objects.hashCode(this.networkInterface);
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that instanceof Key) {
+        Key key = (Key) that;
+        return this.address.equals(key.address) && Objects.equals(this.networkInterface, key.networkInterface);
+      }
+      return false;
+    }
+  }
+
+  private static final int SLAB_SIZE = 1 << 16;
+
+  private final ConcurrentHashMap<Key, Destination> mutableDestinations =
+    new ConcurrentHashMap<Key, Destination>();
+
+  /**
+   * All of the destinations currently being sent to
+   */
+  public final Collection<Destination> destinations =
+    Collections.unmodifiableCollection(this.mutableDestinations.values());
+
+  private ByteBuffer slab = null;
+
+  /**
+   * Allocates a direct buffer to pack a datagram into. Small buffers are sliced from
+   * shared slabs of native memory rather than each making their own allocation.
+   *
+   * @param size Size of the buffer in bytes
+   * @return Direct byte buffer
+   */
+  public synchronized ByteBuffer allocate(int size) {
+    if (size > SLAB_SIZE) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    if ((this.slab == null) || (this.slab.remaining() < size)) {
+      this.slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+    }
+    this.slab.limit(this.slab.position() + size);
+    ByteBuffer buffer = this.slab.slice();
+    this.slab.position(this.slab.limit());
+    this.slab.limit(this.slab.capacity());
+    return buffer;
+  }
+
+  /**
+   * Acquires a reference to the destination for an address and port, opening a
+   * channel to it if there is not one already. The destination must be passed to
+   * release() when it is no longer sent to.
+   *
+   * @param address Destination address
+   * @param port Destination port
+   * @return Destination
+   * @throws IOException if a channel could not be opened
+   */
+  public Destination getDestination(InetAddress address, int port) throws IOException {
+    return getDestination(address, port, null);
+  }
+
+  /**
+   * Acquires a reference to the destination for an address and port, sending
+   * multicast packets from a specific network interface, opening a channel to it if
+   * there is not one already. The destination must be passed to release() when it
+   * is no longer sent to.
+   *
+   * @param address Destination address
+   * @param port Destination port
+   * @param networkInterface Interface for multicast packets, or null for the default
+   * @return Destination
+   * @throws IOException if a channel could not be opened
+   */
+  public Destination getDestination(InetAddress address, int port, NetworkInterface networkInterface) throws IOException {
+    if (address == null) {
+      throw new IOException("Datagram has no destination address");
+    }
+    Key key = new Key(new InetSocketAddress(address, port), networkInterface);
+    synchronized (this.mutableDestinations) {
+      Destination destination = this.mutableDestinations.get(key);
+      if (destination == null) {
+        destination = new Destination(key.address, networkInterface);
+        this.mutableDestinations.put(key, destination);
+      }
+      ++destination.references;
+      return destination;
+    }
+  }
+
+  /**
+   * Releases a reference to a destination, closing its channel if nothing else is
+   * sending to it
+   *
+   * @param destination Destination previously returned by getDestination()
+   */
+  public void release(Destination destination) {
+    synchronized (this.mutableDestinations) {
+      if (--destination.references <= 0) {
+        this.mutableDestinations.remove(new Key(destination.address, destination.networkInterface), destination);
+        destination.close();
+      }
+    }
+  }
+
+  /**
+   * Sends the remaining contents of a buffer to a destination, without blocking
+   *
+   * @param destination Destination
+   * @param buffer Buffer, positioned at the start of the packet and limited to its end
+   * @return true if the packet was sent, false if it was dropped due to back-pressure
+   * @throws IOException if the channel reports an error
+   */
+  public boolean send(Destination destination, ByteBuffer buffer) throws IOException {
+    int sent = destination.channel.send(buffer, destination.address);
+    if (sent == 0) {
+      ++destination.blockedPackets;
+      return false;
+    }
+    ++destination.sentPackets;
+    destination.sentBytes += sent;
+    return true;
+  }
+
+  /**
+   * Closes the channels to all destinations, regardless of outstanding references.
+   * Invoked when the engine is disposed.
+   */
+  public void close() {
+    synchronized (this.mutableDestinations) {
+      for (Destination destination : this.mutableDestinations.values()) {
+        destination.close();
+      }
+      this.mutableDestinations.clear();
+    }
+  }
+
+}
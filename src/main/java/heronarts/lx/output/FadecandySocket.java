@@ -107,6 +107,7 @@ public class FadecandySocket extends OPCSocket {
 
     try {
       this.output.write(this.firmwarePacket);
+      this.output.flush();
     } catch (IOException iox) {
       disconnect(iox);
     }
@@ -144,6 +145,7 @@ public class FadecandySocket extends OPCSocket {
     try {
       this.output.write(header);
       this.output.write(content);
+      this.output.flush();
     } catch (IOException iox) {
       disconnect(iox);
     }
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * A lookup table that maps brightness and input byte to output byte, for a given
+ * gamma value. Tables are shared between every output that uses the same gamma, and
+ * are reference-counted so that a table is discarded once no output is using it.
+ * Only one 64KB table then exists per distinct gamma, no matter how many outputs
+ * there are.
+ */
+public class GammaTable {
+
+  private static final Map<Double, GammaTable> cache = new HashMap<Double, GammaTable>();
+
+  private static final Map<Double, List<Consumer<GammaTable>>> pending = new HashMap<Double, List<Consumer<GammaTable>>>();
+
+  private static ExecutorService builder = null;
+
+  /**
+   * Gamma correction value of this table
+   */
+  public final double gamma;
+
+  /**
+   * Table indexed first by brightness level, then by input byte
+   */
+  final byte[][] lut = new byte[256][256];
+
+  private int refCount = 0;
+
+  private GammaTable(double gamma) {
+    this.gamma = gamma;
+    if (gamma == 1) {
+      for (int b = 0; b < 256; ++b) {
+        int bb = b + (b > 127 ? 1 : 0);
+        for (int in = 0; in < 256; ++in) {
+          this.lut[b][in] = (byte) ((in * bb) >> 8);
+        }
+      }
+    } else {
+      double maxInv = 1. / 65025.;
+      for (int b = 0; b < 256; ++b) {
+        for (int in = 0; in < 256; ++in) {
+          this.lut[b][in] = (byte) (0xff & (int) Math.round(Math.pow(in * b * maxInv, gamma) * 255.f));
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the table for a brightness level
+   *
+   * @param brightness Brightness from 0-1
+   * @return Lookup table from input byte to output byte
+   */
+  public byte[] get(double brightness) {
+    return this.lut[(int) Math.round(brightness * 255.f)];
+  }
+
+  /**
+   * Acquires a reference to the table for a gamma value, building it on this thread
+   * if it does not already exist. Must be balanced by a call to {@link #release()}.
+   *
+   * @param gamma Gamma value
+   * @return Gamma table
+   */
+  public static GammaTable acquire(double gamma) {
+    GammaTable table;
+    synchronized (cache) {
+      table = cache.get(gamma);
+      if (table != null) {
+        ++table.refCount;
+        return table;
+      }
+    }
+    return register(new GammaTable(gamma));
+  }
+
+  /**
+   * Acquires a reference to the table for a gamma value. If the table already exists,
+   * the callback is invoked immediately. Otherwise the table is built on a background
+   * thread, which then invokes the callback. Must be balanced by a call to
+   * {@link #release()}.
+   *
+   * @param gamma Gamma value
+   * @param callback Receives the acquired table
+   */
+  public static void acquireAsync(double gamma, Consumer<GammaTable> callback) {
+    GammaTable table = null;
+    synchronized (cache) {
+      table = cache.get(gamma);
+      if (table != null) {
+        ++table.refCount;
+      }
+    }
+    // Callbacks are never invoked while holding the cache lock
+    if (table != null) {
+      callback.accept(table);
+      return;
+    }
+    synchronized (cache) {
+      // Join a build of this table that's already underway
+      List<Consumer<GammaTable>> callbacks = pending.get(gamma);
+      if (callbacks != null) {
+        callbacks.add(callback);
+        return;
+      }
+      callbacks = new ArrayList<Consumer<GammaTable>>();
+      callbacks.add(callback);
+      pending.put(gamma, callbacks);
+      if (builder == null) {
+        builder = Executors.newSingleThreadExecutor((runnable) -> {
+          Thread thread = new Thread(runnable, "LXOutput gamma table builder");
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+    }
+    builder.execute(() -> {
+      GammaTable built = new GammaTable(gamma);
+      List<Consumer<GammaTable>> callbacks;
+      synchronized (cache) {
+        callbacks = pending.remove(gamma);
+      }
+      for (Consumer<GammaTable> c : callbacks) {
+        c.accept(register(built));
+      }
+    });
+  }
+
+  // Adds a newly built table to the cache, unless the same gamma was built by
+  // another thread in the meantime, in which case that table is used instead
+  private static GammaTable register(GammaTable table) {
+    synchronized (cache) {
+      GammaTable existing = cache.get(table.gamma);
+      if (existing != null) {
+        table = existing;
+      } else {
+        cache.put(table.gamma, table);
+      }
+      ++table.refCount;
+      return table;
+    }
+  }
+
+  /**
+   * Releases a reference to this table. Once every reference has been released,
+   * the table is removed from the cache.
+   */
+  public void release() {
+    synchronized (cache) {
+      if (this.refCount <= 0) {
+        throw new IllegalStateException("GammaTable released more times than acquired: " + this.gamma);
+      }
+      if (--this.refCount == 0) {
+        cache.remove(this.gamma);
+      }
+    }
+  }
+
+}
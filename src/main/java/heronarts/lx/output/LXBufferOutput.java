@@ -108,6 +108,7 @@ public abstract class LXBufferOutput extends LXOutput {
       throw new IllegalArgumentException("May not change length of LXBufferOutput indexBuffer, must make a new Output: " + this.indexBuffer.length + " != " + indexBuffer.length);
     }
     System.arraycopy(indexBuffer, 0, this.indexBuffer, 0, indexBuffer.length);
+    indexBufferChanged();
     return this;
   }
 
@@ -163,6 +164,157 @@ public abstract class LXBufferOutput extends LXOutput {
     return this;
   }
 
+  /**
+   * A packing plan is compiled from the index buffer, byte ordering and data offset
+   * of this output, so that the per-frame work is reduced to a single gather loop
+   * with no per-pixel decisions other than for entries with a negative index, which
+   * are sent as black. With a dynamic per-pixel byte ordering, the absolute position
+   * of every byte in the payload is precomputed.
+   */
+  private static class PackingPlan {
+
+    private final ByteOrder byteOrder;
+    private final ByteOrder[] byteOrderBuffer;
+    private final byte[] buffer;
+    private final int offset;
+    private final int indexGeneration;
+
+    private final boolean hasWhite;
+    private final int[] source;
+    private final int[] byteOffset;
+    private final int[] position;
+
+    private PackingPlan(LXBufferOutput output, byte[] buffer, int offset) {
+      this.byteOrder = output.byteOrder;
+      this.byteOrderBuffer = output.byteOrderBuffer;
+      this.buffer = buffer;
+      this.offset = offset;
+      this.indexGeneration = output.indexGeneration;
+
+      final int[] indexBuffer = output.indexBuffer;
+      final int numBytes = this.byteOrder.getNumBytes();
+      this.hasWhite = this.byteOrder.hasWhite();
+      this.byteOffset = this.byteOrder.getByteOffset();
+      this.source = indexBuffer.clone();
+
+      // Dynamic byte ordering resolves the position of every byte up front
+      if (this.byteOrderBuffer != null) {
+        this.position = new int[indexBuffer.length * numBytes];
+        for (int i = 0, p = 0; i < indexBuffer.length; ++i, p += numBytes) {
+          int[] byteOffset = this.byteOrderBuffer[i].getByteOffset();
+          for (int b = 0; b < numBytes; ++b) {
+            this.position[p + b] = offset + p + byteOffset[b];
+          }
+        }
+      } else {
+        this.position = null;
+      }
+    }
+
+    private boolean isValid(LXBufferOutput output, byte[] buffer, int offset) {
+      return
+        (this.byteOrder == output.byteOrder) &&
+        (this.byteOrderBuffer == output.byteOrderBuffer) &&
+        (this.buffer == buffer) &&
+        (this.offset == offset) &&
+        (this.indexGeneration == output.indexGeneration);
+    }
+
+    private void pack(int[] colors, byte[] glut) {
+      if (this.position != null) {
+        if (this.hasWhite) {
+          packDynamicRGBW(colors, glut);
+        } else {
+          packDynamicRGB(colors, glut);
+        }
+      } else if (this.hasWhite) {
+        packRGBW(colors, glut);
+      } else {
+        packRGB(colors, glut);
+      }
+    }
+
+    private void packRGB(int[] colors, byte[] glut) {
+      final byte[] buffer = this.buffer;
+      final int[] source = this.source;
+      final int r0 = this.offset + this.byteOffset[0];
+      final int g0 = this.offset + this.byteOffset[1];
+      final int b0 = this.offset + this.byteOffset[2];
+      for (int i = 0, p = 0; i < source.length; ++i, p += 3) {
+        int index = source[i];
+        int color = (index >= 0) ? colors[index] : 0;
+        buffer[r0 + p] = glut[(color >>> 16) & 0xff];
+        buffer[g0 + p] = glut[(color >>> 8) & 0xff];
+        buffer[b0 + p] = glut[color & 0xff];
+      }
+    }
+
+    private void packRGBW(int[] colors, byte[] glut) {
+      final byte[] buffer = this.buffer;
+      final int[] source = this.source;
+      final int r0 = this.offset + this.byteOffset[0];
+      final int g0 = this.offset + this.byteOffset[1];
+      final int b0 = this.offset + this.byteOffset[2];
+      final int w0 = this.offset + this.byteOffset[3];
+      for (int i = 0, p = 0; i < source.length; ++i, p += 4) {
+        int index = source[i];
+        int color = (index >= 0) ? colors[index] : 0;
+        int r = (color >>> 16) & 0xff;
+        int g = (color >>> 8) & 0xff;
+        int b = color & 0xff;
+        int w = Math.min(Math.min(r, g), b);
+        buffer[r0 + p] = glut[r - w];
+        buffer[g0 + p] = glut[g - w];
+        buffer[b0 + p] = glut[b - w];
+        buffer[w0 + p] = glut[w];
+      }
+    }
+
+    private void packDynamicRGB(int[] colors, byte[] glut) {
+      final byte[] buffer = this.buffer;
+      final int[] source = this.source;
+      final int[] position = this.position;
+      for (int i = 0, p = 0; i < source.length; ++i, p += 3) {
+        int index = source[i];
+        int color = (index >= 0) ? colors[index] : 0;
+        buffer[position[p]] = glut[(color >>> 16) & 0xff];
+        buffer[position[p+1]] = glut[(color >>> 8) & 0xff];
+        buffer[position[p+2]] = glut[color & 0xff];
+      }
+    }
+
+    private void packDynamicRGBW(int[] colors, byte[] glut) {
+      final byte[] buffer = this.buffer;
+      final int[] source = this.source;
+      final int[] position = this.position;
+      for (int i = 0, p = 0; i < source.length; ++i, p += 4) {
+        int index = source[i];
+        int color = (index >= 0) ? colors[index] : 0;
+        int r = (color >>> 16) & 0xff;
+        int g = (color >>> 8) & 0xff;
+        int b = color & 0xff;
+        int w = Math.min(Math.min(r, g), b);
+        buffer[position[p]] = glut[r - w];
+        buffer[position[p+1]] = glut[g - w];
+        buffer[position[p+2]] = glut[b - w];
+        buffer[position[p+3]] = glut[w];
+      }
+    }
+  }
+
+  private PackingPlan packingPlan = null;
+
+  private volatile int indexGeneration = 0;
+
+  /**
+   * Notifies this output that the contents of its index buffer array have been
+   * modified in place, so that its packing plan is recompiled before the next send.
+   * This is not necessary when using {@link #updateIndexBuffer(int[])}.
+   */
+  public void indexBufferChanged() {
+    ++this.indexGeneration;
+  }
+
   /**
    * Helper for subclasses to copy a list of points into the data buffer at a
    * specified offset. For many subclasses which wrap RGB buffers, onSend() will
@@ -175,66 +327,11 @@ public abstract class LXBufferOutput extends LXOutput {
   protected LXBufferOutput updateDataBuffer(int[] colors, byte[] glut) {
     byte[] buffer = getDataBuffer();
     int offset = getDataBufferOffset();
-
-    if (this.byteOrderBuffer != null) {
-      // Wacky dynamic byte order mode!
-      for (int i = 0; i < this.indexBuffer.length; ++i) {
-        int index = this.indexBuffer[i];
-        ByteOrder byteOrder = this.byteOrderBuffer[i];
-        int[] byteOffset = byteOrder.getByteOffset();
-        if (byteOrder.hasWhite()) {
-          int color = (index >= 0) ? colors[index] : 0;
-          int r = ((color >> 16) & 0xff);
-          int g = ((color >> 8) & 0xff);
-          int b = (color & 0xff);
-          int w = (r < g) ? ((r < b) ? r : b) : ((g < b) ? g : b);
-          r -= w;
-          g -= w;
-          b -= w;
-          buffer[offset + byteOffset[0]] = glut[r];
-          buffer[offset + byteOffset[1]] = glut[g];
-          buffer[offset + byteOffset[2]] = glut[b];
-          buffer[offset + byteOffset[3]] = glut[w];
-        } else {
-          int color = (index >= 0) ? colors[index] : 0;
-          buffer[offset + byteOffset[0]] = glut[((color >> 16) & 0xff)]; // R
-          buffer[offset + byteOffset[1]] = glut[((color >> 8) & 0xff)]; // G
-          buffer[offset + byteOffset[2]] = glut[(color & 0xff)]; // B
-        }
-        offset += byteOrder.getNumBytes();
-      }
-
-    } else {
-
-      int numBytes = this.byteOrder.getNumBytes();
-      if (this.byteOrder.hasWhite()) {
-        int[] byteOffset = this.byteOrder.getByteOffset();
-        for (int index : this.indexBuffer) {
-          int color = (index >= 0) ? colors[index] : 0;
-          int r = ((color >> 16) & 0xff);
-          int g = ((color >> 8) & 0xff);
-          int b = (color & 0xff);
-          int w = (r < g) ? ((r < b) ? r : b) : ((g < b) ? g : b);
-          r -= w;
-          g -= w;
-          b -= w;
-          buffer[offset + byteOffset[0]] = glut[r];
-          buffer[offset + byteOffset[1]] = glut[g];
-          buffer[offset + byteOffset[2]] = glut[b];
-          buffer[offset + byteOffset[3]] = glut[w];
-          offset += numBytes;
-        }
-      } else {
-        int[] byteOffset = this.byteOrder.getByteOffset();
-        for (int index : indexBuffer) {
-          int color = (index >= 0) ? colors[index] : 0;
-          buffer[offset + byteOffset[0]] = glut[((color >> 16) & 0xff)]; // R
-          buffer[offset + byteOffset[1]] = glut[((color >> 8) & 0xff)]; // G
-          buffer[offset + byteOffset[2]] = glut[(color & 0xff)]; // B
-          offset += numBytes;
-        }
-      }
+    PackingPlan plan = this.packingPlan;
+    if ((plan == null) || !plan.isValid(this, buffer, offset)) {
+      this.packingPlan = plan = new PackingPlan(this, buffer, offset);
     }
+    plan.pack(colors, glut);
     return this;
   }
 
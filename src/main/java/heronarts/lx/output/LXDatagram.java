@@ -19,62 +19,107 @@
 package heronarts.lx.output;
 
 import heronarts.lx.LX;
+import heronarts.lx.LXEngine;
 import heronarts.lx.parameter.BooleanParameter;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.net.SocketException;
-import java.util.HashMap;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A datagram output. Packets are sent through the engine's DatagramTransport, unless
+ * a specific DatagramSocket has been supplied via setSocket().
+ */
 public abstract class LXDatagram extends LXBufferOutput implements LXOutput.InetOutput {
 
-  private static DatagramSocket defaultSocket = null;
-
-  private static DatagramSocket getDefaultSocket() throws SocketException {
-    if (defaultSocket == null) {
-      defaultSocket = new DatagramSocket();
-    }
-    return defaultSocket;
-  }
-
+  /**
+   * Error state shared by all datagrams sending to the same destination. These may
+   * be sent from different output worker threads, or the scheduler thread, so the
+   * state is only modified under its own lock.
+   */
   protected static class ErrorState {
     // Destination address
     final String destination;
 
     // Number of failures sending to this datagram address
-    int failureCount = 0;
+    private int failureCount = 0;
 
     // Timestamp to re-try sending to this address again after
-    long sendAfter = 0;
+    private long sendAfter = 0;
 
     private ErrorState(String destination) {
       this.destination = destination;
     }
+
+    synchronized boolean isBackingOff(long nowMillis) {
+      return this.sendAfter >= nowMillis;
+    }
+
+    // Clears the error state, returning whether there had been failures
+    synchronized boolean recover() {
+      boolean recovered = this.failureCount > 0;
+      this.failureCount = 0;
+      this.sendAfter = 0;
+      return recovered;
+    }
+
+    // Records a failure, returning the number of consecutive failures. Backoff
+    // begins after 3 of them.
+    synchronized int fail(long nowMillis) {
+      ++this.failureCount;
+      if (this.failureCount >= 3) {
+        this.sendAfter = nowMillis + getBackoffMillis();
+      }
+      return this.failureCount;
+    }
+
+    synchronized long getBackoffMillis() {
+      int pow = Math.min(5, this.failureCount - 3);
+      return (long) (50 * Math.pow(2, pow));
+    }
   }
 
+  // Looked up from the output worker threads, which may send concurrently
   private static final Map<String, ErrorState> _datagramErrorState =
-    new HashMap<String, ErrorState>();
+    new ConcurrentHashMap<String, ErrorState>();
 
   private static ErrorState getDatagramErrorState(LXDatagram datagram) {
-    String destination = datagram.getAddress() + ":" + datagram.getPort();
-    ErrorState datagramErrorState = _datagramErrorState.get(destination);
-    if (datagramErrorState == null) {
-      _datagramErrorState.put(destination, datagramErrorState = new ErrorState(destination));
-    }
-    return datagramErrorState;
+    return _datagramErrorState.computeIfAbsent(datagram.getAddress() + ":" + datagram.getPort(), ErrorState::new);
   }
 
   protected final byte[] buffer;
 
-  ErrorState errorState = null;
+  volatile ErrorState errorState = null;
 
   final DatagramPacket packet;
 
   private DatagramSocket socket;
 
+  // Direct copy of the packet that is written to the transport channel
+  private ByteBuffer directBuffer = null;
+
+  private DatagramTransport.Destination destination = null;
+
+  // Interface that multicast packets are sent from, null to use the engine setting
+  private NetworkInterface networkInterface = null;
+
+  // Copy of the packet as last sent, compared against in delta mode
+  private final byte[] sentBuffer;
+
+  // Whether sentBuffer holds a packet that was successfully sent
+  private boolean hasSentBuffer = false;
+
+  private long lastSentMillis = 0;
+
+  private volatile long sentPackets = 0;
+
+  private volatile long suppressedPackets = 0;
+
   /**
    * Whether this datagram is in an error state
    */
@@ -94,6 +139,7 @@ public abstract class LXDatagram extends LXBufferOutput implements LXOutput.Inet
       this.buffer[i] = 0;
     }
     this.packet = new DatagramPacket(this.buffer, datagramSize);
+    this.sentBuffer = new byte[datagramSize];
   }
 
   protected void validateBufferSize() {
@@ -127,6 +173,7 @@ public abstract class LXDatagram extends LXBufferOutput implements LXOutput.Inet
   @Override
   public LXDatagram setAddress(InetAddress address) {
     this.errorState = null;
+    this.hasSentBuffer = false;
     this.packet.setAddress(address);
     return this;
   }
@@ -150,10 +197,32 @@ public abstract class LXDatagram extends LXBufferOutput implements LXOutput.Inet
   @Override
   public LXDatagram setPort(int port) {
     this.errorState = null;
+    this.hasSentBuffer = false;
     this.packet.setPort(port);
     return this;
   }
 
+  /**
+   * Sets the network interface that this datagram is sent from when its address is
+   * multicast. If null, the engine's multicast interface setting is used.
+   *
+   * @param networkInterface Network interface, or null for the engine default
+   * @return this
+   */
+  public LXDatagram setNetworkInterface(NetworkInterface networkInterface) {
+    this.networkInterface = networkInterface;
+    return this;
+  }
+
+  /**
+   * Gets the network interface explicitly set for this datagram
+   *
+   * @return Network interface, or null if the engine default is used
+   */
+  public NetworkInterface getNetworkInterface() {
+    return this.networkInterface;
+  }
+
   /**
    * Gets the destination port number this datagram is sent to
    *
@@ -188,53 +257,209 @@ public abstract class LXDatagram extends LXBufferOutput implements LXOutput.Inet
    */
   @Override
   protected void onSend(int[] colors, byte[] glut) {
+    if (!this.lx.engine.output.dispatcher.collect(this, colors, glut)) {
+      sendPacket(colors, glut);
+    }
+  }
+
+  /**
+   * Whether this datagram is a synchronization packet, which must not be sent until
+   * all of the data packets in a frame have been sent. Subclasses for sync packets
+   * should override this.
+   *
+   * @return True if this is a synchronization packet
+   */
+  protected boolean isSyncPacket() {
+    return false;
+  }
+
+  // Packs and sends this datagram
+  void sendPacket(int[] colors, byte[] glut) {
+    if (packPacket(colors, glut)) {
+      transmitPacket();
+    }
+  }
+
+  // Packs this datagram, returning whether it should then be transmitted. False if the
+  // destination is backing off after errors, or if delta mode suppressed the packet.
+  synchronized boolean packPacket(int[] colors, byte[] glut) {
     // Check for error state on this datagram's output
     ErrorState datagramErrorState = getErrorState();
-    if (datagramErrorState.sendAfter >= this.lx.engine.nowMillis) {
+    if (datagramErrorState.isBackingOff(this.lx.engine.nowMillis)) {
       // This datagram can't be sent now... mark its error state
       this.error.setValue(true);
-      return;
+      return false;
     }
 
-    // Update the data buffer and sequence number
+    // Update the data buffer, and in delta mode skip the packet if nothing has
+    // changed since it was last sent, unless a keep-alive is due
     updateDataBuffer(colors, glut);
+    if (isUnchanged()) {
+      ++this.suppressedPackets;
+      if (this.destination != null) {
+        this.destination.countSuppressed();
+      }
+      return false;
+    }
     updateSequenceNumber();
+    return true;
+  }
+
+  // Transmits the packed datagram. This may be invoked from an output worker thread,
+  // or the scheduler thread when re-sending.
+  synchronized void transmitPacket() {
+    long sendStart = System.nanoTime();
+    ErrorState datagramErrorState = getErrorState();
 
     // Try sending the packet
     try {
-      DatagramSocket socket = (this.socket != null) ? this.socket : LXDatagram.getDefaultSocket();
-      socket.send(this.packet);
-      if (datagramErrorState.failureCount > 0) {
+      boolean sent = true;
+      if (this.socket != null) {
+        this.socket.send(this.packet);
+      } else {
+        sent = sendTransport();
+      }
+      if (sent) {
+        // Sent fine! All good here...
+        ++this.sentPackets;
+        this.lastSentMillis = this.lx.engine.nowMillis;
+        System.arraycopy(this.buffer, 0, this.sentBuffer, 0, this.packet.getLength());
+        this.hasSentBuffer = true;
+      } else {
+        // Dropped due to back-pressure, the receiver never got this packet so
+        // delta mode must not suppress the next one
+        this.hasSentBuffer = false;
+      }
+      if (datagramErrorState.recover()) {
         LXOutput.log("Recovered connectivity to " + datagramErrorState.destination);
       }
-      // Sent fine! All good here...
-      datagramErrorState.failureCount = 0;
-      datagramErrorState.sendAfter = 0;
       this.error.setValue(false);
     } catch (IOException iox) {
+      this.hasSentBuffer = false;
       this.error.setValue(true);
-      if (datagramErrorState.failureCount == 0) {
+      int failureCount = datagramErrorState.fail(this.lx.engine.nowMillis);
+      if (failureCount == 1) {
         LXOutput.error("IOException sending to "
             + datagramErrorState.destination + " (" + iox.getLocalizedMessage()
             + "), will initiate backoff after 3 consecutive failures");
-      }
-      ++datagramErrorState.failureCount;
-      if (datagramErrorState.failureCount >= 3) {
-        int pow = Math.min(5, datagramErrorState.failureCount - 3);
-        long waitFor = (long) (50 * Math.pow(2, pow));
+      } else if (failureCount >= 3) {
         LXOutput.error("Retrying " + datagramErrorState.destination
-            + " in " + waitFor + "ms" + " (" + datagramErrorState.failureCount
+            + " in " + datagramErrorState.getBackoffMillis() + "ms" + " (" + failureCount
             + " consecutive failures)");
-        datagramErrorState.sendAfter = this.lx.engine.nowMillis + waitFor;
       }
     }
 
+    if (this.destination != null) {
+      this.destination.sendHistogram.record(sendStart, System.nanoTime());
+    }
+  }
+
+  @Override
+  protected boolean canResend() {
+    return !isSyncPacket();
+  }
+
+  /**
+   * Re-sends the most recently sent packet, with a new sequence number
+   */
+  @Override
+  protected synchronized void resend() {
+    // Nothing is re-sent to a destination that is backing off after errors
+    if (this.hasSentBuffer && !getErrorState().isBackingOff(this.lx.engine.nowMillis)) {
+      updateSequenceNumber();
+      transmitPacket();
+    }
+  }
+
+  // Whether delta mode is on and this packet is identical to the one last sent.
+  // The comparison is made before the sequence number is updated, at which point
+  // the header still holds the sequence number that was last sent.
+  private boolean isUnchanged() {
+    LXEngine.Output output = this.lx.engine.output;
+    if (!output.deltaMode.isOn() || !this.hasSentBuffer || isSyncPacket()) {
+      return false;
+    }
+    if (this.lx.engine.nowMillis - this.lastSentMillis >= output.keepAlive.getValue()) {
+      return false;
+    }
+    final int length = this.packet.getLength();
+    for (int i = 0; i < length; ++i) {
+      if (this.buffer[i] != this.sentBuffer[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Returns false if the transport dropped the packet due to back-pressure
+  private boolean sendTransport() throws IOException {
+    DatagramTransport transport = this.lx.engine.output.transport;
+    InetAddress address = getAddress();
+    int port = getPort();
+    NetworkInterface networkInterface = null;
+    if ((address != null) && address.isMulticastAddress()) {
+      networkInterface = (this.networkInterface != null) ? this.networkInterface : this.lx.engine.output.getMulticastInterface();
+    }
+    if ((this.destination == null) || !this.destination.matches(address, port, networkInterface)) {
+      // Acquire the new destination before releasing the old one, which closes
+      // its channel if this datagram was the last sending to it
+      DatagramTransport.Destination destination = transport.getDestination(address, port, networkInterface);
+      if (this.destination != null) {
+        transport.release(this.destination);
+      }
+      this.destination = destination;
+    }
+    int length = this.packet.getLength();
+    if ((this.directBuffer == null) || (this.directBuffer.capacity() < length)) {
+      this.directBuffer = transport.allocate(length);
+    }
+    this.directBuffer.clear();
+    this.directBuffer.put(this.buffer, 0, length);
+    this.directBuffer.flip();
+    return transport.send(this.destination, this.directBuffer);
+  }
+
+  /**
+   * Gets the transport destination this datagram is sent to, which holds statistics
+   * about packets sent and dropped. Returns null if nothing has been sent yet, or if
+   * this datagram sends via its own socket.
+   *
+   * @return Transport destination, or null
+   */
+  public DatagramTransport.Destination getDestination() {
+    return this.destination;
+  }
+
+  /**
+   * Number of packets this datagram has successfully sent
+   *
+   * @return Number of packets sent
+   */
+  public long getSentPackets() {
+    return this.sentPackets;
+  }
+
+  /**
+   * Number of packets this datagram has not sent in delta mode, because their
+   * contents were unchanged
+   *
+   * @return Number of packets suppressed
+   */
+  public long getSuppressedPackets() {
+    return this.suppressedPackets;
   }
 
   /**
-   * Invoked when the datagram is no longer needed. Typically a no-op, but subclasses
-   * may override if cleanup work is necessary.
+   * Invoked when the datagram is no longer needed. Releases the transport destination
+   * it was sending to. Subclasses that override this must call super.dispose().
    */
   @Override
-  public void dispose() {}
+  public void dispose() {
+    DatagramTransport.Destination destination = this.destination;
+    if (destination != null) {
+      this.destination = null;
+      this.lx.engine.output.transport.release(destination);
+    }
+    super.dispose();
+  }
 }
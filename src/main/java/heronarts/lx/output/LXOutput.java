@@ -94,40 +94,49 @@ public abstract class LXOutput extends LXComponent {
     .setDescription("Level of the output");
 
   /**
-   * Time last frame was sent at.
+   * Entry in the output scheduler, if this output has a frame rate limit
    */
-  private long lastFrameMillis = 0;
+  LXOutputScheduler.Entry schedulerEntry = null;
 
   /**
    * A lookup table that maps brightness and index byte to output byte. For high-pixel projects
-   * this avoids lots of redundant brightness multiplies at the output.
+   * this avoids lots of redundant brightness multiplies at the output. Tables are shared by all
+   * outputs with the same gamma.
    */
-  private byte[][] gammaLut = null;
+  private volatile GammaTable gammaTable = null;
 
   private LXOutput gammaDelegate = null;
 
   private void buildGammaTable() {
     if (this.gammaMode.getEnum() == GammaMode.DIRECT) {
-      if (this.gammaLut == null) {
-        this.gammaLut = new byte[256][256];
-      }
-
       double gamma = this.gamma.getValue();
-      if (gamma == 1) {
-        for (int b = 0; b < 256; ++b) {
-          int bb = b + (b > 127 ? 1 : 0);
-          for (int in = 0; in < 256; ++in) {
-            this.gammaLut[b][in] = (byte) ((in * bb) >> 8);
-          }
-        }
-      } else {
-        double maxInv = 1. / 65025.;
-        for (int b = 0; b < 256; ++b) {
-          for (int in = 0; in < 256; ++in) {
-            this.gammaLut[b][in] = (byte) (0xff & (int) Math.round(Math.pow(in * b * maxInv, gamma) * 255.f));
-          }
-        }
+      if (this.gammaTable == null) {
+        // First table must be ready before we send anything
+        setGammaTable(GammaTable.acquire(gamma));
+      } else if (this.gammaTable.gamma != gamma) {
+        // Keep sending with the old table until the new one is ready
+        GammaTable.acquireAsync(gamma, this::setGammaTableIfCurrent);
       }
+    } else {
+      // Only direct mode uses a table of its own, let go of any shared one
+      setGammaTable(null);
+    }
+  }
+
+  private synchronized void setGammaTable(GammaTable gammaTable) {
+    GammaTable previous = this.gammaTable;
+    this.gammaTable = gammaTable;
+    if (previous != null) {
+      previous.release();
+    }
+  }
+
+  private synchronized void setGammaTableIfCurrent(GammaTable gammaTable) {
+    // A table built in the background may have been overtaken by another change
+    if ((this.gammaMode.getEnum() != GammaMode.DIRECT) || (gammaTable.gamma != this.gamma.getValue())) {
+      gammaTable.release();
+    } else {
+      setGammaTable(gammaTable);
     }
   }
 
@@ -161,6 +170,13 @@ public abstract class LXOutput extends LXComponent {
     }
   }
 
+  @Override
+  public void dispose() {
+    this.lx.engine.output.scheduler.remove(this);
+    setGammaTable(null);
+    super.dispose();
+  }
+
   /**
    * Sends data to this output, applying throttle and color correction
    *
@@ -168,6 +184,7 @@ public abstract class LXOutput extends LXComponent {
    * @return this
    */
   public LXOutput send(int[] colors) {
+    this.lx.engine.output.scheduler.advance(System.nanoTime());
     return send(colors, 1.);
   }
 
@@ -182,24 +199,54 @@ public abstract class LXOutput extends LXComponent {
     if (!this.enabled.isOn()) {
       return this;
     }
-    long now = System.currentTimeMillis();
     double fps = this.framesPerSecond.getValue();
-    if ((fps == 0) || ((now - this.lastFrameMillis) > (1000. / fps))) {
+    boolean isDue = true;
+    if (fps > 0) {
+      isDue = this.lx.engine.output.scheduler.isDue(this, fps);
+    } else if (this.schedulerEntry != null) {
+      this.lx.engine.output.scheduler.remove(this);
+    }
+    if (isDue) {
       // Compute effective brightness, input brightness multiplied by our own
       brightness *= this.brightness.getValue();
 
       // Send at the adjusted brightness level
       onSend(colors, brightness);
-
-      this.lastFrameMillis = now;
     }
     return this;
   }
 
+  /**
+   * Whether this output is able to re-send its most recent frame without new color
+   * data, which allows it to run at a frame rate above that of the engine. Subclasses
+   * that implement {@link #resend()} should override this to return true.
+   *
+   * @return Whether this output supports re-sending
+   */
+  protected boolean canResend() {
+    return false;
+  }
+
+  /**
+   * Re-sends the most recent frame. Invoked by the output scheduler from its own
+   * thread, in between engine frames, for outputs whose frame rate limit is faster
+   * than the engine.
+   */
+  protected void resend() {}
+
   protected byte[] getGammaLut(double brightness) {
     switch (this.gammaMode.getEnum()) {
     case DIRECT:
-      return this.gammaLut[(int) Math.round(brightness * 255.f)];
+      GammaTable gammaTable = this.gammaTable;
+      if (gammaTable == null) {
+        // Gamma mode has only just been changed to direct on another thread
+        buildGammaTable();
+        gammaTable = this.gammaTable;
+      }
+      if (gammaTable != null) {
+        return gammaTable.get(brightness);
+      }
+      // Gamma mode has just been changed away from direct on another thread
     default:
     case INHERIT:
       LXOutput gammaOutout = (this.gammaDelegate != null) ? this.gammaDelegate : (LXOutput) getParent();
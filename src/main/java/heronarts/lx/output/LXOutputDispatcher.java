@@ -0,0 +1,261 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import heronarts.lx.utils.WorkerThreadFactory;
+
+/**
+ * Packs and sends the datagrams of a frame. While a frame is being sent, datagrams
+ * do not send themselves. Instead the output tree is walked to collect every
+ * datagram that is due to send, along with the gamma table for its brightness.
+ *
+ * The collected datagrams are partitioned by destination, such that every datagram
+ * bound for a given address and port is packed and sent by the same worker, in its
+ * original order. A slow or unreachable destination then only delays the others in
+ * its partition, and packing is spread across the workers along with sending. Each
+ * datagram packs from its own compiled packing plan. With a single worker, partitions
+ * are sent directly on the output thread.
+ *
+ * Synchronization packets, such as ArtSync or a DDP push, are held back and sent
+ * once every worker has finished, so that they never overtake the data they sync.
+ */
+public class LXOutputDispatcher {
+
+  private static class Job {
+    private LXDatagram datagram;
+    private int[] colors;
+    private byte[] glut;
+  }
+
+  // Pool of jobs that are reused across frames
+  private static class JobPool {
+
+    private Job[] jobs = new Job[0];
+    private int size = 0;
+
+    private Job next() {
+      if (this.size == this.jobs.length) {
+        this.jobs = Arrays.copyOf(this.jobs, Math.max(16, this.size * 2));
+        for (int i = this.size; i < this.jobs.length; ++i) {
+          this.jobs[i] = new Job();
+        }
+      }
+      return this.jobs[this.size++];
+    }
+
+    private void clear() {
+      for (int i = 0; i < this.size; ++i) {
+        Job job = this.jobs[i];
+        job.datagram = null;
+        job.colors = null;
+        job.glut = null;
+      }
+      this.size = 0;
+    }
+  }
+
+  private static class Partition {
+
+    private Job[] jobs = new Job[0];
+    private int size = 0;
+
+    private void add(Job job) {
+      if (this.size == this.jobs.length) {
+        this.jobs = Arrays.copyOf(this.jobs, Math.max(16, this.size * 2));
+      }
+      this.jobs[this.size++] = job;
+    }
+
+    private void send() {
+      for (int i = 0; i < this.size; ++i) {
+        Job job = this.jobs[i];
+        job.datagram.sendPacket(job.colors, job.glut);
+      }
+    }
+
+    private void clear() {
+      Arrays.fill(this.jobs, 0, this.size, null);
+      this.size = 0;
+    }
+  }
+
+  private class PartitionTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Partition partition;
+
+    private PartitionTask(Partition partition) {
+      this.partition = partition;
+    }
+
+    @Override
+    protected void compute() {
+      this.partition.send();
+    }
+  }
+
+  private static final WorkerThreadFactory THREAD_FACTORY = new WorkerThreadFactory("LXOutput sender");
+
+  private volatile int numWorkers = 1;
+
+  private ForkJoinPool pool = null;
+
+  private Partition[] partitions = new Partition[0];
+
+  // Data jobs in the order they were collected
+  private final JobPool dataJobs = new JobPool();
+
+  private final JobPool syncJobs = new JobPool();
+
+  private final List<PartitionTask> tasks = new ArrayList<PartitionTask>();
+
+  // The thread currently sending a frame, only collected from this thread
+  private Thread collectingThread = null;
+
+  /**
+   * Sets the number of sender workers. A value of 1 sends on the output thread.
+   * Takes effect on the next frame.
+   *
+   * @param numWorkers Number of workers
+   * @return this
+   */
+  public LXOutputDispatcher setNumWorkers(int numWorkers) {
+    if (numWorkers <= 0) {
+      throw new IllegalArgumentException("LXOutputDispatcher must have a positive number of workers: " + numWorkers);
+    }
+    this.numWorkers = numWorkers;
+    return this;
+  }
+
+  public int getNumWorkers() {
+    return this.numWorkers;
+  }
+
+  /**
+   * Begins collecting the datagrams of a frame. Invoked by the output thread before
+   * it walks the output tree.
+   */
+  public void begin() {
+    int numWorkers = this.numWorkers;
+    if (this.partitions.length != numWorkers) {
+      dispose();
+      if (numWorkers > 1) {
+        this.pool = new ForkJoinPool(numWorkers, THREAD_FACTORY, null, false);
+        LXOutput.log("LXOutputDispatcher started with " + numWorkers + " workers");
+      }
+      this.partitions = new Partition[numWorkers];
+      for (int i = 0; i < numWorkers; ++i) {
+        this.partitions[i] = new Partition();
+      }
+    }
+    this.collectingThread = Thread.currentThread();
+  }
+
+  /**
+   * Invoked by a datagram when it is asked to send. If a frame is being collected on
+   * this thread, the datagram is queued up for its worker.
+   *
+   * @param datagram Datagram
+   * @param colors Color buffer
+   * @param glut Gamma look-up table
+   * @return true if the datagram was collected, false if it should send itself
+   */
+  boolean collect(LXDatagram datagram, int[] colors, byte[] glut) {
+    if (this.collectingThread != Thread.currentThread()) {
+      return false;
+    }
+    boolean isSync = datagram.isSyncPacket();
+    Job job = isSync ? this.syncJobs.next() : this.dataJobs.next();
+    job.datagram = datagram;
+    job.colors = colors;
+    job.glut = glut;
+    if (!isSync) {
+      InetAddress address = datagram.getAddress();
+      int hash = 31 * ((address != null) ? address.hashCode() : 0) + datagram.getPort();
+      this.partitions[(hash & 0x7fffffff) % this.partitions.length].add(job);
+    }
+    return true;
+  }
+
+  /**
+   * Sends all of the datagrams that were collected, returning once they have all
+   * been sent.
+   */
+  public void finish() {
+    if (this.collectingThread == null) {
+      return;
+    }
+    this.collectingThread = null;
+    try {
+      // Pack and send each destination's partition
+      this.tasks.clear();
+      for (Partition partition : this.partitions) {
+        if (partition.size > 0) {
+          this.tasks.add(new PartitionTask(partition));
+        }
+      }
+      if (this.tasks.size() == 1) {
+        this.tasks.get(0).partition.send();
+      } else if (!this.tasks.isEmpty()) {
+        this.pool.invoke(new RecursiveAction() {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected void compute() {
+            ForkJoinTask.invokeAll(tasks);
+          }
+        });
+      }
+
+      // Only now that all the data has gone out, send sync packets
+      for (int i = 0; i < this.syncJobs.size; ++i) {
+        Job job = this.syncJobs.jobs[i];
+        job.datagram.sendPacket(job.colors, job.glut);
+      }
+    } finally {
+      for (Partition partition : this.partitions) {
+        partition.clear();
+      }
+      this.tasks.clear();
+      this.dataJobs.clear();
+      this.syncJobs.clear();
+    }
+  }
+
+  /**
+   * Shuts down the worker pool
+   */
+  public void dispose() {
+    if (this.pool != null) {
+      this.pool.shutdownNow();
+      this.pool = null;
+    }
+    this.partitions = new Partition[0];
+  }
+
+}
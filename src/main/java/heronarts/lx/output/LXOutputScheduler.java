@@ -0,0 +1,315 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedules outputs that have a frame rate limit. Each such output has a deadline
+ * in nanoseconds for its next frame, held in a hashed timing wheel. The wheel is
+ * advanced once per frame, and only the slots that have elapsed are examined, which
+ * marks the outputs whose deadlines have passed as due. An output that is not due
+ * skips its send with a single flag check.
+ *
+ * Deadlines advance by exactly one period from the previous deadline rather than from
+ * the time of sending, so an output keeps a constant phase instead of drifting. An
+ * output is considered due if its deadline falls within half an engine frame, so that
+ * an output whose rate divides the engine rate (e.g. 30fps against 60fps) is sent on
+ * every other frame, rather than beating against the frame boundaries.
+ *
+ * Outputs running faster than the engine may re-send their latest frame in between
+ * engine frames, from a scheduler thread, if they support {@link LXOutput#resend()}.
+ * Re-sending only continues while the engine keeps sending the output. If it stops,
+ * because the output, one of its groups or the engine output is disabled, output is
+ * restricted, or the engine itself has stopped, the output is parked until the engine
+ * next sends it.
+ */
+public class LXOutputScheduler {
+
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final int WHEEL_SIZE = 512;
+
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  static class Entry {
+
+    private final LXOutput output;
+
+    private long periodNanos = 0;
+
+    private long deadlineNanos = 0;
+
+    private boolean due = false;
+
+    private boolean fast = false;
+
+    // Time at which the engine last sent this output, whether or not it was due
+    private long sendNanos = 0;
+
+    // Position in the wheel, slot is -1 when not in the wheel
+    private int slot = -1;
+    private Entry prev = null;
+    private Entry next = null;
+
+    private Entry(LXOutput output) {
+      this.output = output;
+    }
+  }
+
+  private final Entry[] wheel = new Entry[WHEEL_SIZE];
+
+  // Outputs that run faster than the engine and may be re-sent between frames
+  private final List<Entry> fastEntries = new ArrayList<Entry>();
+
+  private long currentTick = -1;
+
+  private long currentNanos = 0;
+
+  private long lastFrameNanos = 0;
+
+  private long framePeriodNanos = 0;
+
+  private long slackNanos = 0;
+
+  private Thread resendThread = null;
+
+  /**
+   * Invoked by the engine once per frame, before it sends its outputs. Measures the
+   * engine frame period and advances the timing wheel.
+   *
+   * @param nowNanos Current value of System.nanoTime()
+   */
+  public synchronized void frame(long nowNanos) {
+    if (this.lastFrameNanos > 0) {
+      long period = nowNanos - this.lastFrameNanos;
+      this.framePeriodNanos = (this.framePeriodNanos == 0) ? period : (this.framePeriodNanos * 7 + period) / 8;
+      this.slackNanos = this.framePeriodNanos / 2;
+    }
+    this.lastFrameNanos = nowNanos;
+    advance(nowNanos);
+  }
+
+  /**
+   * Advances the timing wheel, marking every output whose deadline has been reached
+   * as due. Invoked when any top-level output is sent.
+   *
+   * @param nowNanos Current value of System.nanoTime()
+   */
+  public synchronized void advance(long nowNanos) {
+    this.currentNanos = nowNanos;
+    long horizon = nowNanos + this.slackNanos;
+    long targetTick = horizon / TICK_NANOS;
+    if (this.currentTick < 0) {
+      this.currentTick = targetTick - 1;
+    }
+    // After a long pause every slot needs checking once, but no more than once
+    long fromTick = Math.max(this.currentTick + 1, targetTick - WHEEL_MASK);
+    for (long tick = fromTick; tick <= targetTick; ++tick) {
+      Entry entry = this.wheel[(int) (tick & WHEEL_MASK)];
+      while (entry != null) {
+        Entry next = entry.next;
+        if (entry.deadlineNanos <= horizon) {
+          unlink(entry);
+          entry.due = true;
+        }
+        entry = next;
+      }
+    }
+    this.currentTick = Math.max(this.currentTick, targetTick);
+  }
+
+  /**
+   * Checks whether an output with a frame rate limit is due to send, and if so
+   * consumes its deadline and schedules the next one.
+   *
+   * @param output Output
+   * @param fps Frame rate limit of the output
+   * @return Whether the output should send now
+   */
+  synchronized boolean isDue(LXOutput output, double fps) {
+    long periodNanos = (long) (1e9 / fps);
+    Entry entry = output.schedulerEntry;
+    if (entry == null) {
+      entry = output.schedulerEntry = new Entry(output);
+    }
+    long nowNanos = (this.currentNanos > 0) ? this.currentNanos : System.nanoTime();
+    if (entry.periodNanos != periodNanos) {
+      // New or changed rate, send immediately and re-phase from now
+      unlink(entry);
+      entry.periodNanos = periodNanos;
+      entry.deadlineNanos = nowNanos;
+      entry.due = true;
+    }
+    entry.sendNanos = nowNanos;
+    updateFast(entry);
+    if (!entry.due) {
+      return false;
+    }
+    entry.due = false;
+    schedule(entry, nowNanos);
+    return true;
+  }
+
+  /**
+   * Removes an output from the scheduler
+   *
+   * @param output Output
+   */
+  synchronized void remove(LXOutput output) {
+    Entry entry = output.schedulerEntry;
+    if (entry != null) {
+      unlink(entry);
+      this.fastEntries.remove(entry);
+      output.schedulerEntry = null;
+    }
+  }
+
+  private void schedule(Entry entry, long nowNanos) {
+    // Stay in phase with the previous deadline, unless we've fallen more than a
+    // whole period behind, in which case re-align to now
+    long deadline = entry.deadlineNanos + entry.periodNanos;
+    if (deadline < nowNanos - entry.periodNanos) {
+      deadline = nowNanos + entry.periodNanos;
+    }
+    entry.deadlineNanos = deadline;
+    long tick = deadline / TICK_NANOS;
+    if (tick <= this.currentTick) {
+      // Already passed the slot for this tick
+      entry.due = true;
+      return;
+    }
+    int slot = (int) (tick & WHEEL_MASK);
+    entry.slot = slot;
+    entry.prev = null;
+    entry.next = this.wheel[slot];
+    if (entry.next != null) {
+      entry.next.prev = entry;
+    }
+    this.wheel[slot] = entry;
+  }
+
+  private void unlink(Entry entry) {
+    if (entry.slot < 0) {
+      return;
+    }
+    if (entry.prev != null) {
+      entry.prev.next = entry.next;
+    } else {
+      this.wheel[entry.slot] = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.prev = entry.prev;
+    }
+    entry.prev = entry.next = null;
+    entry.slot = -1;
+  }
+
+  private void updateFast(Entry entry) {
+    boolean fast =
+      (this.framePeriodNanos > 0) &&
+      (entry.periodNanos < this.framePeriodNanos) &&
+      entry.output.canResend();
+    if (fast != entry.fast) {
+      entry.fast = fast;
+      if (fast) {
+        this.fastEntries.add(entry);
+        if (this.resendThread == null) {
+          this.resendThread = new Thread("LXOutput scheduler") {
+            @Override
+            public void run() {
+              runResends();
+            }
+          };
+          this.resendThread.setDaemon(true);
+          this.resendThread.start();
+        }
+      } else {
+        this.fastEntries.remove(entry);
+      }
+    }
+  }
+
+  // Re-sends the latest frame of outputs that run faster than the engine, at each of
+  // their deadlines that falls in between engine frames
+  private void runResends() {
+    final List<Entry> resend = new ArrayList<Entry>();
+    while (!Thread.currentThread().isInterrupted()) {
+      long now = System.nanoTime();
+      long nextDeadline = now + TimeUnit.MILLISECONDS.toNanos(50);
+      synchronized (this) {
+        // An output the engine has not sent for a couple of frames is no longer
+        // live, park it until the engine sends it again
+        long staleNanos = 2 * this.framePeriodNanos;
+        Iterator<Entry> iter = this.fastEntries.iterator();
+        while (iter.hasNext()) {
+          Entry entry = iter.next();
+          if (now - entry.sendNanos > staleNanos) {
+            entry.fast = false;
+            iter.remove();
+            continue;
+          }
+          if (entry.deadlineNanos <= now) {
+            unlink(entry);
+            entry.due = false;
+            schedule(entry, now);
+            resend.add(entry);
+          }
+          nextDeadline = Math.min(nextDeadline, entry.deadlineNanos);
+        }
+      }
+      for (Entry entry : resend) {
+        entry.output.resend();
+      }
+      resend.clear();
+      long wait = nextDeadline - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+    }
+  }
+
+  /**
+   * Stops re-sending outputs that run faster than the engine, until the engine next
+   * sends them. Invoked when the engine thread is stopped.
+   */
+  public synchronized void park() {
+    for (Entry entry : this.fastEntries) {
+      entry.fast = false;
+    }
+    this.fastEntries.clear();
+    this.lastFrameNanos = 0;
+    this.framePeriodNanos = 0;
+  }
+
+  /**
+   * Stops re-sending outputs that run faster than the engine
+   */
+  public synchronized void dispose() {
+    if (this.resendThread != null) {
+      this.resendThread.interrupt();
+      this.resendThread = null;
+    }
+  }
+
+}
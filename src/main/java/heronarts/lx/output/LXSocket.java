@@ -18,6 +18,7 @@
 
 package heronarts.lx.output;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetAddress;
@@ -26,6 +27,12 @@ import java.net.Socket;
 
 import heronarts.lx.LX;
 
+/**
+ * A TCP socket output. Connections are made in the background and frames are
+ * written without blocking, via the engine's SocketTransport, so an unreachable or
+ * slow peer never stalls the output thread. While disconnected, sends are skipped,
+ * and connection is re-attempted with an exponential backoff.
+ */
 public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOutput {
 
   public static final int DEFAULT_CONNECT_TIMEOUT_MS = 100;
@@ -34,10 +41,60 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
   private int port = NO_PORT;
   private int connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
 
+  private SocketTransport.Connection connection = null;
 
+  /**
+   * Socket of the connection, only non-null while connected. Blocking operations
+   * are not permitted on this socket.
+   */
   protected Socket socket;
+
+  /**
+   * Stream for writing control data, only non-null while connected. Data written
+   * here is buffered until the stream is flushed, or the next frame is sent, and
+   * is then submitted as a single message. It is never dropped, and is sent ahead
+   * of any pending frame.
+   */
   protected OutputStream output;
 
+  private ControlOutputStream controlOutput;
+
+  // Buffers control data so that a message written in several pieces is submitted
+  // whole, and a frame can never be written into the middle of it
+  private class ControlOutputStream extends OutputStream {
+
+    private final SocketTransport.Connection connection;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private ControlOutputStream(SocketTransport.Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      this.buffer.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      this.buffer.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      if (this.buffer.size() == 0) {
+        return;
+      }
+      byte[] data = this.buffer.toByteArray();
+      this.buffer.reset();
+      if (!this.connection.sendControl(data, 0, data.length)) {
+        IOException iox = this.connection.getLastError();
+        throw (iox != null) ? iox : new IOException("Socket is not connected");
+      }
+    }
+  }
+
   protected LXSocket(LX lx, int[] indexBuffer) {
     this(lx, indexBuffer, LXBufferOutput.ByteOrder.RGB);
   }
@@ -47,7 +104,10 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
   }
 
   public LXSocket setConnectTimeout(int connectTimeoutMs) {
-    this.connectTimeoutMs = connectTimeoutMs;
+    if (this.connectTimeoutMs != connectTimeoutMs) {
+      disconnect(null);
+      this.connectTimeoutMs = connectTimeoutMs;
+    }
     return this;
   }
 
@@ -80,24 +140,43 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
   }
 
   public boolean isConnected() {
-    return (this.socket != null);
+    return (this.output != null);
   }
 
+  /**
+   * Gets the transport connection of this socket, which holds statistics about
+   * frames sent and dropped. Returns null if no connection has been attempted.
+   *
+   * @return Transport connection, or null
+   */
+  public SocketTransport.Connection getConnection() {
+    return this.connection;
+  }
+
+  // Checks for changes in the background connection state, notifying subclasses
+  // on the output thread. Begins a new connection attempt if one is due.
   private void connect() {
-    if (this.socket == null) {
-      if (this.address != null && this.port != NO_PORT) {
-        InetSocketAddress inetAddress = new InetSocketAddress(this.address, this.port);
-        try {
-          this.socket = new Socket();
-          this.socket.connect(inetAddress, this.connectTimeoutMs);
-          this.socket.setTcpNoDelay(true);
-          this.output = this.socket.getOutputStream();
-          didConnect();
-        } catch (IOException iox) {
-          LXOutput.error(getClass().getSimpleName() + " failed connecting to " + inetAddress + ": " + iox.getLocalizedMessage());
-          disconnect(iox);
-        }
+    if (this.address == null || this.port == NO_PORT) {
+      return;
+    }
+    if (this.connection == null) {
+      this.connection = this.lx.engine.output.socketTransport.open(new InetSocketAddress(this.address, this.port), this.connectTimeoutMs);
+    }
+    if (this.connection.isConnected()) {
+      if (this.output == null) {
+        this.socket = this.connection.getSocket();
+        this.output = this.controlOutput = new ControlOutputStream(this.connection);
+        didConnect();
       }
+    } else {
+      if (this.output != null) {
+        this.socket = null;
+        this.output = this.controlOutput = null;
+        IOException iox = this.connection.getLastError();
+        LXOutput.error(getClass().getSimpleName() + " lost connection to " + this.connection.address + ((iox != null) ? (": " + iox.getLocalizedMessage()) : ""));
+        didDisconnect(iox);
+      }
+      this.connection.connect(System.currentTimeMillis());
     }
   }
 
@@ -109,22 +188,12 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
   }
 
   protected void disconnect(Exception x) {
-    if (this.output != null) {
-      try {
-        this.output.close();
-      } catch (Exception ignored) {
-      } finally {
-        this.output = null;
-      }
-    }
-    if (this.socket != null) {
-      try {
-        this.socket.close();
-      } catch (Exception ignored) {
-      } finally {
-        this.socket = null;
-      }
+    if (this.connection != null) {
+      this.connection.close();
+      this.connection = null;
     }
+    this.output = this.controlOutput = null;
+    this.socket = null;
     didDisconnect(x);
   }
 
@@ -140,13 +209,17 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
   @Override
   protected void onSend(int[] colors, byte[] glut) {
     connect();
-    if (isConnected()) {
+    ControlOutputStream controlOutput = this.controlOutput;
+    if (controlOutput != null) {
+      // Submit any control data that was written but not flushed, ahead of the frame
       try {
-        this.output.write(getPacketData(colors, glut));
+        controlOutput.flush();
       } catch (IOException iox) {
-        LXOutput.error(getClass().getSimpleName() + " exception writing to " + this.socket.getInetAddress() + ": " + iox.getLocalizedMessage());
         disconnect(iox);
+        return;
       }
+      byte[] packetData = getPacketData(colors, glut);
+      this.connection.sendFrame(packetData, packetData.length);
     }
   }
 
@@ -155,4 +228,10 @@ public abstract class LXSocket extends LXBufferOutput implements LXOutput.InetOu
     return getDataBuffer();
   }
 
+  @Override
+  public void dispose() {
+    disconnect(null);
+    super.dispose();
+  }
+
 }
@@ -0,0 +1,507 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import heronarts.lx.utils.LatencyHistogram;
+import heronarts.lx.utils.MpscQueue;
+
+/**
+ * NIO transport used by TCP socket outputs. Every connection is a non-blocking
+ * SocketChannel, which is connected in the background by a selector thread, and
+ * re-connected with exponential backoff after a failure. The output thread never
+ * waits on the network.
+ *
+ * Frames are written without blocking. If the peer has not yet accepted the whole
+ * of the previous frame, a new frame waits in a single slot and replaces any older
+ * frame that was already waiting there, which is dropped. A slow peer therefore
+ * receives fewer, but always the most recent, frames rather than an ever-growing
+ * backlog. Control packets, such as device configuration, are never dropped and
+ * are written ahead of any pending frame.
+ *
+ * The engine owns one transport, which is closed when the engine is disposed. The
+ * selector thread is not started until the first connection is opened.
+ */
+public class SocketTransport {
+
+  /**
+   * A single TCP connection to a peer, along with its statistics. The owner of a
+   * connection submits frames from its output thread. The counters are written by
+   * whichever thread completes a write, and may be read from any thread.
+   */
+  public static class Connection {
+
+    public enum State {
+      DISCONNECTED,
+      CONNECTING,
+      CONNECTED
+    };
+
+    public final InetSocketAddress address;
+
+    private final SocketTransport transport;
+
+    private final int connectTimeoutMs;
+
+    private volatile State state = State.DISCONNECTED;
+
+    private volatile boolean closed = false;
+
+    private SocketChannel channel = null;
+
+    private long connectStartMillis = 0;
+
+    private int failureCount = 0;
+
+    private long retryAfterMillis = 0;
+
+    private volatile IOException lastError = null;
+
+    // Control packets, always written in full and in order
+    private final ArrayDeque<ByteBuffer> control = new ArrayDeque<ByteBuffer>();
+
+    // Frame currently being written, and the most recent frame waiting behind it
+    private ByteBuffer writing = null;
+    private ByteBuffer pending = null;
+    private boolean hasPending = false;
+    private long writingStartNanos = 0;
+    private long pendingStartNanos = 0;
+
+    private volatile long sentFrames = 0;
+    private volatile long sentBytes = 0;
+    private volatile long droppedFrames = 0;
+    private volatile long connectAttempts = 0;
+
+    /**
+     * Time from a frame being submitted until it has been fully written
+     */
+    public final LatencyHistogram writeHistogram = new LatencyHistogram();
+
+    private Connection(SocketTransport transport, InetSocketAddress address, int connectTimeoutMs) {
+      this.transport = transport;
+      this.address = address;
+      this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public State getState() {
+      return this.state;
+    }
+
+    public boolean isConnected() {
+      return this.state == State.CONNECTED;
+    }
+
+    /**
+     * Socket adapter of the underlying channel, null unless connected
+     *
+     * @return Socket
+     */
+    public synchronized Socket getSocket() {
+      return ((this.state == State.CONNECTED) && (this.channel != null)) ? this.channel.socket() : null;
+    }
+
+    /**
+     * Most recent error on this connection, if there was one
+     *
+     * @return Last error, or null
+     */
+    public IOException getLastError() {
+      return this.lastError;
+    }
+
+    /**
+     * Number of frames fully written to the peer
+     *
+     * @return Number of frames sent
+     */
+    public long getSentFrames() {
+      return this.sentFrames;
+    }
+
+    /**
+     * Number of bytes written to the peer, including control packets
+     *
+     * @return Number of bytes sent
+     */
+    public long getSentBytes() {
+      return this.sentBytes;
+    }
+
+    /**
+     * Number of frames that were replaced by a newer frame before the peer was ready
+     * to accept them
+     *
+     * @return Number of frames dropped
+     */
+    public long getDroppedFrames() {
+      return this.droppedFrames;
+    }
+
+    /**
+     * Number of times a connection to the peer has been attempted
+     *
+     * @return Number of connection attempts
+     */
+    public long getConnectAttempts() {
+      return this.connectAttempts;
+    }
+
+    /**
+     * Begins connecting in the background, if this connection is disconnected and
+     * not waiting to retry after a previous failure. Never blocks.
+     *
+     * @param nowMillis Current time in milliseconds
+     */
+    public synchronized void connect(long nowMillis) {
+      if (this.closed || (this.state != State.DISCONNECTED) || (nowMillis < this.retryAfterMillis)) {
+        return;
+      }
+      ++this.connectAttempts;
+      try {
+        this.channel = SocketChannel.open();
+        this.channel.configureBlocking(false);
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.connectStartMillis = nowMillis;
+        if (this.channel.connect(this.address)) {
+          didConnect();
+        } else {
+          this.state = State.CONNECTING;
+        }
+        this.transport.requestUpdate(this);
+      } catch (IOException iox) {
+        fail(iox);
+      }
+    }
+
+    /**
+     * Submits a frame to be written. If the peer is still accepting an earlier frame,
+     * this one waits to be written after it, replacing any other frame that was waiting.
+     *
+     * @param data Frame data
+     * @param length Number of bytes in the frame
+     * @return true if the frame was accepted, false if not connected
+     */
+    public synchronized boolean sendFrame(byte[] data, int length) {
+      if (this.state != State.CONNECTED) {
+        return false;
+      }
+      long now = System.nanoTime();
+      if ((this.writing != null) && this.writing.hasRemaining()) {
+        if (this.hasPending) {
+          ++this.droppedFrames;
+        }
+        this.pending = fill(this.pending, data, length);
+        this.pendingStartNanos = now;
+        this.hasPending = true;
+      } else {
+        this.writing = fill(this.writing, data, length);
+        this.writingStartNanos = now;
+      }
+      flush();
+      return true;
+    }
+
+    /**
+     * Submits a control packet to be written. Control packets are never dropped, and
+     * are written before any frame that has not already been started.
+     *
+     * @param data Packet data
+     * @param offset Offset in data
+     * @param length Number of bytes
+     * @return true if the packet was accepted, false if not connected
+     */
+    public synchronized boolean sendControl(byte[] data, int offset, int length) {
+      if (this.state != State.CONNECTED) {
+        return false;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      buffer.put(data, offset, length);
+      buffer.flip();
+      this.control.add(buffer);
+      flush();
+      return true;
+    }
+
+    /**
+     * Closes this connection. It may not be used again.
+     */
+    public synchronized void close() {
+      this.closed = true;
+      disconnect();
+      this.transport.connections.remove(this);
+    }
+
+    private ByteBuffer fill(ByteBuffer buffer, byte[] data, int length) {
+      if ((buffer == null) || (buffer.capacity() < length)) {
+        buffer = ByteBuffer.allocateDirect(length);
+      }
+      buffer.clear();
+      buffer.put(data, 0, length);
+      buffer.flip();
+      return buffer;
+    }
+
+    // Writes as much as the channel will accept without blocking. If anything is
+    // left over, the selector thread is asked to finish the job when it can. A frame
+    // that has been partially written must be completed before anything else, but
+    // control packets otherwise take priority over frames.
+    private void flush() {
+      try {
+        while (true) {
+          boolean hasFrame = (this.writing != null) && this.writing.hasRemaining();
+          boolean isFrame = hasFrame && ((this.writing.position() > 0) || this.control.isEmpty());
+          ByteBuffer buffer = isFrame ? this.writing : this.control.peek();
+          if (buffer == null) {
+            return;
+          }
+          this.sentBytes += this.channel.write(buffer);
+          if (buffer.hasRemaining()) {
+            this.transport.requestUpdate(this);
+            return;
+          }
+          if (isFrame) {
+            ++this.sentFrames;
+            this.writeHistogram.record(this.writingStartNanos, System.nanoTime());
+            didSendFrame();
+            if (this.hasPending) {
+              ByteBuffer swap = this.writing;
+              this.writing = this.pending;
+              this.pending = swap;
+              this.writingStartNanos = this.pendingStartNanos;
+              this.hasPending = false;
+            }
+          } else {
+            this.control.poll();
+          }
+        }
+      } catch (IOException iox) {
+        fail(iox);
+      }
+    }
+
+    private boolean hasUnwritten() {
+      return !this.control.isEmpty() || ((this.writing != null) && this.writing.hasRemaining());
+    }
+
+    private void didConnect() {
+      this.state = State.CONNECTED;
+      this.lastError = null;
+    }
+
+    // The backoff is only reset once a frame has actually been delivered, so that a
+    // peer which accepts connections and then drops them is not hammered
+    private void didSendFrame() {
+      if (this.failureCount > 0) {
+        LXOutput.log("Recovered connection to " + this.address);
+        this.failureCount = 0;
+        this.retryAfterMillis = 0;
+      }
+    }
+
+    private void fail(IOException iox) {
+      this.lastError = iox;
+      if (this.failureCount == 0) {
+        LXOutput.error("Socket connection to " + this.address + " failed: " + iox.getLocalizedMessage());
+      }
+      ++this.failureCount;
+      int pow = Math.min(5, this.failureCount - 1);
+      long waitFor = (long) (100 * Math.pow(2, pow));
+      this.retryAfterMillis = System.currentTimeMillis() + waitFor;
+      disconnect();
+    }
+
+    private void disconnect() {
+      if (this.channel != null) {
+        try {
+          this.channel.close();
+        } catch (IOException ignored) {
+        } finally {
+          this.channel = null;
+        }
+      }
+      this.control.clear();
+      if (this.writing != null) {
+        this.writing.clear().flip();
+      }
+      this.hasPending = false;
+      this.state = State.DISCONNECTED;
+    }
+
+    // Invoked on the selector thread
+    private synchronized void update(Selector selector, long nowMillis) {
+      if (this.channel == null) {
+        return;
+      }
+      try {
+        if (this.state == State.CONNECTING) {
+          if (this.channel.finishConnect()) {
+            didConnect();
+          } else if (nowMillis - this.connectStartMillis > this.connectTimeoutMs) {
+            fail(new IOException("Connect timed out after " + this.connectTimeoutMs + "ms"));
+            return;
+          }
+        }
+        if (this.state == State.CONNECTED) {
+          flush();
+        }
+        if (this.channel != null) {
+          int ops = 0;
+          if (this.state == State.CONNECTING) {
+            ops = SelectionKey.OP_CONNECT;
+          } else if (hasUnwritten()) {
+            ops = SelectionKey.OP_WRITE;
+          }
+          this.channel.register(selector, ops, this);
+        }
+      } catch (IOException iox) {
+        fail(iox);
+      }
+    }
+  }
+
+  private static final long SELECT_TIMEOUT_MS = 20;
+
+  private Selector selector = null;
+
+  private final Set<Connection> connections =
+    ConcurrentHashMap.newKeySet();
+
+  private final MpscQueue<Connection> updates = new MpscQueue<Connection>();
+
+  private Thread thread = null;
+
+  private boolean closed = false;
+
+  private synchronized void start() {
+    if (this.closed) {
+      throw new IllegalStateException("Cannot open a connection on a closed SocketTransport");
+    }
+    if (this.thread != null) {
+      return;
+    }
+    try {
+      this.selector = Selector.open();
+    } catch (IOException iox) {
+      throw new IllegalStateException("Could not open selector for SocketTransport", iox);
+    }
+    this.thread = new Thread("LXSocket transport") {
+      @Override
+      public void run() {
+        runSelector();
+      }
+    };
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Opens a new connection to a peer. The connection is not attempted until
+   * {@link Connection#connect(long)} is invoked.
+   *
+   * @param address Peer address
+   * @param connectTimeoutMs Time allowed for a connection attempt to complete
+   * @return Connection
+   */
+  public Connection open(InetSocketAddress address, int connectTimeoutMs) {
+    start();
+    Connection connection = new Connection(this, address, connectTimeoutMs);
+    this.connections.add(connection);
+    return connection;
+  }
+
+  private void requestUpdate(Connection connection) {
+    this.updates.add(connection);
+    this.selector.wakeup();
+  }
+
+  private void runSelector() {
+    try {
+      while (!this.thread.isInterrupted()) {
+        this.selector.select(SELECT_TIMEOUT_MS);
+        long nowMillis = System.currentTimeMillis();
+
+        // Channels that are ready for connect or write
+        for (SelectionKey key : this.selector.selectedKeys()) {
+          ((Connection) key.attachment()).update(this.selector, nowMillis);
+        }
+        this.selector.selectedKeys().clear();
+
+        // Connections that have asked to be serviced
+        this.updates.drain((connection) -> {
+          connection.update(this.selector, nowMillis);
+        }, MpscQueue.UNBOUNDED);
+
+        // Time out any pending connection attempts
+        for (Connection connection : this.connections) {
+          if (connection.state == Connection.State.CONNECTING) {
+            connection.update(this.selector, nowMillis);
+          }
+        }
+      }
+    } catch (ClosedSelectorException csx) {
+      // Done
+    } catch (IOException iox) {
+      LXOutput.error(iox, "SocketTransport selector failed, TCP outputs will no longer send");
+    }
+  }
+
+  /**
+   * Closes all connections and stops the selector thread, regardless of whether
+   * the connections are still in use. Invoked when the engine is disposed.
+   */
+  public void close() {
+    Thread thread;
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      thread = this.thread;
+    }
+    for (Connection connection : this.connections) {
+      connection.close();
+    }
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        this.selector.close();
+      } catch (IOException iox) {
+        LXOutput.error(iox, "Error closing SocketTransport selector");
+      }
+      try {
+        thread.join();
+      } catch (InterruptedException ix) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+}
@@ -21,6 +21,9 @@ package heronarts.lx.output;
 import heronarts.lx.LX;
 import heronarts.lx.model.LXModel;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
 /**
  * Streaming ACN, also referred to as E1.31, is a standardized protocol for
  * streaming DMX data over ACN protocol. It's a fairly simple UDP-based wrapper
@@ -40,11 +43,38 @@ public class StreamingACNDatagram extends LXDatagram {
 
   private final static int DEFAULT_UNIVERSE_NUMBER = 1;
 
+  protected final static int OFFSET_SYNC_ADDRESS = 109;
+
+  final static int VECTOR_ROOT_E131_DATA = 0x00000004;
+  final static int VECTOR_ROOT_E131_EXTENDED = 0x00000008;
+
+  final static int SOURCE_NAME_LENGTH = 64;
+
+  /**
+   * Port that E1.31 packets are sent to
+   */
+  public final static int E131_PORT = DEFAULT_PORT;
+
   /**
    * The universe number that this packet sends to.
    */
   private int universeNumber;
 
+  /**
+   * Whether this packet is sent to the multicast address of its universe
+   */
+  private boolean multicast = false;
+
+  /**
+   * Explicitly set destination, which is restored when multicast is turned off
+   */
+  private InetAddress unicastAddress = null;
+
+  /**
+   * The universe number of synchronization packets this data is held for, 0 if none
+   */
+  private int syncAddress = 0;
+
   /**
    * Creates a StreamingACNDatagram for the given model
    *
@@ -141,44 +171,9 @@ public class StreamingACNDatagram extends LXDatagram {
 
     int flagLength;
 
-    // Preamble size
-    this.buffer[0] = (byte) 0x00;
-    this.buffer[1] = (byte) 0x10;
-
-    // Post-amble size
-    this.buffer[0] = (byte) 0x00;
-    this.buffer[1] = (byte) 0x10;
-
-    // ACN Packet Identifier
-    this.buffer[4] = (byte) 0x41;
-    this.buffer[5] = (byte) 0x53;
-    this.buffer[6] = (byte) 0x43;
-    this.buffer[7] = (byte) 0x2d;
-    this.buffer[8] = (byte) 0x45;
-    this.buffer[9] = (byte) 0x31;
-    this.buffer[10] = (byte) 0x2e;
-    this.buffer[11] = (byte) 0x31;
-    this.buffer[12] = (byte) 0x37;
-    this.buffer[13] = (byte) 0x00;
-    this.buffer[14] = (byte) 0x00;
-    this.buffer[15] = (byte) 0x00;
-
-    // Flags and length
-    flagLength = 0x00007000 | ((this.buffer.length - 16) & 0x0fffffff);
-    this.buffer[16] = (byte) ((flagLength >> 8) & 0xff);
-    this.buffer[17] = (byte) (flagLength & 0xff);
-
-    // RLP 1.31 Protocol PDU Identifier
+    // Root layer
     // VECTOR_ROOT_E131_DATA
-    this.buffer[18] = (byte) 0x00;
-    this.buffer[19] = (byte) 0x00;
-    this.buffer[20] = (byte) 0x00;
-    this.buffer[21] = (byte) 0x04;
-
-    // Sender's CID - unique number
-    for (int i = 22; i < 38; ++i) {
-      this.buffer[i] = (byte) i;
-    }
+    setRootLayer(this.buffer, VECTOR_ROOT_E131_DATA);
 
     // Flags and length
     flagLength = 0x00007000 | ((this.buffer.length - 38) & 0x0fffffff);
@@ -193,21 +188,13 @@ public class StreamingACNDatagram extends LXDatagram {
     this.buffer[43] = (byte) 0x02;
 
     // Source name
-    this.buffer[44] = 'L';
-    this.buffer[45] = 'X';
-    this.buffer[46] = '-';
-    byte[] versionBytes = LX.VERSION.getBytes();
-    System.arraycopy(versionBytes, 0, this.buffer, 47, versionBytes.length);
-    for (int i = 47 + versionBytes.length; i < 108; ++i) {
-      this.buffer[i] = 0;
-    }
+    setSourceName(this.buffer, 44);
 
     // Priority
     this.buffer[108] = 100;
 
-    // Reserved
-    this.buffer[109] = 0x00;
-    this.buffer[110] = 0x00;
+    // Synchronization address
+    // 109-110 are done in setSyncAddress()
 
     // Sequence Number
     this.buffer[111] = 0x00;
@@ -247,7 +234,116 @@ public class StreamingACNDatagram extends LXDatagram {
   }
 
   /**
-   * Sets the universe for this datagram
+   * Writes the E1.31 root layer, shared by every type of E1.31 packet, into the start
+   * of a buffer. The root layer spans the whole buffer.
+   *
+   * @param buffer Packet buffer
+   * @param vector Root layer vector
+   */
+  static void setRootLayer(byte[] buffer, int vector) {
+    // Preamble size
+    buffer[0] = (byte) 0x00;
+    buffer[1] = (byte) 0x10;
+
+    // Post-amble size
+    buffer[2] = (byte) 0x00;
+    buffer[3] = (byte) 0x00;
+
+    // ACN Packet Identifier
+    buffer[4] = (byte) 0x41;
+    buffer[5] = (byte) 0x53;
+    buffer[6] = (byte) 0x43;
+    buffer[7] = (byte) 0x2d;
+    buffer[8] = (byte) 0x45;
+    buffer[9] = (byte) 0x31;
+    buffer[10] = (byte) 0x2e;
+    buffer[11] = (byte) 0x31;
+    buffer[12] = (byte) 0x37;
+    buffer[13] = (byte) 0x00;
+    buffer[14] = (byte) 0x00;
+    buffer[15] = (byte) 0x00;
+
+    // Flags and length
+    setFlagsAndLength(buffer, 16);
+
+    // RLP 1.31 Protocol PDU Identifier
+    setVector(buffer, 18, vector);
+
+    // Sender's CID - unique number
+    for (int i = 22; i < 38; ++i) {
+      buffer[i] = (byte) i;
+    }
+  }
+
+  /**
+   * Writes the flags and length field of a PDU that runs from the given offset to
+   * the end of the buffer
+   *
+   * @param buffer Packet buffer
+   * @param offset Offset of the PDU
+   */
+  static void setFlagsAndLength(byte[] buffer, int offset) {
+    int flagLength = 0x00007000 | ((buffer.length - offset) & 0x0fffffff);
+    buffer[offset] = (byte) ((flagLength >> 8) & 0xff);
+    buffer[offset + 1] = (byte) (flagLength & 0xff);
+  }
+
+  /**
+   * Writes a 32-bit PDU vector
+   *
+   * @param buffer Packet buffer
+   * @param offset Offset of the vector
+   * @param vector Vector value
+   */
+  static void setVector(byte[] buffer, int offset, int vector) {
+    buffer[offset] = (byte) ((vector >>> 24) & 0xff);
+    buffer[offset + 1] = (byte) ((vector >>> 16) & 0xff);
+    buffer[offset + 2] = (byte) ((vector >>> 8) & 0xff);
+    buffer[offset + 3] = (byte) (vector & 0xff);
+  }
+
+  /**
+   * Writes the null-padded source name of this sender
+   *
+   * @param buffer Packet buffer
+   * @param offset Offset of the source name field
+   */
+  static void setSourceName(byte[] buffer, int offset) {
+    buffer[offset] = 'L';
+    buffer[offset + 1] = 'X';
+    buffer[offset + 2] = '-';
+    byte[] versionBytes = LX.VERSION.getBytes();
+    int versionLength = Math.min(versionBytes.length, SOURCE_NAME_LENGTH - 4);
+    System.arraycopy(versionBytes, 0, buffer, offset + 3, versionLength);
+    for (int i = offset + 3 + versionLength; i < offset + SOURCE_NAME_LENGTH; ++i) {
+      buffer[i] = 0;
+    }
+  }
+
+  /**
+   * Gets the multicast address that E1.31 receivers of a universe listen on,
+   * which is 239.255.{high byte}.{low byte}
+   *
+   * @param universeNumber Universe number
+   * @return Multicast address of the universe
+   */
+  public static InetAddress getMulticastAddress(int universeNumber) {
+    try {
+      return InetAddress.getByAddress(new byte[] {
+        (byte) 239,
+        (byte) 255,
+        (byte) ((universeNumber >> 8) & 0xff),
+        (byte) (universeNumber & 0xff)
+      });
+    } catch (UnknownHostException uhx) {
+      // Not possible with a 4-byte address
+      throw new IllegalStateException("Invalid multicast address for universe " + universeNumber, uhx);
+    }
+  }
+
+  /**
+   * Sets the universe for this datagram. If the datagram is in multicast mode, it
+   * will send to the multicast address of the new universe.
    *
    * @param universeNumber DMX universe
    * @return this
@@ -256,9 +352,77 @@ public class StreamingACNDatagram extends LXDatagram {
     this.universeNumber = (universeNumber &= 0x0000ffff);
     this.buffer[OFFSET_UNIVERSE_NUMBER] = (byte) ((universeNumber >> 8) & 0xff);
     this.buffer[OFFSET_UNIVERSE_NUMBER + 1] = (byte) (universeNumber & 0xff);
+    if (this.multicast) {
+      super.setAddress(getMulticastAddress(universeNumber));
+    }
+    return this;
+  }
+
+  /**
+   * Sets whether this datagram is sent to the multicast address of its universe,
+   * rather than to an explicitly set address. The network interface multicast is
+   * sent from is given by {@link #setNetworkInterface(java.net.NetworkInterface)},
+   * or by the engine's multicast interface setting. Turning multicast off restores
+   * the address given to {@link #setAddress(InetAddress)}.
+   *
+   * @param multicast Whether to multicast
+   * @return this
+   */
+  public StreamingACNDatagram setMulticast(boolean multicast) {
+    this.multicast = multicast;
+    super.setAddress(multicast ? getMulticastAddress(this.universeNumber) : this.unicastAddress);
     return this;
   }
 
+  /**
+   * Sets the address this datagram sends to when it is not multicasting. While
+   * multicast is on, the address is kept until multicast is turned off.
+   *
+   * @param address Destination address
+   * @return this
+   */
+  @Override
+  public StreamingACNDatagram setAddress(InetAddress address) {
+    this.unicastAddress = address;
+    if (!this.multicast) {
+      super.setAddress(address);
+    }
+    return this;
+  }
+
+  /**
+   * Whether this datagram is sent to the multicast address of its universe
+   *
+   * @return True if multicasting
+   */
+  public boolean isMulticast() {
+    return this.multicast;
+  }
+
+  /**
+   * Sets the universe that synchronization packets for this data are sent on. A
+   * receiver holds the data until it receives a {@link StreamingACNSyncDatagram} for
+   * this universe. Set to 0 to have the data acted upon immediately.
+   *
+   * @param syncAddress Synchronization universe, or 0 for none
+   * @return this
+   */
+  public StreamingACNDatagram setSyncAddress(int syncAddress) {
+    this.syncAddress = (syncAddress &= 0x0000ffff);
+    this.buffer[OFFSET_SYNC_ADDRESS] = (byte) ((syncAddress >> 8) & 0xff);
+    this.buffer[OFFSET_SYNC_ADDRESS + 1] = (byte) (syncAddress & 0xff);
+    return this;
+  }
+
+  /**
+   * Universe that synchronization packets for this data are sent on
+   *
+   * @return Synchronization universe, or 0 for none
+   */
+  public int getSyncAddress() {
+    return this.syncAddress;
+  }
+
   /**
    * Universe number for datagram.
    *
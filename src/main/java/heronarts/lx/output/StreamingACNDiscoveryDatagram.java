@@ -0,0 +1,162 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+
+package heronarts.lx.output;
+
+import heronarts.lx.LX;
+
+import java.util.Arrays;
+
+/**
+ * E1.31 universe discovery packet, which advertises the list of universes that this
+ * source sends on. Discovery packets are multicast to the universe discovery address
+ * and are sent once every 10 seconds, which is applied as the frame rate limit of the
+ * output. A list of more than 512 universes is split across multiple pages, each
+ * page being a separate datagram.
+ */
+public class StreamingACNDiscoveryDatagram extends LXDatagram {
+
+  /**
+   * Universe whose multicast address discovery packets are sent to
+   */
+  public final static int DISCOVERY_UNIVERSE = 64214;
+
+  /**
+   * Maximum number of universes listed in one discovery packet
+   */
+  public final static int MAX_UNIVERSES_PER_PAGE = 512;
+
+  /**
+   * Interval at which discovery packets are sent, in seconds
+   */
+  public final static double DISCOVERY_INTERVAL = 10;
+
+  private final static int OFFSET_UNIVERSE_LIST = 120;
+
+  private final static int VECTOR_E131_EXTENDED_DISCOVERY = 0x00000002;
+  private final static int VECTOR_UNIVERSE_DISCOVERY_UNIVERSE_LIST = 0x00000001;
+
+  /**
+   * Page number of this packet
+   */
+  public final int page;
+
+  /**
+   * Page number of the final packet in the set
+   */
+  public final int lastPage;
+
+  /**
+   * Creates a single discovery packet for the given list of universes
+   *
+   * @param lx LX instance
+   * @param universes Universes that this source sends on, no more than 512
+   */
+  public StreamingACNDiscoveryDatagram(LX lx, int[] universes) {
+    this(lx, singlePage(universes), 0, 0);
+  }
+
+  private StreamingACNDiscoveryDatagram(LX lx, int[] pageUniverses, int page, int lastPage) {
+    super(lx, new int[0], OFFSET_UNIVERSE_LIST + 2 * pageUniverses.length);
+    this.page = page;
+    this.lastPage = lastPage;
+    setPort(StreamingACNDatagram.E131_PORT);
+    setAddress(StreamingACNDatagram.getMulticastAddress(DISCOVERY_UNIVERSE));
+    this.framesPerSecond.setValue(1. / DISCOVERY_INTERVAL);
+
+    // Root layer
+    // VECTOR_ROOT_E131_EXTENDED
+    StreamingACNDatagram.setRootLayer(this.buffer, StreamingACNDatagram.VECTOR_ROOT_E131_EXTENDED);
+
+    // Framing layer flags and length
+    StreamingACNDatagram.setFlagsAndLength(this.buffer, 38);
+
+    // VECTOR_E131_EXTENDED_DISCOVERY
+    StreamingACNDatagram.setVector(this.buffer, 40, VECTOR_E131_EXTENDED_DISCOVERY);
+
+    // Source name
+    StreamingACNDatagram.setSourceName(this.buffer, 44);
+
+    // Reserved
+    // 108-111 are left zero
+
+    // Universe discovery layer flags and length
+    StreamingACNDatagram.setFlagsAndLength(this.buffer, 112);
+
+    // VECTOR_UNIVERSE_DISCOVERY_UNIVERSE_LIST
+    StreamingACNDatagram.setVector(this.buffer, 114, VECTOR_UNIVERSE_DISCOVERY_UNIVERSE_LIST);
+
+    // Page numbers
+    this.buffer[118] = (byte) page;
+    this.buffer[119] = (byte) lastPage;
+
+    // Universes, sorted in ascending order
+    for (int i = 0; i < pageUniverses.length; ++i) {
+      int universe = pageUniverses[i];
+      this.buffer[OFFSET_UNIVERSE_LIST + 2*i] = (byte) ((universe >> 8) & 0xff);
+      this.buffer[OFFSET_UNIVERSE_LIST + 2*i + 1] = (byte) (universe & 0xff);
+    }
+  }
+
+  /**
+   * Creates the set of discovery packets needed to list the given universes, one
+   * packet for each page of up to 512 universes.
+   *
+   * @param lx LX instance
+   * @param universes Universes that this source sends on
+   * @return Discovery packets, to be added as outputs together
+   */
+  public static StreamingACNDiscoveryDatagram[] create(LX lx, int[] universes) {
+    int[] sorted = sortUniverses(universes);
+    int numPages = Math.max(1, (sorted.length + MAX_UNIVERSES_PER_PAGE - 1) / MAX_UNIVERSES_PER_PAGE);
+    if (numPages > 256) {
+      throw new IllegalArgumentException("Too many universes for E1.31 discovery: " + sorted.length);
+    }
+    StreamingACNDiscoveryDatagram[] datagrams = new StreamingACNDiscoveryDatagram[numPages];
+    for (int page = 0; page < numPages; ++page) {
+      int offset = page * MAX_UNIVERSES_PER_PAGE;
+      int count = Math.min(MAX_UNIVERSES_PER_PAGE, sorted.length - offset);
+      datagrams[page] = new StreamingACNDiscoveryDatagram(lx, Arrays.copyOfRange(sorted, offset, offset + count), page, numPages - 1);
+    }
+    return datagrams;
+  }
+
+  private static int[] singlePage(int[] universes) {
+    int[] sorted = sortUniverses(universes);
+    if (sorted.length > MAX_UNIVERSES_PER_PAGE) {
+      throw new IllegalArgumentException("E1.31 discovery packet cannot list more than " + MAX_UNIVERSES_PER_PAGE + " universes, use StreamingACNDiscoveryDatagram.create(): " + sorted.length);
+    }
+    return sorted;
+  }
+
+  // Sorts and de-duplicates the list of universes, as required by the specification
+  private static int[] sortUniverses(int[] universes) {
+    int[] sorted = new int[universes.length];
+    for (int i = 0; i < universes.length; ++i) {
+      sorted[i] = universes[i] & 0x0000ffff;
+    }
+    return Arrays.stream(sorted).sorted().distinct().toArray();
+  }
+
+  @Override
+  protected int getDataBufferOffset() {
+    return 0;
+  }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.output;
+
+import heronarts.lx.LX;
+
+import java.net.InetAddress;
+
+/**
+ * E1.31 synchronization packet. Receivers hold the data of every universe that
+ * specifies this packet's universe as its synchronization address, and act upon it
+ * all at once when this packet arrives. This is the E1.31 analog of the Art-Net
+ * {@link ArtSyncDatagram}, and is sent after all the data packets in a frame.
+ *
+ * By default the packet is multicast to the address of its synchronization universe.
+ */
+public class StreamingACNSyncDatagram extends LXDatagram {
+
+  private final static int SYNC_PACKET_LENGTH = 49;
+
+  private final static int OFFSET_SEQUENCE_NUMBER = 44;
+  private final static int OFFSET_SYNC_ADDRESS = 45;
+
+  private final static int VECTOR_E131_EXTENDED_SYNCHRONIZATION = 0x00000001;
+
+  private int syncAddress;
+
+  private boolean multicast = true;
+
+  private InetAddress unicastAddress = null;
+
+  /**
+   * Creates a synchronization packet for the given universe, multicast to the
+   * address of that universe
+   *
+   * @param lx LX instance
+   * @param syncAddress Synchronization universe
+   */
+  public StreamingACNSyncDatagram(LX lx, int syncAddress) {
+    super(lx, new int[0], SYNC_PACKET_LENGTH);
+    setPort(StreamingACNDatagram.E131_PORT);
+
+    // Root layer
+    // VECTOR_ROOT_E131_EXTENDED
+    StreamingACNDatagram.setRootLayer(this.buffer, StreamingACNDatagram.VECTOR_ROOT_E131_EXTENDED);
+
+    // Framing layer flags and length
+    StreamingACNDatagram.setFlagsAndLength(this.buffer, 38);
+
+    // VECTOR_E131_EXTENDED_SYNCHRONIZATION
+    StreamingACNDatagram.setVector(this.buffer, 40, VECTOR_E131_EXTENDED_SYNCHRONIZATION);
+
+    // Sequence number
+    this.buffer[OFFSET_SEQUENCE_NUMBER] = 0x00;
+
+    // Synchronization address
+    // 45-46 are done in setSyncAddress()
+    setSyncAddress(syncAddress);
+
+    // Reserved
+    this.buffer[47] = 0x00;
+    this.buffer[48] = 0x00;
+  }
+
+  /**
+   * Sets the universe that this synchronization packet is sent on. If the packet is
+   * in multicast mode, it will send to the multicast address of the new universe.
+   *
+   * @param syncAddress Synchronization universe
+   * @return this
+   */
+  public StreamingACNSyncDatagram setSyncAddress(int syncAddress) {
+    if (syncAddress <= 0 || syncAddress > 63999) {
+      throw new IllegalArgumentException("E1.31 synchronization address must be in range [1, 63999]: " + syncAddress);
+    }
+    this.syncAddress = syncAddress;
+    this.buffer[OFFSET_SYNC_ADDRESS] = (byte) ((syncAddress >> 8) & 0xff);
+    this.buffer[OFFSET_SYNC_ADDRESS + 1] = (byte) (syncAddress & 0xff);
+    if (this.multicast) {
+      super.setAddress(StreamingACNDatagram.getMulticastAddress(syncAddress));
+    }
+    return this;
+  }
+
+  /**
+   * Universe this synchronization packet is sent on
+   *
+   * @return Synchronization universe
+   */
+  public int getSyncAddress() {
+    return this.syncAddress;
+  }
+
+  /**
+   * Sets whether this packet is sent to the multicast address of its universe,
+   * rather than to an explicitly set address. Turning multicast off restores the
+   * address given to {@link #setAddress(InetAddress)}.
+   *
+   * @param multicast Whether to multicast
+   * @return this
+   */
+  public StreamingACNSyncDatagram setMulticast(boolean multicast) {
+    this.multicast = multicast;
+    super.setAddress(multicast ? StreamingACNDatagram.getMulticastAddress(this.syncAddress) : this.unicastAddress);
+    return this;
+  }
+
+  /**
+   * Sets the address this packet is sent to when it is not multicasting. While
+   * multicast is on, the address is kept until multicast is turned off.
+   *
+   * @param address Destination address
+   * @return this
+   */
+  @Override
+  public StreamingACNSyncDatagram setAddress(InetAddress address) {
+    this.unicastAddress = address;
+    if (!this.multicast) {
+      super.setAddress(address);
+    }
+    return this;
+  }
+
+  /**
+   * Whether this packet is sent to the multicast address of its universe
+   *
+   * @return True if multicasting
+   */
+  public boolean isMulticast() {
+    return this.multicast;
+  }
+
+  @Override
+  protected int getDataBufferOffset() {
+    return 0;
+  }
+
+  @Override
+  protected boolean isSyncPacket() {
+    return true;
+  }
+
+  @Override
+  protected void updateSequenceNumber() {
+    this.buffer[OFFSET_SEQUENCE_NUMBER]++;
+  }
+
+}
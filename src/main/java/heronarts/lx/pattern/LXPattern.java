@@ -29,8 +29,11 @@ import heronarts.lx.LXDeviceComponent;
 import heronarts.lx.LXLayeredComponent;
 import heronarts.lx.LXTime;
 import heronarts.lx.mixer.LXChannel;
+import heronarts.lx.model.LXModel;
 import heronarts.lx.osc.LXOscComponent;
 import heronarts.lx.parameter.BooleanParameter;
+import heronarts.lx.parameter.LXParameter;
+import heronarts.lx.utils.LatencyHistogram;
 
 /**
  * A pattern is the core object that the animation engine uses to generate
@@ -97,10 +100,20 @@ public abstract class LXPattern extends LXDeviceComponent implements LXComponent
 
   protected double runMs = 0;
 
+  // Parameter values, buffer and model that the current colors were rendered with,
+  // used to skip running static patterns when nothing has changed
+  private double[] staticValues = new double[0];
+  private int[] staticColors = null;
+  private LXModel staticModel = null;
+  private int staticModelGeneration = -1;
+
+  private boolean isStaticFrame = false;
+
   public final Profiler profiler = new Profiler();
 
   public class Profiler {
     public long runNanos = 0;
+    public final LatencyHistogram runHistogram = new LatencyHistogram();
   }
 
   protected LXPattern(LX lx) {
@@ -233,8 +246,67 @@ public abstract class LXPattern extends LXDeviceComponent implements LXComponent
   protected final void onLoop(double deltaMs) {
     long runStart = System.nanoTime();
     this.runMs += deltaMs;
-    this.run(deltaMs);
-    this.profiler.runNanos = System.nanoTime() - runStart;
+    if (isStatic() && this.layers.isEmpty()) {
+      this.isStaticFrame = !updateStaticState();
+    } else {
+      this.staticColors = null;
+      this.isStaticFrame = false;
+    }
+    if (!this.isStaticFrame) {
+      this.run(deltaMs);
+    }
+    this.profiler.runNanos = this.profiler.runHistogram.record(runStart, System.nanoTime());
+  }
+
+  // Returns true if anything that a static pattern's colors depend upon has changed
+  // since they were last rendered. Parameter values are compared directly so that
+  // changes from modulation are caught along with direct changes.
+  private boolean updateStaticState() {
+    boolean changed =
+      (this.staticColors != this.colors) ||
+      (this.staticModel != this.model) ||
+      (this.staticModelGeneration != this.model.getGeneration());
+    int numParameters = getParameters().size();
+    if (this.staticValues.length != numParameters) {
+      this.staticValues = new double[numParameters];
+      changed = true;
+    }
+    int i = 0;
+    for (LXParameter parameter : getParameters()) {
+      double value = parameter.getValue();
+      // NOTE: compare() as some parameters, e.g. ColorParameter, have NaN values
+      if (Double.compare(this.staticValues[i], value) != 0) {
+        this.staticValues[i] = value;
+        changed = true;
+      }
+      ++i;
+    }
+    this.staticColors = this.colors;
+    this.staticModel = this.model;
+    this.staticModelGeneration = this.model.getGeneration();
+    return changed;
+  }
+
+  /**
+   * Subclasses may override this method to declare that their output currently
+   * depends only on the values of their parameters and the model, not upon the
+   * passage of time or any other state. A static pattern is only run when one of
+   * its parameter values has changed, otherwise its previous colors are reused.
+   *
+   * @return Whether the pattern is currently static
+   */
+  public boolean isStatic() {
+    return false;
+  }
+
+  /**
+   * Whether the pattern skipped running on the most recent frame, meaning that its
+   * colors are identical to those of the previous frame.
+   *
+   * @return True if colors are unchanged since the previous frame
+   */
+  public final boolean isStaticFrame() {
+    return this.isStaticFrame;
   }
 
   /**
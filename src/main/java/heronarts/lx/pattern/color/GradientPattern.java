@@ -28,7 +28,6 @@ import heronarts.lx.color.GradientUtils.GradientFunction;
 import heronarts.lx.color.LXColor;
 import heronarts.lx.color.LXDynamicColor;
 import heronarts.lx.color.LXSwatch;
-import heronarts.lx.model.LXPoint;
 import heronarts.lx.parameter.CompoundParameter;
 import heronarts.lx.parameter.DiscreteParameter;
 import heronarts.lx.parameter.EnumParameter;
@@ -57,21 +56,21 @@ public class GradientPattern extends LXPattern implements GradientFunction {
   };
 
   private interface CoordinateFunction {
-    float getCoordinate(LXPoint p, float normalized, float offset);
+    float getCoordinate(float normalized, float radial, float offset);
   }
 
   public static enum CoordinateMode {
 
-    NORMAL("Normal", (p, normalized, offset) ->  {
+    NORMAL("Normal", (normalized, radial, offset) ->  {
       return normalized - offset;
     }),
 
-    CENTER("Center", (p, normalized, offset) -> {
+    CENTER("Center", (normalized, radial, offset) -> {
       return 2 * Math.abs(normalized - (.5f + offset * .5f));
     }),
 
-    RADIAL("Radial", (p, normalized, offset) -> {
-      return p.rcn - offset;
+    RADIAL("Radial", (normalized, radial, offset) -> {
+      return radial - offset;
     });
 
     public final String name;
@@ -81,7 +80,7 @@ public class GradientPattern extends LXPattern implements GradientFunction {
     private CoordinateMode(String name, CoordinateFunction function) {
       this.name = name;
       this.function = function;
-      this.invert = (p, normalized, offset) -> { return function.getCoordinate(p, normalized, offset) - 1; };
+      this.invert = (normalized, radial, offset) -> { return function.getCoordinate(normalized, radial, offset) - 1; };
     }
 
     @Override
@@ -258,6 +257,12 @@ public class GradientPattern extends LXPattern implements GradientFunction {
     return this.colorStops.getColor(lerp, this.blendMode.getEnum().function);
   }
 
+  @Override
+  public boolean isStatic() {
+    // Palette colors may change without any of our parameters changing
+    return this.colorMode.getEnum() == ColorMode.FIXED;
+  }
+
   @Override
   public void run(double deltaMs) {
     setColorStops();
@@ -287,15 +292,21 @@ public class GradientPattern extends LXPattern implements GradientFunction {
 
     final GradientUtils.BlendFunction blendFunction = this.blendMode.getEnum().function;
 
-    for (LXPoint p : model.points) {
+    final float[] xn = model.xn();
+    final float[] yn = model.yn();
+    final float[] zn = model.zn();
+    final float[] rcn = model.rcn();
+    final int[] indices = model.indices();
+
+    for (int i = 0; i < indices.length; ++i) {
       float lerp = (this.colorStops.numStops - 1) * LXUtils.clampf(
-        xAmount * xFunction.getCoordinate(p, p.xn, xOffset) +
-        yAmount * yFunction.getCoordinate(p, p.yn, yOffset) +
-        zAmount * zFunction.getCoordinate(p, p.zn, zOffset),
+        xAmount * xFunction.getCoordinate(xn[i], rcn[i], xOffset) +
+        yAmount * yFunction.getCoordinate(yn[i], rcn[i], yOffset) +
+        zAmount * zFunction.getCoordinate(zn[i], rcn[i], zOffset),
         0, 1
       );
       int stop = (int) Math.floor(lerp);
-      colors[p.index] = blendFunction.blend(this.colorStops.stops[stop], this.colorStops.stops[stop+1], lerp - stop);
+      colors[indices[i]] = blendFunction.blend(this.colorStops.stops[stop], this.colorStops.stops[stop+1], lerp - stop);
     }
   }
 }
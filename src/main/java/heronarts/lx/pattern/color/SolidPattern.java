@@ -75,6 +75,12 @@ public class SolidPattern extends LXPattern {
     return this.lx.engine.palette.getSwatchColor(this.paletteIndex.getValuei() - 1);
   }
 
+  @Override
+  public boolean isStatic() {
+    // Palette colors may change without any of our parameters changing
+    return this.colorMode.getEnum() == ColorMode.FIXED;
+  }
+
   @Override
   public void run(double deltaMs) {
     switch (this.colorMode.getEnum()) {
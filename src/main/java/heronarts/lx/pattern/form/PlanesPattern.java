@@ -31,7 +31,6 @@ import heronarts.lx.LXCategory;
 import heronarts.lx.LXLayer;
 import heronarts.lx.LXSerializable;
 import heronarts.lx.color.LXColor;
-import heronarts.lx.model.LXPoint;
 import heronarts.lx.osc.LXOscComponent;
 import heronarts.lx.parameter.BooleanParameter;
 import heronarts.lx.parameter.BoundedParameter;
@@ -58,54 +57,18 @@ public class PlanesPattern extends LXPattern {
     public float invSqrt;
   }
 
-  public interface AxisFunction {
-    public float getDistance(LXPoint p, PlaneConstants args);
-  }
-
   public enum Axis {
-    X("X-axis", (p, a) -> {
-      return a.invSqrt * Math.abs(
-        (p.xn - a.ap) * a.a +
-        (p.yn - a.bp) * a.b +
-        (p.zn - a.cp) * a.c);
-    }),
-
-    Y("Y-axis", (p, a) -> {
-      return a.invSqrt * Math.abs(
-        (p.yn - a.ap) * a.a +
-        (p.zn - a.bp) * a.b +
-        (p.xn - a.cp) * a.c);
-    }),
-
-    Z("Z-axis", (p, a) -> {
-      return a.invSqrt * Math.abs(
-        (p.zn - a.ap) * a.a +
-        (p.xn - a.bp) * a.b +
-        (p.yn - a.cp) * a.c);
-    }),
-
-    FREE("Free", (p, a) -> {
-      return a.invSqrt * Math.abs(
-        (p.xn - a.ap) * a.a +
-        (p.yn - a.bp) * a.b +
-        (p.zn - a.cp) * a.c +
-        a.d);
-    }),
-
-    RC("R-center", (p, a) -> {
-      return p.rcn - a.d;
-    }),
-
-    RO("R-origin", (p, a) -> {
-      return p.rn - a.d;
-    });
+    X("X-axis"),
+    Y("Y-axis"),
+    Z("Z-axis"),
+    FREE("Free"),
+    RC("R-center"),
+    RO("R-origin");
 
     public final String label;
-    public final AxisFunction function;
 
-    private Axis(String label, AxisFunction function) {
+    private Axis(String label) {
       this.label = label;
-      this.function = function;
     }
 
     @Override
@@ -248,7 +211,6 @@ public class PlanesPattern extends LXPattern {
       }
 
       Axis axis = this.axis.getEnum();
-      AxisFunction function = axis.function;
       float position = LXUtils.lerpf(this.positionMin.getValuef(), this.positionMax.getValuef(), .5f * (1 + this.position.getValuef()));
       float width = .5f * LXUtils.lerpf(this.widthMin.getValuef(), this.widthMax.getValuef(), this.width.getValuef());
       float fade = 1 / width / this.fade.getValuef();
@@ -282,13 +244,43 @@ public class PlanesPattern extends LXPattern {
 
       }
 
-      float level = this.level.getValuef();
-      for (LXPoint p : model.points) {
-        float d = Math.abs(function.getDistance(p, args));
-        float bn = LXUtils.minf(1, 1 - (d - width) * fade);
-        if (bn > 0) {
-          addColor(p.index, LXColor.grayn(level * bn));
+      final float level = this.level.getValuef();
+      final int[] indices = model.indices();
+
+      // Distance from the plane, evaluated over the model's coordinate arrays
+      switch (axis) {
+      case RC:
+      case RO:
+        final float[] radial = (axis == Axis.RC) ? model.rcn() : model.rn();
+        for (int i = 0; i < indices.length; ++i) {
+          addPlaneColor(indices[i], Math.abs(radial[i] - args.d), width, fade, level);
         }
+        break;
+
+      default:
+        // The X, Y and Z axes rotate which coordinate each plane constant applies to
+        final float[] u, v, w;
+        switch (axis) {
+        case Y: u = model.yn(); v = model.zn(); w = model.xn(); break;
+        case Z: u = model.zn(); v = model.xn(); w = model.yn(); break;
+        default: u = model.xn(); v = model.yn(); w = model.zn(); break;
+        }
+        final float offset = (axis == Axis.FREE) ? args.d : 0;
+        final float a = args.a, b = args.b, c = args.c;
+        final float ap = args.ap, bp = args.bp, cp = args.cp;
+        final float invSqrt = args.invSqrt;
+        for (int i = 0; i < indices.length; ++i) {
+          float d = invSqrt * Math.abs((u[i] - ap) * a + (v[i] - bp) * b + (w[i] - cp) * c + offset);
+          addPlaneColor(indices[i], d, width, fade, level);
+        }
+        break;
+      }
+    }
+
+    private void addPlaneColor(int index, float d, float width, float fade, float level) {
+      float bn = LXUtils.minf(1, 1 - (d - width) * fade);
+      if (bn > 0) {
+        addColor(index, LXColor.grayn(level * bn));
       }
     }
 
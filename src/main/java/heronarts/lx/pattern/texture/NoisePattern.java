@@ -20,7 +20,6 @@ package heronarts.lx.pattern.texture;
 
 import heronarts.lx.LXCategory;
 import heronarts.lx.color.LXColor;
-import heronarts.lx.model.LXPoint;
 import heronarts.lx.modulator.LXModulator;
 import heronarts.lx.modulator.LinearEnvelope;
 import heronarts.lx.modulator.SawLFO;
@@ -67,24 +66,24 @@ public class NoisePattern extends LXPattern {
   }
 
   private interface CoordinateFunction {
-    float getCoordinate(LXPoint p, float normalized, float offset);
+    float getCoordinate(float normalized, float radial, float offset);
   }
 
   public static enum CoordinateMode {
 
-    NORMAL("Normal", (p, normalized, offset) ->  {
+    NORMAL("Normal", (normalized, radial, offset) ->  {
       return normalized + offset;
     }),
 
-    CENTER("Center", (p, normalized, offset) -> {
+    CENTER("Center", (normalized, radial, offset) -> {
       return Math.abs(normalized - .5f * (1 + offset));
     }),
 
-    RADIAL("Radial", (p, normalized, offset) -> {
-      return p.rcn + offset * normalized;
+    RADIAL("Radial", (normalized, radial, offset) -> {
+      return radial + offset * normalized;
     }),
 
-    NONE("None", (p, normalized, offset) -> {
+    NONE("None", (normalized, radial, offset) -> {
       return .5f + offset;
     });
 
@@ -309,79 +308,128 @@ public class NoisePattern extends LXPattern {
     }
   }
 
+  // Per-frame values, captured before the points are rendered in parallel
+  private Algorithm runAlgorithm;
+  private int runSeed;
+  private float xa, ya, za;
+  private float xo, yo, zo;
+  private float xs, ys, zs;
+  private float runContrast, runLevel;
+  private CoordinateFunction xFunction, yFunction, zFunction;
+  private int runOctaves;
+  private float runLacunarity, runGain, runRidgeOffset;
+
   private void runPerlin(double deltaMs, Algorithm algorithm) {
-    int seed = this.seed.getValuei();
+    this.runAlgorithm = algorithm;
+    this.runSeed = this.seed.getValuei();
 
     float scale = LXUtils.lerpf(this.minScale.getValuef(), this.maxScale.getValuef(), this.scale.getValuef());
 
-    float xa = this.xModulation.getValuef();
-    float ya = this.yModulation.getValuef();
-    float za = this.zModulation.getValuef();
+    this.xa = this.xModulation.getValuef();
+    this.ya = this.yModulation.getValuef();
+    this.za = this.zModulation.getValuef();
 
-    float xo = this.xOffset.getValuef();
-    float yo = this.yOffset.getValuef();
-    float zo = this.zOffset.getValuef();
+    this.xo = this.xOffset.getValuef();
+    this.yo = this.yOffset.getValuef();
+    this.zo = this.zOffset.getValuef();
 
-    float xs = scale * this.xScale.getValuef();
-    float ys = scale * this.yScale.getValuef();
-    float zs = scale * this.zScale.getValuef();
+    this.xs = scale * this.xScale.getValuef();
+    this.ys = scale * this.yScale.getValuef();
+    this.zs = scale * this.zScale.getValuef();
 
-    float contrast = this.contrast.getValuef();
-    float level = this.level.getValuef() - contrast / 4;;
+    this.runContrast = this.contrast.getValuef();
+    this.runLevel = this.level.getValuef() - this.runContrast / 4;
+
+    this.xFunction = this.xMode.getEnum().function;
+    this.yFunction = this.yMode.getEnum().function;
+    this.zFunction = this.zMode.getEnum().function;
 
-    CoordinateFunction xMode = this.xMode.getEnum().function;
-    CoordinateFunction yMode = this.yMode.getEnum().function;
-    CoordinateFunction zMode = this.zMode.getEnum().function;
+    this.runOctaves = this.octaves.getValuei();
+    this.runLacunarity = this.lacunarity.getValuef();
+    this.runGain = this.gain.getValuef();
+    this.runRidgeOffset = this.ridgeOffset.getValuef();
+
+    runParallel(deltaMs);
+  }
 
-    if (algorithm.equals(Algorithm.PERLIN)) {
-      for (LXPoint p : model.points) {
-        float xd = xMode.getCoordinate(p, p.xn, xo);
-        float yd = yMode.getCoordinate(p, p.yn, yo);
-        float zd = zMode.getCoordinate(p, p.zn, zo);
+  @Override
+  protected boolean isParallelRange() {
+    return true;
+  }
 
+  @Override
+  protected void runRange(double deltaMs, int startIndex, int endIndex) {
+    final float[] xn = this.model.xn();
+    final float[] yn = this.model.yn();
+    final float[] zn = this.model.zn();
+    final float[] rcn = this.model.rcn();
+    final int[] indices = this.model.indices();
+    final int[] colors = this.colors;
+
+    final float xa = this.xa, ya = this.ya, za = this.za;
+    final float xo = this.xo, yo = this.yo, zo = this.zo;
+    final float xs = this.xs, ys = this.ys, zs = this.zs;
+    final float contrast = this.runContrast;
+    final float level = this.runLevel;
+
+    final CoordinateFunction xMode = this.xFunction;
+    final CoordinateFunction yMode = this.yFunction;
+    final CoordinateFunction zMode = this.zFunction;
+
+    final int octaves = this.runOctaves;
+    final float lacunarity = this.runLacunarity;
+    final float gain = this.runGain;
+
+    switch (this.runAlgorithm) {
+    case PERLIN:
+      final int seed = this.runSeed;
+      for (int i = startIndex; i < endIndex; ++i) {
+        float xd = xMode.getCoordinate(xn[i], rcn[i], xo);
+        float yd = yMode.getCoordinate(yn[i], rcn[i], yo);
+        float zd = zMode.getCoordinate(zn[i], rcn[i], zo);
         float b = level + contrast * stb_perlin_noise3_seed(xa + xs * xd, ya + ys * yd, za + zs * zd, 0, 0, 0, seed);
-        this.colors[p.index] = LXColor.gray(clamp(b, 0, 100));
+        colors[indices[i]] = LXColor.gray(clamp(b, 0, 100));
       }
-    } else {
-      int octaves = this.octaves.getValuei();
-      float lacunarity = this.lacunarity.getValuef();
-      float gain = this.gain.getValuef();
-
-      if (algorithm.equals(Algorithm.RIDGE)) {
-        float ridgeOffset = this.ridgeOffset.getValuef();
-        for (LXPoint p : model.points) {
-          float xd = xMode.getCoordinate(p, p.xn, xo);
-          float yd = yMode.getCoordinate(p, p.yn, yo);
-          float zd = zMode.getCoordinate(p, p.zn, zo);
-          float b = level + contrast * stb_perlin_ridge_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, ridgeOffset, octaves);
-          this.colors[p.index] = LXColor.gray(clamp(b, 0, 100));
-        }
-      } else if (algorithm.equals(Algorithm.FBM)) {
-        for (LXPoint p : model.points) {
-          float xd = xMode.getCoordinate(p, p.xn, xo);
-          float yd = yMode.getCoordinate(p, p.yn, yo);
-          float zd = zMode.getCoordinate(p, p.zn, zo);
-          float b = level + contrast * stb_perlin_fbm_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, octaves);
-          this.colors[p.index] = LXColor.gray(clamp(b, 0, 100));
-        }
-      } else if (algorithm.equals(Algorithm.TURBULENCE)) {
-        for (LXPoint p : model.points) {
-          float xd = xMode.getCoordinate(p, p.xn, xo);
-          float yd = yMode.getCoordinate(p, p.yn, yo);
-          float zd = zMode.getCoordinate(p, p.zn, zo);
-          float b = level + contrast * stb_perlin_turbulence_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, octaves);
-          this.colors[p.index] = LXColor.gray(clamp(b, 0, 100));
-        }
+      break;
+    case RIDGE:
+      final float ridgeOffset = this.runRidgeOffset;
+      for (int i = startIndex; i < endIndex; ++i) {
+        float xd = xMode.getCoordinate(xn[i], rcn[i], xo);
+        float yd = yMode.getCoordinate(yn[i], rcn[i], yo);
+        float zd = zMode.getCoordinate(zn[i], rcn[i], zo);
+        float b = level + contrast * stb_perlin_ridge_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, ridgeOffset, octaves);
+        colors[indices[i]] = LXColor.gray(clamp(b, 0, 100));
       }
+      break;
+    case FBM:
+      for (int i = startIndex; i < endIndex; ++i) {
+        float xd = xMode.getCoordinate(xn[i], rcn[i], xo);
+        float yd = yMode.getCoordinate(yn[i], rcn[i], yo);
+        float zd = zMode.getCoordinate(zn[i], rcn[i], zo);
+        float b = level + contrast * stb_perlin_fbm_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, octaves);
+        colors[indices[i]] = LXColor.gray(clamp(b, 0, 100));
+      }
+      break;
+    case TURBULENCE:
+      for (int i = startIndex; i < endIndex; ++i) {
+        float xd = xMode.getCoordinate(xn[i], rcn[i], xo);
+        float yd = yMode.getCoordinate(yn[i], rcn[i], yo);
+        float zd = zMode.getCoordinate(zn[i], rcn[i], zo);
+        float b = level + contrast * stb_perlin_turbulence_noise3(xa + xs * xd, ya + ys * yd, za + zs * zd, lacunarity, gain, octaves);
+        colors[indices[i]] = LXColor.gray(clamp(b, 0, 100));
+      }
+      break;
+    default:
+      break;
     }
   }
 
   private void runStatic(double deltaMs) {
     float level = this.level.getValuef();
     float contrast = this.contrast.getValuef();
-    for (LXPoint p : model.points) {
+    for (int index : model.indices()) {
       float b = level + contrast * (-1 + 2 * (float) Math.random());
-      this.colors[p.index] = LXColor.gray(clamp(b, 0, 100));
+      this.colors[index] = LXColor.gray(clamp(b, 0, 100));
     }
   }
 
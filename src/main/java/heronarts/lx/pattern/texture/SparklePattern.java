@@ -131,6 +131,10 @@ public class SparklePattern extends LXPattern {
       .setDescription("Peak sparkle brightness level");
 
     public void setModel(LXModel model) {
+      // Sparkles address points by index, which all remain valid if the size is unchanged
+      if ((this.sparkleLevels != null) && (this.sparkleLevels.length == model.size)) {
+        return;
+      }
       this.sparkleLevels = new double[model.size];
       this.numSparkles = LXUtils.min(model.size, MAX_SPARKLES);
       this.pixelsPerSparkle = (int) Math.ceil(MAX_DENSITY * model.size / this.numSparkles);
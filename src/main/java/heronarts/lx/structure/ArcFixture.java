@@ -73,6 +73,11 @@ public class ArcFixture extends LXBasicFixture {
     addGeometryParameter("positionMode", this.positionMode);
   }
 
+  @Override
+  protected boolean isParallelGeometry() {
+    return true;
+  }
+
   @Override
   protected void computePointGeometry(LXMatrix transform, List<LXPoint> points) {
     float radius = this.radius.getValuef();
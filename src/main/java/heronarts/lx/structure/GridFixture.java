@@ -183,6 +183,11 @@ public class GridFixture extends LXProtocolFixture {
     return submodels;
   }
 
+  @Override
+  protected boolean isParallelGeometry() {
+    return true;
+  }
+
   @Override
   protected void computePointGeometry(LXMatrix matrix, List<LXPoint> points) {
     if (this.positionMode.getEnum() == PositionMode.CENTER) {
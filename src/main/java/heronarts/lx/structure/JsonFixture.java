@@ -19,15 +19,17 @@
 package heronarts.lx.structure;
 
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
@@ -54,6 +56,7 @@ import heronarts.lx.output.LXOutput;
 import heronarts.lx.output.OPCDatagram;
 import heronarts.lx.output.OPCSocket;
 import heronarts.lx.output.StreamingACNDatagram;
+import heronarts.lx.output.StreamingACNSyncDatagram;
 import heronarts.lx.parameter.BooleanParameter;
 import heronarts.lx.parameter.BoundedParameter;
 import heronarts.lx.parameter.DiscreteParameter;
@@ -127,6 +130,8 @@ public class JsonFixture extends LXFixture {
   private static final String KEY_DDP_DATA_OFFSET = "dataOffset";
   private static final String KEY_KINET_PORT = "kinetPort";
   private static final String KEY_OPC_CHANNEL = "channel";
+  private static final String KEY_MULTICAST = "multicast";
+  private static final String KEY_SYNC_ADDRESS = "syncAddress";
   private static final String KEY_START = "start";
   private static final String KEY_NUM = "num";
   private static final String KEY_STRIDE = "stride";
@@ -138,10 +143,14 @@ public class JsonFixture extends LXFixture {
 
   private static final String LABEL_PLACEHOLDER = "UNKNOWN";
 
+  // Highest valid E1.31 universe number
+  private static final int MAX_SACN_UNIVERSE = 63999;
+
   private enum ProtocolDefinition {
     ARTNET(KEY_UNIVERSE, "artnet", "artdmx"),
     ARTSYNC(null, "artsync"),
     SACN(KEY_UNIVERSE, "sacn", "e131"),
+    SACNSYNC(KEY_UNIVERSE, "sacnsync", "e131sync"),
     DDP(KEY_DDP_DATA_OFFSET, "ddp"),
     OPC(KEY_OPC_CHANNEL, "opc"),
     KINET(KEY_KINET_PORT, "kinet");
@@ -162,6 +171,14 @@ public class JsonFixture extends LXFixture {
       return (this == OPC);
     }
 
+    public boolean supportsMulticast() {
+      return (this == SACN) || (this == SACNSYNC);
+    }
+
+    public boolean isMulticastByDefault() {
+      return (this == SACNSYNC);
+    }
+
     private static ProtocolDefinition get(String key) {
       for (ProtocolDefinition protocol : values()) {
         for (String protocolKey : protocol.protocolKeys) {
@@ -350,18 +367,24 @@ public class JsonFixture extends LXFixture {
     private final ProtocolDefinition protocol;
     private final TransportDefinition transport;
     private final ByteOrderDefinition byteOrder;
+    private final String host;
     private final InetAddress address;
     private final int port;
     private final int universe;
+    private final boolean multicast;
+    private final int syncAddress;
     private final List<SegmentDefinition> segments;
 
-    private OutputDefinition(ProtocolDefinition protocol, TransportDefinition transport, ByteOrderDefinition byteOrder, InetAddress address, int port, int universe, List<SegmentDefinition> segments) {
+    private OutputDefinition(ProtocolDefinition protocol, TransportDefinition transport, ByteOrderDefinition byteOrder, String host, InetAddress address, int port, int universe, boolean multicast, int syncAddress, List<SegmentDefinition> segments) {
       this.protocol = protocol;
       this.transport = transport;
       this.byteOrder = byteOrder;
+      this.host = host;
       this.address = address;
       this.port = port;
       this.universe = universe;
+      this.multicast = multicast;
+      this.syncAddress = syncAddress;
       this.segments = segments;
     }
 
@@ -395,15 +418,14 @@ public class JsonFixture extends LXFixture {
     private final Map<String, String> metaData;
     private final String[] modelKeys;
 
-    private StripDefinition(int numPoints, float pointSpacing, LXVector origin, LXMatrix transform, List<OutputDefinition> outputs, Map<String, String> metaData, String[] modelKeys) {
-      this.index = size;
+    private StripDefinition(int index, int numPoints, float pointSpacing, LXVector origin, LXMatrix transform, List<OutputDefinition> outputs, Map<String, String> metaData, String[] modelKeys) {
+      this.index = index;
       this.numPoints = numPoints;
       this.pointSpacing = pointSpacing;
       this.transform = transform;
       this.outputs = outputs;
       this.metaData = metaData;
       this.modelKeys = modelKeys;
-      size += numPoints;
     }
   }
 
@@ -421,8 +443,8 @@ public class JsonFixture extends LXFixture {
     private final Map<String, String> metaData;
     private final String[] modelKeys;
 
-    private ArcDefinition(int numPoints, float radius, float degrees, boolean isCenter, LXMatrix transform, List<OutputDefinition> outputs, Map<String, String> metaData, String[] modelKeys) {
-      this.index = size;
+    private ArcDefinition(int index, int numPoints, float radius, float degrees, boolean isCenter, LXMatrix transform, List<OutputDefinition> outputs, Map<String, String> metaData, String[] modelKeys) {
+      this.index = index;
       this.numPoints = numPoints;
       this.radius = radius;
       this.degrees = degrees;
@@ -431,7 +453,6 @@ public class JsonFixture extends LXFixture {
       this.outputs = outputs;
       this.metaData = metaData;
       this.modelKeys = modelKeys;
-      size += numPoints;
     }
   }
 
@@ -472,6 +493,16 @@ public class JsonFixture extends LXFixture {
 
   private final Map<String, String> metaData = new HashMap<String, String>();
 
+  // Raw JSON of child fixture definitions, retained for the fixture cache
+  private final List<String> definedChildren = new ArrayList<String>();
+
+  // Warnings from evaluating this fixture's own definition, replayed from the cache
+  private final List<String> definitionWarnings = new ArrayList<String>();
+
+  // Whether an output host failed to resolve, which may be transient, so the
+  // definition is not cached without that output
+  private boolean hasUnresolvedHost = false;
+
   private int size = 0;
 
   private final JsonFixture jsonParameterContext;
@@ -574,6 +605,9 @@ public class JsonFixture extends LXFixture {
     this.definedArcs.clear();
     this.definedOutputs.clear();
     this.metaData.clear();
+    this.definedChildren.clear();
+    this.definitionWarnings.clear();
+    this.hasUnresolvedHost = false;
 
     // Clear the children
     for (LXFixture child : this.children) {
@@ -603,8 +637,26 @@ public class JsonFixture extends LXFixture {
       return;
     }
 
-    try (FileReader fr = new FileReader(fixtureFile)) {
-      JsonObject obj = new Gson().fromJson(fr, JsonObject.class);
+    byte[] fixtureBytes;
+    try {
+      fixtureBytes = Files.readAllBytes(fixtureFile.toPath());
+    } catch (IOException iox) {
+      setError(iox, "Error reading fixture from " + fixtureFile.getName() + ": " + iox.getLocalizedMessage());
+      return;
+    }
+
+    // A matching cache entry is trusted, no need to parse or evaluate the JSON
+    String cacheKey = null;
+    if (this.lx.flags.fixtureCache) {
+      cacheKey = getCacheKey(fixtureBytes, loadParameters);
+      JsonFixtureCache.Decoder decoder = JsonFixtureCache.get(this.lx, cacheKey);
+      if ((decoder != null) && loadCache(decoder, loadParameters)) {
+        return;
+      }
+    }
+
+    try {
+      JsonObject obj = new Gson().fromJson(new String(fixtureBytes), JsonObject.class);
 
       if (loadParameters) {
         loadLabel(obj);
@@ -623,6 +675,10 @@ public class JsonFixture extends LXFixture {
 
       loadMetaData(obj, this.metaData);
 
+      if ((cacheKey != null) && !this.error.isOn() && !this.hasUnresolvedHost) {
+        JsonFixtureCache.put(this.lx, cacheKey, saveCache(loadParameters));
+      }
+
     } catch (JsonParseException jpx) {
       String message = jpx.getLocalizedMessage();
       Throwable cause = jpx.getCause();
@@ -635,6 +691,391 @@ public class JsonFixture extends LXFixture {
     }
   }
 
+  private String getCacheKey(byte[] fixtureBytes, boolean loadParameters) {
+    JsonFixtureCache.Key key = new JsonFixtureCache.Key()
+      .update(this.fixtureType.getString())
+      .update(fixtureBytes)
+      .update(loadParameters)
+      .update(this.label.getString().equals(LABEL_PLACEHOLDER))
+      .update(this.jsonParameterValues.toString());
+    if (this.jsonParameterContext != this) {
+      // Child definitions are evaluated against the parent's parameters
+      updateCacheKey(key, this.jsonParameterContext.definedParameters);
+    }
+    updateCacheKey(key, loadParameters ? this.reloadParameterValues : this.definedParameters);
+    return key.toHex();
+  }
+
+  private static void updateCacheKey(JsonFixtureCache.Key key, Map<String, ParameterDefinition> parameters) {
+    key.update(parameters.size());
+    for (ParameterDefinition parameter : parameters.values()) {
+      key.update(parameter.name).update(parameter.type.ordinal());
+      switch (parameter.type) {
+      case FLOAT:
+        key.update(Float.floatToIntBits(parameter.floatParameter.getValuef()));
+        break;
+      case INT:
+        key.update(parameter.intParameter.getValuei());
+        break;
+      case STRING:
+        key.update(parameter.stringParameter.getString());
+        break;
+      case BOOLEAN:
+        key.update(parameter.booleanParameter.isOn());
+        break;
+      }
+    }
+  }
+
+  private JsonFixtureCache.Encoder saveCache(boolean loadParameters) {
+    JsonFixtureCache.Encoder encoder = new JsonFixtureCache.Encoder();
+    encoder.writeString(this.fixtureLabel);
+    saveCacheModelKeys(encoder, this.modelKeys);
+
+    encoder.writeInt(this.definedParameters.size());
+    for (ParameterDefinition parameter : this.definedParameters.values()) {
+      encoder
+        .writeString(parameter.name)
+        .writeString(parameter.label)
+        .writeString(parameter.description)
+        .writeInt(parameter.type.ordinal())
+        .writeBoolean(parameter.isReferenced);
+      switch (parameter.type) {
+      case FLOAT:
+        encoder.writeFloat(parameter.floatParameter.getValuef());
+        break;
+      case INT:
+        encoder
+          .writeInt(parameter.intParameter.getValuei())
+          .writeInt(parameter.intParameter.getMinValue())
+          .writeInt(parameter.intParameter.getMaxValue());
+        break;
+      case STRING:
+        encoder.writeString(parameter.stringParameter.getString());
+        break;
+      case BOOLEAN:
+        encoder.writeBoolean(parameter.booleanParameter.isOn());
+        break;
+      }
+    }
+
+    encoder.writeInt(this.definedPoints.size());
+    for (LXVector point : this.definedPoints) {
+      encoder.writeFloat(point.x).writeFloat(point.y).writeFloat(point.z);
+    }
+
+    encoder.writeInt(this.definedStrips.size());
+    for (StripDefinition strip : this.definedStrips) {
+      encoder
+        .writeInt(strip.numPoints)
+        .writeFloat(strip.pointSpacing)
+        .writeMatrix(strip.transform);
+      saveCacheOutputs(encoder, strip.outputs);
+      saveCacheMetaData(encoder, strip.metaData);
+      saveCacheModelKeys(encoder, strip.modelKeys);
+    }
+
+    encoder.writeInt(this.definedArcs.size());
+    for (ArcDefinition arc : this.definedArcs) {
+      encoder
+        .writeInt(arc.numPoints)
+        .writeFloat(arc.radius)
+        .writeFloat(arc.degrees)
+        .writeBoolean(arc.isCenter)
+        .writeMatrix(arc.transform);
+      saveCacheOutputs(encoder, arc.outputs);
+      saveCacheMetaData(encoder, arc.metaData);
+      saveCacheModelKeys(encoder, arc.modelKeys);
+    }
+
+    encoder.writeInt(this.definedChildren.size());
+    for (String child : this.definedChildren) {
+      encoder.writeString(child);
+    }
+
+    saveCacheOutputs(encoder, this.definedOutputs);
+    saveCacheMetaData(encoder, this.metaData);
+
+    encoder.writeInt(this.definitionWarnings.size());
+    for (String warning : this.definitionWarnings) {
+      encoder.writeString(warning);
+    }
+    return encoder;
+  }
+
+  private static void saveCacheModelKeys(JsonFixtureCache.Encoder encoder, String[] modelKeys) {
+    encoder.writeInt(modelKeys.length);
+    for (String modelKey : modelKeys) {
+      encoder.writeString(modelKey);
+    }
+  }
+
+  private static void saveCacheMetaData(JsonFixtureCache.Encoder encoder, Map<String, String> metaData) {
+    encoder.writeInt(metaData.size());
+    for (Map.Entry<String, String> entry : metaData.entrySet()) {
+      encoder.writeString(entry.getKey()).writeString(entry.getValue());
+    }
+  }
+
+  private static void saveCacheOutputs(JsonFixtureCache.Encoder encoder, List<OutputDefinition> outputs) {
+    encoder.writeInt(outputs.size());
+    for (OutputDefinition output : outputs) {
+      encoder
+        .writeInt(output.protocol.ordinal())
+        .writeInt(output.transport.ordinal())
+        .writeInt(output.byteOrder.ordinal())
+        .writeString(output.host)
+        .writeInt(output.port)
+        .writeInt(output.universe)
+        .writeBoolean(output.multicast)
+        .writeInt(output.syncAddress)
+        .writeInt(output.segments.size());
+      for (SegmentDefinition segment : output.segments) {
+        encoder
+          .writeInt(segment.start)
+          .writeInt(segment.num)
+          .writeInt(segment.stride)
+          .writeBoolean(segment.reverse)
+          .writeInt((segment.dynamicByteOrder != null) ? segment.dynamicByteOrder.ordinal() : -1);
+      }
+    }
+  }
+
+  /**
+   * Loads this fixture's definition from a cache entry. The whole entry is decoded
+   * before any of it is applied, so that an invalid entry falls back cleanly to
+   * loading from the JSON file.
+   *
+   * @param decoder Cache entry
+   * @param loadParameters Whether parameters are being loaded
+   * @return true if the cache entry was valid and loaded
+   */
+  private boolean loadCache(JsonFixtureCache.Decoder decoder, boolean loadParameters) {
+    List<ParameterDefinition> parameters = new ArrayList<ParameterDefinition>();
+    List<String> referencedParameters = new ArrayList<String>();
+    List<LXVector> points = new ArrayList<LXVector>();
+    List<StripDefinition> strips = new ArrayList<StripDefinition>();
+    List<ArcDefinition> arcs = new ArrayList<ArcDefinition>();
+    List<OutputDefinition> outputs = new ArrayList<OutputDefinition>();
+    Map<String, String> metaData = new HashMap<String, String>();
+    List<String> children = new ArrayList<String>();
+    List<String> warnings = new ArrayList<String>();
+    String fixtureLabel;
+    String[] modelKeys;
+    int size = this.size;
+
+    try {
+      fixtureLabel = decoder.readString();
+      modelKeys = loadCacheModelKeys(decoder);
+
+      int numParameters = decoder.readCount();
+      for (int i = 0; i < numParameters; ++i) {
+        String name = decoder.readString();
+        String label = decoder.readString();
+        String description = decoder.readString();
+        ParameterType type = ParameterType.values()[decoder.readInt()];
+        boolean isReferenced = decoder.readBoolean();
+        ParameterDefinition parameter = null;
+        switch (type) {
+        case FLOAT:
+          float floatValue = decoder.readFloat();
+          if (loadParameters) {
+            parameter = new ParameterDefinition(name, label, description, floatValue);
+          }
+          break;
+        case INT:
+          int intValue = decoder.readInt();
+          int minInt = decoder.readInt();
+          int maxInt = decoder.readInt();
+          if (loadParameters) {
+            parameter = new ParameterDefinition(name, label, description, intValue, minInt, maxInt);
+          }
+          break;
+        case STRING:
+          String stringValue = decoder.readString();
+          if (loadParameters) {
+            parameter = new ParameterDefinition(name, label, description, stringValue);
+          }
+          break;
+        case BOOLEAN:
+          boolean booleanValue = decoder.readBoolean();
+          if (loadParameters) {
+            parameter = new ParameterDefinition(name, label, description, booleanValue);
+          }
+          break;
+        }
+        if (parameter != null) {
+          parameter.isReferenced = isReferenced;
+          parameters.add(parameter);
+        } else if (isReferenced) {
+          referencedParameters.add(name);
+        }
+      }
+
+      int numPoints = decoder.readCount();
+      for (int i = 0; i < numPoints; ++i) {
+        points.add(new LXVector(decoder.readFloat(), decoder.readFloat(), decoder.readFloat()));
+      }
+      size += numPoints;
+
+      int numStrips = decoder.readCount();
+      for (int i = 0; i < numStrips; ++i) {
+        int stripPoints = decoder.readInt();
+        float spacing = decoder.readFloat();
+        LXMatrix transform = decoder.readMatrix();
+        List<OutputDefinition> stripOutputs = loadCacheOutputs(decoder);
+        Map<String, String> stripMetaData = loadCacheMetaData(decoder);
+        String[] stripModelKeys = loadCacheModelKeys(decoder);
+        strips.add(new StripDefinition(size, stripPoints, spacing, null, transform, stripOutputs, stripMetaData, stripModelKeys));
+        size += stripPoints;
+      }
+
+      int numArcs = decoder.readCount();
+      for (int i = 0; i < numArcs; ++i) {
+        int arcPoints = decoder.readInt();
+        float radius = decoder.readFloat();
+        float degrees = decoder.readFloat();
+        boolean isCenter = decoder.readBoolean();
+        LXMatrix transform = decoder.readMatrix();
+        List<OutputDefinition> arcOutputs = loadCacheOutputs(decoder);
+        Map<String, String> arcMetaData = loadCacheMetaData(decoder);
+        String[] arcModelKeys = loadCacheModelKeys(decoder);
+        arcs.add(new ArcDefinition(size, arcPoints, radius, degrees, isCenter, transform, arcOutputs, arcMetaData, arcModelKeys));
+        size += arcPoints;
+      }
+
+      int numChildren = decoder.readCount();
+      for (int i = 0; i < numChildren; ++i) {
+        children.add(decoder.readString());
+      }
+
+      outputs.addAll(loadCacheOutputs(decoder));
+      metaData.putAll(loadCacheMetaData(decoder));
+
+      int numWarnings = decoder.readCount();
+      for (int i = 0; i < numWarnings; ++i) {
+        warnings.add(decoder.readString());
+      }
+
+      if (!decoder.isComplete()) {
+        throw new IllegalStateException("Unexpected trailing data in JsonFixtureCache entry");
+      }
+    } catch (RuntimeException x) {
+      LX.error(x, "Invalid cache entry for fixture " + this.fixtureType.getString() + ".lxf, loading from JSON");
+      for (ParameterDefinition parameter : parameters) {
+        parameter.dispose();
+      }
+      return false;
+    }
+
+    // Apply everything in the same order as loading from JSON
+    if (loadParameters) {
+      setFixtureLabel(fixtureLabel);
+      this.modelKeys = modelKeys;
+      for (ParameterDefinition parameter : parameters) {
+        addJsonParameter(parameter);
+      }
+      this.parametersReloaded.bang();
+    } else {
+      for (String name : referencedParameters) {
+        ParameterDefinition parameter = this.definedParameters.get(name);
+        if (parameter != null) {
+          parameter.isReferenced = true;
+        }
+      }
+    }
+    for (String warning : warnings) {
+      addWarning(warning);
+    }
+    this.definedPoints.addAll(points);
+    this.size = size;
+    for (StripDefinition strip : strips) {
+      resolveCacheOutputs(strip.outputs);
+      this.definedStrips.add(strip);
+    }
+    for (ArcDefinition arc : arcs) {
+      resolveCacheOutputs(arc.outputs);
+      this.definedArcs.add(arc);
+    }
+    Gson gson = new Gson();
+    for (String child : children) {
+      int numWarnings = this.definitionWarnings.size();
+      loadChild(gson.fromJson(child, JsonObject.class));
+      this.definitionWarnings.subList(numWarnings, this.definitionWarnings.size()).clear();
+      this.definedChildren.add(child);
+    }
+    resolveCacheOutputs(outputs);
+    this.definedOutputs.addAll(outputs);
+    this.metaData.putAll(metaData);
+    return true;
+  }
+
+  private static String[] loadCacheModelKeys(JsonFixtureCache.Decoder decoder) {
+    String[] modelKeys = new String[decoder.readCount()];
+    for (int i = 0; i < modelKeys.length; ++i) {
+      modelKeys[i] = decoder.readString();
+    }
+    return modelKeys;
+  }
+
+  private static Map<String, String> loadCacheMetaData(JsonFixtureCache.Decoder decoder) {
+    Map<String, String> metaData = new HashMap<String, String>();
+    int numEntries = decoder.readCount();
+    for (int i = 0; i < numEntries; ++i) {
+      metaData.put(decoder.readString(), decoder.readString());
+    }
+    return metaData;
+  }
+
+  private List<OutputDefinition> loadCacheOutputs(JsonFixtureCache.Decoder decoder) {
+    List<OutputDefinition> outputs = new ArrayList<OutputDefinition>();
+    int numOutputs = decoder.readCount();
+    for (int i = 0; i < numOutputs; ++i) {
+      ProtocolDefinition protocol = ProtocolDefinition.values()[decoder.readInt()];
+      TransportDefinition transport = TransportDefinition.values()[decoder.readInt()];
+      ByteOrderDefinition byteOrder = ByteOrderDefinition.values()[decoder.readInt()];
+      String host = decoder.readString();
+      int port = decoder.readInt();
+      int universe = decoder.readInt();
+      boolean multicast = decoder.readBoolean();
+      int syncAddress = decoder.readInt();
+      List<SegmentDefinition> segments = new ArrayList<SegmentDefinition>();
+      int numSegments = decoder.readCount();
+      for (int s = 0; s < numSegments; ++s) {
+        int start = decoder.readInt();
+        int num = decoder.readInt();
+        int stride = decoder.readInt();
+        boolean reverse = decoder.readBoolean();
+        int dynamicByteOrder = decoder.readInt();
+        segments.add(new SegmentDefinition(start, num, stride, reverse, (dynamicByteOrder >= 0) ? ByteOrderDefinition.values()[dynamicByteOrder] : null));
+      }
+      // Host names are resolved once the entry is applied, the cache only holds
+      // what was in the file
+      outputs.add(new OutputDefinition(protocol, transport, byteOrder, host, null, port, universe, multicast, syncAddress, segments));
+    }
+    return outputs;
+  }
+
+  // Resolves the hosts of decoded cache outputs in place, dropping any that fail
+  // just as loading from JSON does
+  private void resolveCacheOutputs(List<OutputDefinition> outputs) {
+    ListIterator<OutputDefinition> iter = outputs.listIterator();
+    while (iter.hasNext()) {
+      OutputDefinition output = iter.next();
+      if (output.host.isEmpty()) {
+        // Multicast outputs need not specify a host
+        continue;
+      }
+      try {
+        iter.set(new OutputDefinition(output.protocol, output.transport, output.byteOrder, output.host, InetAddress.getByName(output.host), output.port, output.universe, output.multicast, output.syncAddress, output.segments));
+      } catch (UnknownHostException uhx) {
+        this.hasUnresolvedHost = true;
+        addWarning("Cannot send output to invalid host: " + output.host);
+        iter.remove();
+      }
+    }
+  }
+
   private void setError(String error) {
     setError(null, error);
   }
@@ -646,6 +1087,7 @@ public class JsonFixture extends LXFixture {
   }
 
   private void addWarning(String warning) {
+    this.definitionWarnings.add(warning);
     this.warnings.add(warning);
     if (this.warning.isOn()) {
       this.warning.bang();
@@ -879,22 +1321,30 @@ public class JsonFixture extends LXFixture {
     }
   }
 
+  private String fixtureLabel = null;
+
   private void loadLabel(JsonObject obj) {
+    this.fixtureLabel = null;
     // Don't reload this if the user has renamed it
     if (!this.label.getString().equals(LABEL_PLACEHOLDER)) {
       return;
     }
-    String validLabel = this.fixtureType.getString();
     String testLabel = loadString(obj, KEY_LABEL, false, KEY_LABEL + " should contain a string");
     if (testLabel != null) {
       testLabel = testLabel.trim();
       if (testLabel.isEmpty()) {
         addWarning(KEY_LABEL + " should contain a non-empty string");
-      } else {
-        validLabel = testLabel;
+        testLabel = null;
       }
     }
-    this.label.setValue(validLabel);
+    setFixtureLabel(testLabel);
+  }
+
+  private void setFixtureLabel(String fixtureLabel) {
+    this.fixtureLabel = fixtureLabel;
+    if (this.label.getString().equals(LABEL_PLACEHOLDER)) {
+      this.label.setValue((fixtureLabel != null) ? fixtureLabel : this.fixtureType.getString());
+    }
   }
 
   private String[] loadModelKeys(JsonObject obj, boolean required, boolean includeParent, String ... defaultKeys) {
@@ -1142,7 +1592,8 @@ public class JsonFixture extends LXFixture {
     Map<String, String> stripMetaData = new HashMap<String, String>();
     loadMetaData(stripObj, stripMetaData);
 
-    this.definedStrips.add(new StripDefinition(numPoints, spacing, origin, transform, outputs, stripMetaData, modelKeys));
+    this.definedStrips.add(new StripDefinition(this.size, numPoints, spacing, origin, transform, outputs, stripMetaData, modelKeys));
+    this.size += numPoints;
   }
 
   private void loadArcs(JsonObject obj) {
@@ -1245,7 +1696,8 @@ public class JsonFixture extends LXFixture {
     Map<String, String> arcMetaData = new HashMap<String, String>();
     loadMetaData(arcObj, arcMetaData);
 
-    this.definedArcs.add(new ArcDefinition(numPoints, radius, degrees, isCenter, transform, outputs, arcMetaData, modelKeys));
+    this.definedArcs.add(new ArcDefinition(this.size, numPoints, radius, degrees, isCenter, transform, outputs, arcMetaData, modelKeys));
+    this.size += numPoints;
   }
 
   private void loadChildren(JsonObject obj) {
@@ -1255,7 +1707,11 @@ public class JsonFixture extends LXFixture {
     }
     for (JsonElement childElem : childrenArr) {
       if (childElem.isJsonObject()) {
+        // Child warnings are raised again when loading children from the cache
+        int numWarnings = this.definitionWarnings.size();
         loadChild(childElem.getAsJsonObject());
+        this.definitionWarnings.subList(numWarnings, this.definitionWarnings.size()).clear();
+        this.definedChildren.add(childElem.toString());
       } else if (!childElem.isJsonNull()) {
         addWarning(KEY_CHILDREN + " should only contain childd elements in JSON object format, found invalid: " + childElem);
       }
@@ -1333,17 +1789,31 @@ public class JsonFixture extends LXFixture {
       }
     }
 
-    String host = loadString(outputObj, KEY_HOST, true, "Output must specify a valid host");
-    if (host.isEmpty()) {
-      addWarning("Output must define a valid, non-empty host");
-      return;
+    boolean multicast = protocol.isMulticastByDefault();
+    if (outputObj.has(KEY_MULTICAST)) {
+      if (protocol.supportsMulticast()) {
+        multicast = loadBoolean(outputObj, KEY_MULTICAST, true, "Output " + KEY_MULTICAST + " must be a valid boolean");
+      } else {
+        addWarning("Protocol " + protocol + " does not support " + KEY_MULTICAST + ", will be ignored");
+      }
     }
-    InetAddress address;
-    try {
-      address = InetAddress.getByName(host);
-    } catch (UnknownHostException uhx) {
-      addWarning("Cannot send output to invalid host: " + host);
-      return;
+
+    // Multicast outputs send to the address of their universe, a host is optional
+    String host = "";
+    InetAddress address = null;
+    if (!multicast || outputObj.has(KEY_HOST)) {
+      host = loadString(outputObj, KEY_HOST, true, "Output must specify a valid host");
+      if ((host == null) || host.isEmpty()) {
+        addWarning("Output must define a valid, non-empty host");
+        return;
+      }
+      try {
+        address = InetAddress.getByName(host);
+      } catch (UnknownHostException uhx) {
+        this.hasUnresolvedHost = true;
+        addWarning("Cannot send output to invalid host: " + host);
+        return;
+      }
     }
 
     int port = OutputDefinition.DEFAULT_PORT;
@@ -1365,6 +1835,19 @@ public class JsonFixture extends LXFixture {
       return;
     }
 
+    int syncAddress = 0;
+    if (outputObj.has(KEY_SYNC_ADDRESS)) {
+      if (protocol == ProtocolDefinition.SACN) {
+        syncAddress = loadInt(outputObj, KEY_SYNC_ADDRESS, true, "Output " + KEY_SYNC_ADDRESS + " must be a valid integer");
+        if (syncAddress < 0 || syncAddress > MAX_SACN_UNIVERSE) {
+          addWarning("Output " + KEY_SYNC_ADDRESS + " must be in range [0, " + MAX_SACN_UNIVERSE + "]: " + syncAddress);
+          syncAddress = 0;
+        }
+      } else {
+        addWarning("Protocol " + protocol + " does not support " + KEY_SYNC_ADDRESS + ", will be ignored");
+      }
+    }
+
     // Top level output byte-order
     ByteOrderDefinition byteOrder = loadByteOrder(outputObj, ByteOrderDefinition.RGB);
 
@@ -1372,7 +1855,7 @@ public class JsonFixture extends LXFixture {
     List<SegmentDefinition> segments = new ArrayList<SegmentDefinition>();
     loadSegments(segments, outputObj, byteOrder);
 
-    outputs.add(new OutputDefinition(protocol, transport, byteOrder, address, port, universe, segments));
+    outputs.add(new OutputDefinition(protocol, transport, byteOrder, host, address, port, universe, multicast, syncAddress, segments));
   }
 
   private void loadMetaData(JsonObject obj, Map<String, String> metaData) {
@@ -1481,6 +1964,11 @@ public class JsonFixture extends LXFixture {
     geometryMatrix.scale(this.scale.getValuef());
   }
 
+  @Override
+  protected boolean isParallelGeometry() {
+    return true;
+  }
+
   @Override
   protected void computePointGeometry(LXMatrix matrix, List<LXPoint> points) {
     int i = 0;
@@ -1548,6 +2036,10 @@ public class JsonFixture extends LXFixture {
       buildArtSyncDatagram(output);
       return;
     }
+    if (output.protocol == ProtocolDefinition.SACNSYNC) {
+      buildStreamingACNSyncDatagram(output);
+      return;
+    }
 
     boolean hasDynamicByteOrder = false;
 
@@ -1617,7 +2109,9 @@ public class JsonFixture extends LXFixture {
       if (dataLength > StreamingACNDatagram.MAX_DATA_LENGTH) {
         addWarning("Streaming ACN / E1.31 packet using noncompliant size: " + dataLength + ">" + StreamingACNDatagram.MAX_DATA_LENGTH);
       }
-      bufferOutput = new StreamingACNDatagram(this.lx, indexBuffer, outputByteOrder, output.universe);
+      bufferOutput = new StreamingACNDatagram(this.lx, indexBuffer, outputByteOrder, output.universe)
+        .setSyncAddress(output.syncAddress)
+        .setMulticast(output.multicast);
       break;
     case DDP:
       if (outputByteOrder != LXBufferOutput.ByteOrder.RGB) {
@@ -1643,6 +2137,7 @@ public class JsonFixture extends LXFixture {
       }
       break;
     case ARTSYNC:
+    case SACNSYNC:
     default:
       // Already handled above
       break;
@@ -1672,6 +2167,20 @@ public class JsonFixture extends LXFixture {
     addOutput(artSync);
   }
 
+  private void buildStreamingACNSyncDatagram(OutputDefinition output) {
+    if (output.universe < 1 || output.universe > MAX_SACN_UNIVERSE) {
+      addWarning("Streaming ACN / E1.31 sync " + KEY_UNIVERSE + " must be in range [1, " + MAX_SACN_UNIVERSE + "]: " + output.universe);
+      return;
+    }
+    StreamingACNSyncDatagram sacnSync = new StreamingACNSyncDatagram(this.lx, output.universe);
+    if (output.port != OutputDefinition.DEFAULT_PORT) {
+      sacnSync.setPort(output.port);
+    }
+    sacnSync.setAddress(output.address);
+    sacnSync.setMulticast(output.multicast);
+    addOutput(sacnSync);
+  }
+
   @Override
   protected Submodel[] toSubmodels() {
     List<Submodel> submodels = new ArrayList<Submodel>();
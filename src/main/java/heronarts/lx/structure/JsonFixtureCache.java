@@ -0,0 +1,312 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.structure;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import heronarts.lx.LX;
+import heronarts.lx.transform.LXMatrix;
+
+/**
+ * Binary cache of compiled JSON fixture definitions. Each entry is keyed by a
+ * SHA-256 hash of the fixture file contents along with every parameter value that
+ * its evaluation depends upon. When the hash matches, the entry is trusted and
+ * read from a memory-mapped file, without parsing the JSON or evaluating any of
+ * its expressions. Entries are only written when a fixture loads without error.
+ */
+class JsonFixtureCache {
+
+  /**
+   * Bump this whenever the encoding or the semantics of fixture evaluation change,
+   * so that stale entries are no longer matched
+   */
+  private static final int VERSION = 2;
+
+  private static final int MAGIC = 0x4c584643;
+
+  private static final String FILE_EXTENSION = ".lxc";
+
+  // Recently used entries are kept in memory, a project will often use the
+  // same fixture many times over
+  private static final int MAX_MEMORY_ENTRIES = 256;
+
+  // Every distinct set of parameter values produces an entry, the least recently
+  // used are removed from disk beyond this limit
+  private static final int MAX_DISK_ENTRIES = 4096;
+
+  @SuppressWarnings("serial")
+  private static final Map<String, ByteBuffer> memory = Collections.synchronizedMap(
+    new LinkedHashMap<String, ByteBuffer>(16, .75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ByteBuffer> eldest) {
+        return size() > MAX_MEMORY_ENTRIES;
+      }
+    }
+  );
+
+  static class Key {
+
+    private final MessageDigest digest;
+
+    Key() {
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException nsax) {
+        throw new IllegalStateException("SHA-256 is not available for JsonFixtureCache", nsax);
+      }
+      update(VERSION);
+    }
+
+    Key update(byte[] bytes) {
+      update(bytes.length);
+      this.digest.update(bytes);
+      return this;
+    }
+
+    Key update(String str) {
+      if (str == null) {
+        return update(-1);
+      }
+      return update(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Key update(int value) {
+      this.digest.update(new byte[] {
+        (byte) (value >>> 24),
+        (byte) (value >>> 16),
+        (byte) (value >>> 8),
+        (byte) value
+      });
+      return this;
+    }
+
+    Key update(boolean value) {
+      this.digest.update((byte) (value ? 1 : 0));
+      return this;
+    }
+
+    String toHex() {
+      StringBuilder hex = new StringBuilder();
+      for (byte b : this.digest.digest()) {
+        hex.append(String.format("%02x", b & 0xff));
+      }
+      return hex.toString();
+    }
+  }
+
+  static class Encoder {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(this.bytes);
+
+    Encoder() {
+      writeInt(MAGIC);
+      writeInt(VERSION);
+    }
+
+    Encoder writeInt(int value) {
+      try {
+        this.output.writeInt(value);
+      } catch (IOException iox) {
+        throw new IllegalStateException("ByteArrayOutputStream should not throw", iox);
+      }
+      return this;
+    }
+
+    Encoder writeFloat(float value) {
+      return writeInt(Float.floatToIntBits(value));
+    }
+
+    Encoder writeBoolean(boolean value) {
+      return writeInt(value ? 1 : 0);
+    }
+
+    Encoder writeString(String str) {
+      if (str == null) {
+        return writeInt(-1);
+      }
+      byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+      writeInt(utf8.length);
+      this.bytes.write(utf8, 0, utf8.length);
+      return this;
+    }
+
+    Encoder writeMatrix(LXMatrix m) {
+      writeFloat(m.m11).writeFloat(m.m12).writeFloat(m.m13).writeFloat(m.m14);
+      writeFloat(m.m21).writeFloat(m.m22).writeFloat(m.m23).writeFloat(m.m24);
+      writeFloat(m.m31).writeFloat(m.m32).writeFloat(m.m33).writeFloat(m.m34);
+      writeFloat(m.m41).writeFloat(m.m42).writeFloat(m.m43).writeFloat(m.m44);
+      return this;
+    }
+
+    private byte[] toByteArray() {
+      return this.bytes.toByteArray();
+    }
+  }
+
+  static class Decoder {
+
+    private final ByteBuffer buffer;
+
+    private Decoder(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    int readInt() {
+      return this.buffer.getInt();
+    }
+
+    float readFloat() {
+      return this.buffer.getFloat();
+    }
+
+    boolean readBoolean() {
+      return this.buffer.getInt() != 0;
+    }
+
+    String readString() {
+      int length = this.buffer.getInt();
+      if (length < 0) {
+        return null;
+      }
+      if (length > this.buffer.remaining()) {
+        throw new BufferUnderflowException();
+      }
+      byte[] utf8 = new byte[length];
+      this.buffer.get(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    LXMatrix readMatrix() {
+      float[] m = new float[16];
+      for (int i = 0; i < m.length; ++i) {
+        m[i] = readFloat();
+      }
+      return new LXMatrix(m);
+    }
+
+    /**
+     * Reads a count value, which must be non-negative and no larger than the
+     * remaining data could possibly hold
+     *
+     * @return Count of items that follow
+     */
+    int readCount() {
+      int count = this.buffer.getInt();
+      if ((count < 0) || (count > this.buffer.remaining())) {
+        throw new IllegalStateException("Invalid count in JsonFixtureCache entry: " + count);
+      }
+      return count;
+    }
+
+    boolean isComplete() {
+      return !this.buffer.hasRemaining();
+    }
+  }
+
+  private static File getFile(LX lx, String key, boolean create) {
+    return new File(lx.getMediaFolder(LX.Media.CACHE, create), key + FILE_EXTENSION);
+  }
+
+  /**
+   * Looks up a cached entry, first in memory and then on disk
+   *
+   * @param lx LX instance
+   * @param key Hex hash of the cache key
+   * @return Decoder positioned after the entry header, or null on a miss
+   */
+  static Decoder get(LX lx, String key) {
+    ByteBuffer buffer = memory.get(key);
+    if (buffer == null) {
+      File file = getFile(lx, key, false);
+      if (!file.isFile()) {
+        return null;
+      }
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (IOException iox) {
+        LX.error(iox, "Could not map fixture cache file, ignoring: " + file);
+        return null;
+      }
+      // Keep recently used entries on disk when pruning
+      file.setLastModified(System.currentTimeMillis());
+      memory.put(key, buffer);
+    }
+    buffer = buffer.duplicate();
+    if ((buffer.remaining() < 8) || (buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+      memory.remove(key);
+      return null;
+    }
+    return new Decoder(buffer);
+  }
+
+  /**
+   * Stores an encoded entry in memory, and writes it to disk
+   *
+   * @param lx LX instance
+   * @param key Hex hash of the cache key
+   * @param encoder Encoded entry
+   */
+  static void put(LX lx, String key, Encoder encoder) {
+    byte[] bytes = encoder.toByteArray();
+    memory.put(key, ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+
+    File file = getFile(lx, key, true);
+    File tmp = new File(file.getParentFile(), key + ".tmp");
+    try {
+      // Written to the side and moved into place, so a partial file is never matched
+      Files.write(tmp.toPath(), bytes);
+      Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException iox) {
+      LX.error(iox, "Could not write fixture cache file: " + file);
+      tmp.delete();
+      return;
+    }
+    prune(file.getParentFile());
+  }
+
+  private static void prune(File folder) {
+    File[] files = folder.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+    if ((files == null) || (files.length <= MAX_DISK_ENTRIES)) {
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    for (int i = 0; i < files.length - MAX_DISK_ENTRIES; ++i) {
+      files[i].delete();
+    }
+  }
+
+}
@@ -281,7 +281,9 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
     child.parentTransformMatrix.set(this.geometryMatrix);
 
     if (generateFirst) {
-      child.regenerate();
+      // No need for geometry yet, this child's parent is about to regenerate its
+      // whole tree
+      child.regenerate(false);
     }
 
     // It's acceptable to remove and re-add a child to the same container
@@ -308,6 +310,8 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
 
   // Invoked when a child fixture has been altered
   public final void fixtureGenerationChanged(LXFixture fixture) {
+    // Our model contains the child's, it will need to be rebuilt
+    this.model = null;
     if (this.container != null) {
       this.container.fixtureGenerationChanged(fixture);
     }
@@ -582,6 +586,10 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
    * this fixture's generation
    */
   protected final void regenerate() {
+    regenerate(true);
+  }
+
+  private void regenerate(boolean regenerateGeometry) {
     // We may have a totally new size, blow out the points array and rebuild
     int numPoints = size();
     this.mutablePoints.clear();
@@ -601,7 +609,10 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
     // Regenerate our geometry, note that we bypass regenerateGeometry()
     // here because we don't need to notify our container about the change. We're
     // going to notify them after this of even more substantive generation change.
-    _regenerateGeometry();
+    // During a bulk load, the structure generates all geometry at once afterwards.
+    if (regenerateGeometry && !deferGeometry()) {
+      _regenerateGeometry();
+    }
 
     // Rebuild output objects
     regenerateOutputs();
@@ -618,6 +629,62 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
    */
   protected void beforeRegenerate() {}
 
+  private boolean deferGeometry() {
+    LXFixture fixture = this;
+    while (fixture.container instanceof LXFixture) {
+      fixture = (LXFixture) fixture.container;
+    }
+    if (fixture.container instanceof LXStructure) {
+      return ((LXStructure) fixture.container).deferGeometry(fixture);
+    }
+    return false;
+  }
+
+  /**
+   * Generates the geometry of this fixture and all of its children after it was
+   * deferred. Package-level access, should only ever be called by LXStructure, which
+   * may do so concurrently for distinct fixtures if isParallelGeometry() holds for
+   * every fixture in their trees.
+   */
+  final void regenerateDeferredGeometry() {
+    _regenerateGeometry();
+  }
+
+  /**
+   * Whether the geometry of this fixture and all of its children may be generated
+   * on a worker thread, concurrently with other fixtures.
+   *
+   * @return true if every fixture in this tree opts in to parallel geometry
+   */
+  final boolean isParallelGeometryTree() {
+    if (!isParallelGeometry()) {
+      return false;
+    }
+    for (LXFixture child : this.children) {
+      if (!child.isParallelGeometryTree()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Subclasses may override this to opt in to parallel geometry generation. When a
+   * project is loaded, the geometry of fixtures that opt in is generated on worker
+   * threads of the render pool, concurrently with other fixtures. This requires that
+   * computeGeometryMatrix() and computePointGeometry() only read this fixture's own
+   * parameters and state, and only modify the matrix and points they are passed.
+   * Fixtures that do not opt in are generated on the loading thread.
+   *
+   * Subclasses of a fixture that opts in must return false if their overrides do not
+   * meet these requirements.
+   *
+   * @return true if this fixture's geometry may be generated on a worker thread
+   */
+  protected boolean isParallelGeometry() {
+    return false;
+  }
+
   private void regenerateGeometry() {
     _regenerateGeometry();
     if (this.container != null) {
@@ -681,6 +748,10 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
    * fixture any time its geometry parameters have changed. The correct number of points
    * will have already been computed, and merely need to have their positions set.
    *
+   * This is normally invoked on the engine thread. If isParallelGeometry() returns
+   * true, it may also be invoked on a worker thread during project load, concurrently
+   * with other fixtures.
+   *
    * @param transform A transform matrix representing the fixture's position
    * @param points The list of points that need to have their positions set
    */
@@ -718,21 +789,36 @@ public abstract class LXFixture extends LXComponent implements LXFixtureContaine
 
     // Only update index buffers and outputs if any indices were changed
     if (somethingChanged) {
+      // The deep-copied model points carry the old indices, a new model is needed
+      this.model = null;
       for (DynamicIndexBuffer dynamicIndexBuffer : this.dynamicIndexBuffers) {
         dynamicIndexBuffer.update();
       }
       reindexOutputs();
+
+      // After reindexOutputs(), which may have modified index buffers in place
+      for (LXOutput output : this.outputs) {
+        if (output instanceof LXBufferOutput) {
+          ((LXBufferOutput) output).indexBufferChanged();
+        }
+      }
     }
 
     return somethingChanged;
   }
 
   /**
-   * Constructs an LXModel object for this Fixture
+   * Constructs an LXModel object for this Fixture. The previously constructed model
+   * is returned if neither this fixture's generation nor its point indices have
+   * changed since, so that unchanged fixtures are not rebuilt.
    *
    * @return Model representation of this fixture
    */
   final LXModel toModel() {
+    if (this.model != null) {
+      return this.model;
+    }
+
     // Creating a new model, clear our set of points
     this.modelPoints.clear();
 
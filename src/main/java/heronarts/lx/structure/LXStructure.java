@@ -26,8 +26,10 @@ import java.io.IOException;
 import java.net.SocketException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -95,6 +97,7 @@ public class LXStructure extends LXComponent implements LXFixtureContainer {
   public interface ModelListener {
     public void structureChanged(LXModel model);
     public void structureGenerationChanged(LXModel model);
+    public void structureRangeChanged(LXModel model, int start, int length);
   }
 
   // Internal implementation only
@@ -552,6 +555,8 @@ public class LXStructure extends LXComponent implements LXFixtureContainer {
       return;
     }
 
+    // Fixtures whose generation and point indices are unchanged return their
+    // existing models here, only the others are rebuilt
     LXModel[] submodels = new LXModel[this.fixtures.size()];
     int pointIndex = 0;
     int fixtureIndex = 0;
@@ -561,8 +566,22 @@ public class LXStructure extends LXComponent implements LXFixtureContainer {
       pointIndex += fixtureModel.size;
       submodels[fixtureIndex++] = fixtureModel;
     }
+
+    // Points preceding the first differing fixture keep their indices
+    int start = 0;
+    for (int i = 0; i < submodels.length && i < this.model.children.length; ++i) {
+      if (submodels[i] != this.model.children[i]) {
+        break;
+      }
+      start += submodels[i].size;
+    }
+
+    // A new root model is always constructed, even if a single fixture was rebuilt
+    // with the same number of points. Submodels are held onto by model components,
+    // views and the engine's model outputs, which are only notified of a new model.
     this.model = new LXModel(submodels).normalizePoints();
     this.modelListener.structureChanged(this.model);
+    this.modelListener.structureRangeChanged(this.model, start, this.model.size - start);
 
     if (this.modelFile != null) {
       this.modelName.setValue(this.modelFile.getName() + "*");
@@ -586,6 +605,39 @@ public class LXStructure extends LXComponent implements LXFixtureContainer {
 
   private boolean isLoading = false;
 
+  // Top-level fixtures whose geometry generation is deferred until the end of a bulk load
+  private final Set<LXFixture> deferredGeometry = new LinkedHashSet<LXFixture>();
+
+  private boolean isDeferringGeometry = false;
+
+  boolean deferGeometry(LXFixture fixture) {
+    if (this.isDeferringGeometry) {
+      this.deferredGeometry.add(fixture);
+      return true;
+    }
+    return false;
+  }
+
+  private void regenerateDeferredGeometry() {
+    // Fixture geometry is independent, so fixtures that opt in are fanned out across
+    // the render pool, and the rest are generated on this thread. Indexing and model
+    // assembly happen afterwards, in order, on this thread.
+    List<Runnable> tasks = new ArrayList<Runnable>(this.deferredGeometry.size());
+    List<LXFixture> serial = new ArrayList<LXFixture>();
+    for (LXFixture fixture : this.deferredGeometry) {
+      if (fixture.isParallelGeometryTree()) {
+        tasks.add(fixture::regenerateDeferredGeometry);
+      } else {
+        serial.add(fixture);
+      }
+    }
+    this.deferredGeometry.clear();
+    for (LXFixture fixture : serial) {
+      fixture.regenerateDeferredGeometry();
+    }
+    this.lx.engine.renderPool.invokeAll(tasks);
+  }
+
   private static final String KEY_FIXTURES = "fixtures";
   private static final String KEY_STATIC_MODEL = "staticModel";
   private static final String KEY_FILE = "file";
@@ -661,15 +713,22 @@ public class LXStructure extends LXComponent implements LXFixtureContainer {
 
   private void loadFixtures(LX lx, JsonObject obj) {
     if (obj.has(KEY_FIXTURES)) {
-      for (JsonElement fixtureElement : obj.getAsJsonArray(KEY_FIXTURES)) {
-        JsonObject fixtureObj = fixtureElement.getAsJsonObject();
-        try {
-          LXFixture fixture = this.lx.instantiateFixture(fixtureObj.get(KEY_CLASS).getAsString());
-          fixture.load(lx, fixtureObj);
-          addFixture(fixture);
-        } catch (LX.InstantiationException x) {
-          LX.error(x, "Could not instantiate fixture " + fixtureObj.toString());
+      // While loading, point geometry is generated for all the fixtures at once
+      this.isDeferringGeometry = this.isLoading;
+      try {
+        for (JsonElement fixtureElement : obj.getAsJsonArray(KEY_FIXTURES)) {
+          JsonObject fixtureObj = fixtureElement.getAsJsonObject();
+          try {
+            LXFixture fixture = this.lx.instantiateFixture(fixtureObj.get(KEY_CLASS).getAsString());
+            fixture.load(lx, fixtureObj);
+            addFixture(fixture);
+          } catch (LX.InstantiationException x) {
+            LX.error(x, "Could not instantiate fixture " + fixtureObj.toString());
+          }
         }
+      } finally {
+        this.isDeferringGeometry = false;
+        regenerateDeferredGeometry();
       }
     }
   }
@@ -31,6 +31,11 @@ public class PointFixture extends LXBasicFixture {
     super(lx, "Point");
   }
 
+  @Override
+  protected boolean isParallelGeometry() {
+    return true;
+  }
+
   @Override
   protected void computePointGeometry(LXMatrix transform, List<LXPoint> points) {
     for (LXPoint p : points) {
@@ -45,6 +45,11 @@ public class StripFixture extends LXBasicFixture {
     addGeometryParameter("spacing", this.spacing);
   }
 
+  @Override
+  protected boolean isParallelGeometry() {
+    return true;
+  }
+
   @Override
   protected void computePointGeometry(LXMatrix transform, List<LXPoint> points) {
     float spacing = this.spacing.getValuef();
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.utils;
+
+import java.util.Arrays;
+
+/**
+ * A rolling histogram of durations in nanoseconds, with log-linear buckets in the
+ * style of an HDR histogram. Each power of two is split into 8 linear buckets, so
+ * reported values are within ~12% of the true value, from 1 microsecond up to about
+ * a minute. The histogram covers a rolling window made up of a few time slices. Once
+ * a slice is older than the window it is cleared and reused.
+ *
+ * Recording never allocates and is intended to be called by a single thread at a time.
+ * Queries may be made from any thread, though they may observe a recording in progress.
+ */
+public class LatencyHistogram {
+
+  /**
+   * Default length of time covered by each slice of the rolling window
+   */
+  public static final long DEFAULT_SLICE_NANOS = 2500000000L;
+
+  private static final int NUM_SLICES = 4;
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  // Values below 2^MIN_MAGNITUDE ns (~1us) all fall into the first bucket
+  private static final int MIN_MAGNITUDE = 10;
+
+  // Values above 2^MAX_MAGNITUDE ns (~68s) all fall into the last buckets
+  private static final int MAX_MAGNITUDE = 36;
+
+  private static final int NUM_BUCKETS = 1 + (MAX_MAGNITUDE - MIN_MAGNITUDE + 1) * SUB_BUCKETS;
+
+  private final int[][] counts = new int[NUM_SLICES][NUM_BUCKETS];
+  private final int[] sliceCount = new int[NUM_SLICES];
+  private final long[] sliceSum = new long[NUM_SLICES];
+  private final long[] sliceMax = new long[NUM_SLICES];
+
+  private final long sliceNanos;
+
+  private int slice = 0;
+  private long sliceStart;
+  private boolean hasStarted = false;
+
+  private long last = 0;
+
+  public LatencyHistogram() {
+    this(DEFAULT_SLICE_NANOS);
+  }
+
+  /**
+   * Constructs a histogram with a given slice length, the total rolling window
+   * covers a few slices.
+   *
+   * @param sliceNanos Length of each slice in nanoseconds
+   */
+  public LatencyHistogram(long sliceNanos) {
+    if (sliceNanos <= 0) {
+      throw new IllegalArgumentException("LatencyHistogram slice length must be positive: " + sliceNanos);
+    }
+    this.sliceNanos = sliceNanos;
+  }
+
+  private static int bucket(long nanos) {
+    if (nanos < (1L << MIN_MAGNITUDE)) {
+      return 0;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+    if (magnitude > MAX_MAGNITUDE) {
+      return NUM_BUCKETS - 1;
+    }
+    int sub = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return 1 + (magnitude - MIN_MAGNITUDE) * SUB_BUCKETS + sub;
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket == 0) {
+      return (1L << MIN_MAGNITUDE) - 1;
+    }
+    int magnitude = (bucket - 1) / SUB_BUCKETS + MIN_MAGNITUDE;
+    int sub = (bucket - 1) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+  }
+
+  private void rotate(long now) {
+    if (!this.hasStarted) {
+      this.sliceStart = now;
+      this.hasStarted = true;
+      return;
+    }
+    int advance = 0;
+    while ((now - this.sliceStart >= this.sliceNanos) && (advance < NUM_SLICES)) {
+      this.slice = (this.slice + 1) % NUM_SLICES;
+      Arrays.fill(this.counts[this.slice], 0);
+      this.sliceCount[this.slice] = 0;
+      this.sliceSum[this.slice] = 0;
+      this.sliceMax[this.slice] = 0;
+      this.sliceStart += this.sliceNanos;
+      ++advance;
+    }
+    if (now - this.sliceStart >= this.sliceNanos) {
+      // Idle for longer than the whole window, every slice is clear now
+      this.sliceStart = now;
+    }
+  }
+
+  /**
+   * Records the duration of an operation
+   *
+   * @param startNanos Value of System.nanoTime() when the operation started
+   * @param endNanos Value of System.nanoTime() when the operation finished
+   * @return Duration in nanoseconds
+   */
+  public long record(long startNanos, long endNanos) {
+    rotate(endNanos);
+    long nanos = Math.max(0, endNanos - startNanos);
+    int slice = this.slice;
+    ++this.counts[slice][bucket(nanos)];
+    ++this.sliceCount[slice];
+    this.sliceSum[slice] += nanos;
+    if (nanos > this.sliceMax[slice]) {
+      this.sliceMax[slice] = nanos;
+    }
+    this.last = nanos;
+    return nanos;
+  }
+
+  /**
+   * Clears all recorded values
+   */
+  public void reset() {
+    for (int i = 0; i < NUM_SLICES; ++i) {
+      Arrays.fill(this.counts[i], 0);
+      this.sliceCount[i] = 0;
+      this.sliceSum[i] = 0;
+      this.sliceMax[i] = 0;
+    }
+    this.last = 0;
+    this.hasStarted = false;
+  }
+
+  /**
+   * Most recently recorded duration
+   *
+   * @return Duration in nanoseconds
+   */
+  public long getLast() {
+    return this.last;
+  }
+
+  /**
+   * Number of values recorded in the rolling window
+   *
+   * @return Number of recorded values
+   */
+  public long getCount() {
+    long count = 0;
+    for (int c : this.sliceCount) {
+      count += c;
+    }
+    return count;
+  }
+
+  /**
+   * Largest value recorded in the rolling window
+   *
+   * @return Maximum duration in nanoseconds
+   */
+  public long getMax() {
+    long max = 0;
+    for (long m : this.sliceMax) {
+      max = Math.max(max, m);
+    }
+    return max;
+  }
+
+  /**
+   * Mean of the values recorded in the rolling window
+   *
+   * @return Mean duration in nanoseconds
+   */
+  public long getMean() {
+    long count = 0, sum = 0;
+    for (int i = 0; i < NUM_SLICES; ++i) {
+      count += this.sliceCount[i];
+      sum += this.sliceSum[i];
+    }
+    return (count > 0) ? (sum / count) : 0;
+  }
+
+  /**
+   * Value at a given percentile of the rolling window. The result is the upper
+   * bound of the bucket that the percentile falls in, limited by the maximum.
+   *
+   * @param percentile Percentile, from 0-100
+   * @return Duration in nanoseconds
+   */
+  public long getPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long target = (long) Math.ceil(LXUtils.constrain(percentile, 0, 100) / 100. * count);
+    if (target < 1) {
+      target = 1;
+    }
+    long total = 0;
+    for (int b = 0; b < NUM_BUCKETS; ++b) {
+      for (int s = 0; s < NUM_SLICES; ++s) {
+        total += this.counts[s][b];
+      }
+      if (total >= target) {
+        return Math.min(upperBound(b), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Value at a given percentile of the rolling window, in milliseconds
+   *
+   * @param percentile Percentile, from 0-100
+   * @return Duration in milliseconds
+   */
+  public float getPercentileMs(double percentile) {
+    return getPercentile(percentile) / 1000000f;
+  }
+
+  /**
+   * Largest value recorded in the rolling window, in milliseconds
+   *
+   * @return Maximum duration in milliseconds
+   */
+  public float getMaxMs() {
+    return getMax() / 1000000f;
+  }
+
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.utils;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free linked queue that any number of threads may add to, but only one
+ * thread may drain. Adding an item is a single atomic swap and never blocks, no
+ * matter what the consuming thread is doing.
+ *
+ * The queue may be given a capacity, beyond which new items are dropped and
+ * counted rather than letting a flood of input grow the queue without bound.
+ * Draining only consumes the items that were present when it began, up to a
+ * limit, so that items added while draining wait for the next drain.
+ *
+ * @param <T> Type of item in the queue
+ */
+public class MpscQueue<T> {
+
+  private static class Node<T> {
+    private T item;
+    private volatile Node<T> next = null;
+
+    private Node(T item) {
+      this.item = item;
+    }
+  }
+
+  /**
+   * Capacity value for a queue that never drops items
+   */
+  public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+  private final int capacity;
+
+  // Most recently added node, swapped by producers
+  private final AtomicReference<Node<T>> tail;
+
+  // Node preceding the next item to remove, only touched by the consumer
+  private Node<T> head;
+
+  private final AtomicInteger size = new AtomicInteger(0);
+
+  private final AtomicLong droppedCount = new AtomicLong(0);
+
+  private volatile long deferredCount = 0;
+
+  /**
+   * Constructs an unbounded queue
+   */
+  public MpscQueue() {
+    this(UNBOUNDED);
+  }
+
+  /**
+   * Constructs a queue that holds at most a given number of items
+   *
+   * @param capacity Maximum number of items
+   */
+  public MpscQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("MpscQueue capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.head = new Node<T>(null);
+    this.tail = new AtomicReference<Node<T>>(this.head);
+  }
+
+  /**
+   * Adds an item to the queue. May be called from any thread.
+   *
+   * @param item Item to add
+   * @return true if the item was added, false if the queue was full and it was dropped
+   */
+  public boolean add(T item) {
+    Objects.requireNonNull(item, "May not add null item to MpscQueue");
+    if (this.size.incrementAndGet() > this.capacity) {
+      this.size.decrementAndGet();
+      this.droppedCount.incrementAndGet();
+      return false;
+    }
+    Node<T> node = new Node<T>(item);
+    this.tail.getAndSet(node).next = node;
+    return true;
+  }
+
+  /**
+   * Removes the next item from the queue. Only to be called by the consuming thread.
+   *
+   * @return Next item, or null if there is none
+   */
+  public T poll() {
+    Node<T> next = this.head.next;
+    if (next == null) {
+      // Either empty, or a producer has swapped the tail but not yet linked it
+      return null;
+    }
+    T item = next.item;
+    next.item = null;
+    this.head = next;
+    this.size.decrementAndGet();
+    return item;
+  }
+
+  /**
+   * Removes the items present in the queue when this method is invoked, up to a
+   * limit, passing each one to the consumer. Items added while draining are left for
+   * the next drain. Only to be called by the consuming thread.
+   *
+   * @param consumer Receives each item
+   * @param limit Maximum number of items to remove
+   * @return Number of items removed
+   */
+  public int drain(Consumer<? super T> consumer, int limit) {
+    int available = this.size.get();
+    int count = Math.min(available, limit);
+    int drained = 0;
+    while (drained < count) {
+      T item = poll();
+      if (item == null) {
+        break;
+      }
+      ++drained;
+      consumer.accept(item);
+    }
+    if (available > limit) {
+      this.deferredCount += available - limit;
+    }
+    return drained;
+  }
+
+  /**
+   * Approximate number of items in the queue
+   *
+   * @return Number of items
+   */
+  public int size() {
+    return this.size.get();
+  }
+
+  public boolean isEmpty() {
+    return this.size.get() == 0;
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Total number of items dropped because the queue was full
+   *
+   * @return Number of items dropped
+   */
+  public long getDroppedCount() {
+    return this.droppedCount.get();
+  }
+
+  /**
+   * Total number of times an item was left in the queue because a drain hit its limit.
+   * An item that is left over several drains is counted each time.
+   *
+   * @return Number of items deferred by drains
+   */
+  public long getDeferredCount() {
+    return this.deferredCount;
+  }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the worker threads of a ForkJoinPool, naming them with a label and a
+ * sequence number. A pool may create workers from several threads at once, and a
+ * factory may be shared by successive pools, so the numbering is atomic.
+ */
+public class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+  private final String label;
+
+  private final AtomicInteger workerCount = new AtomicInteger(1);
+
+  /**
+   * Constructs a factory for named worker threads
+   *
+   * @param label Label for threads, followed by their sequence number
+   */
+  public WorkerThreadFactory(String label) {
+    this.label = label;
+  }
+
+  @Override
+  public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName(this.label + " #" + this.workerCount.getAndIncrement());
+    return thread;
+  }
+
+}
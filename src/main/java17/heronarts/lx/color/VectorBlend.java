@@ -0,0 +1,83 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.color;
+
+/**
+ * SIMD versions of the buffer blend functions in {@link LXColor}, for Java 17 and
+ * above. The Vector API is still an incubator module, which is only present if
+ * the JVM was started with <code>--add-modules jdk.incubator.vector</code>. The
+ * kernels are kept in {@link VectorBlendKernels} so that none of the Vector API
+ * classes are loaded unless the module is there. Otherwise, and if the platform
+ * has no vector registers, the scalar loops in {@link LXColor} are used.
+ */
+class VectorBlend {
+
+  /**
+   * Whether the SIMD blend functions may be used
+   */
+  static final boolean ENABLED = isEnabled();
+
+  private static boolean isEnabled() {
+    if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      return false;
+    }
+    try {
+      return VectorBlendKernels.isSupported();
+    } catch (LinkageError x) {
+      return false;
+    }
+  }
+
+  static void lerp(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.lerp(dst, src, alpha, output, start, end);
+  }
+
+  static void add(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.add(dst, src, alpha, output, start, end);
+  }
+
+  static void subtract(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.subtract(dst, src, alpha, output, start, end);
+  }
+
+  static void multiply(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.multiply(dst, src, alpha, output, start, end);
+  }
+
+  static void screen(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.screen(dst, src, alpha, output, start, end);
+  }
+
+  static void lightest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.lightest(dst, src, alpha, output, start, end);
+  }
+
+  static void darkest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.darkest(dst, src, alpha, output, start, end);
+  }
+
+  static void difference(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    VectorBlendKernels.difference(dst, src, alpha, output, start, end);
+  }
+
+  static void dissolve(int[] dst, int[] src, int srcAlpha, int[] output, int start, int end) {
+    VectorBlendKernels.dissolve(dst, src, srcAlpha, output, start, end);
+  }
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.color;
+
+import static heronarts.lx.color.LXColor.ALPHA_SHIFT;
+import static heronarts.lx.color.LXColor.B_MASK;
+import static heronarts.lx.color.LXColor.G_MASK;
+import static heronarts.lx.color.LXColor.RB_MASK;
+import static heronarts.lx.color.LXColor.R_MASK;
+import static heronarts.lx.color.LXColor.R_SHIFT;
+import static jdk.incubator.vector.VectorOperators.ASHR;
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations of the buffer blend functions. Each is a lane-wise
+ * transcription of the corresponding per-color function in {@link LXColor}, and
+ * produces bit-identical results. Any remainder that does not fill a vector is
+ * blended with the per-color function.
+ */
+class VectorBlendKernels {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  static boolean isSupported() {
+    return SPECIES.length() > 1;
+  }
+
+  // Effective alpha of the source, scaled by the alpha mask
+  private static IntVector alpha(IntVector s, int alpha) {
+    return s.lanewise(LSHR, ALPHA_SHIFT).mul(alpha).lanewise(ASHR, 8).and(0xff);
+  }
+
+  // Rounds up the effective alpha so that 0xff maps to 0x100
+  private static IntVector srcAlpha(IntVector a) {
+    return a.add(1, a.compare(GE, 0x7f));
+  }
+
+  // Output alpha channel, the sum of the alphas with 255 clip
+  private static IntVector alphaChannel(IntVector d, IntVector a) {
+    return d.lanewise(LSHR, ALPHA_SHIFT).add(a).min(0xff).lanewise(LSHL, ALPHA_SHIFT);
+  }
+
+  // Mixes dst and src channels by their alpha weights
+  private static IntVector mix(IntVector dst, IntVector dstAlpha, IntVector src, IntVector srcAlpha, int mask) {
+    return dst.mul(dstAlpha).add(src.mul(srcAlpha)).lanewise(LSHR, 8).and(mask);
+  }
+
+  static void lerp(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      alphaChannel(d, a)
+        .or(mix(d.and(RB_MASK), dstAlpha, s.and(RB_MASK), srcAlpha, RB_MASK))
+        .or(mix(d.and(G_MASK), dstAlpha, s.and(G_MASK), srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.lerp(dst[i], src[i], alpha);
+    }
+  }
+
+  static void add(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector rb = d.and(RB_MASK).add(s.and(RB_MASK).mul(srcAlpha).lanewise(LSHR, 8).and(RB_MASK));
+      IntVector gn = d.and(G_MASK).add(s.and(G_MASK).mul(srcAlpha).lanewise(LSHR, 8));
+      alphaChannel(d, a)
+        .or(rb.and(0xffff0000).min(R_MASK))
+        .or(gn.and(0x00ffff00).min(G_MASK))
+        .or(rb.and(0x0000ffff).min(B_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.add(dst[i], src[i], alpha);
+    }
+  }
+
+  static void subtract(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector rb = s.and(RB_MASK).mul(srcAlpha).lanewise(LSHR, 8);
+      IntVector gn = s.and(G_MASK).mul(srcAlpha).lanewise(LSHR, 8);
+      alphaChannel(d, a)
+        .or(d.and(R_MASK).sub(rb.and(R_MASK)).max(0))
+        .or(d.and(G_MASK).sub(gn.and(G_MASK)).max(0))
+        .or(d.and(B_MASK).sub(rb.and(B_MASK)).max(0))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.subtract(dst[i], src[i], alpha);
+    }
+  }
+
+  static void multiply(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      IntVector dstG = d.and(G_MASK);
+      IntVector dstR = d.and(R_MASK).lanewise(ASHR, R_SHIFT);
+      IntVector dstB = d.and(B_MASK);
+      IntVector rb = s.and(R_MASK).mul(dstR.add(1))
+        .or(s.and(B_MASK).mul(dstB.add(1)))
+        .lanewise(LSHR, 8).and(RB_MASK);
+      IntVector g = s.and(G_MASK).mul(dstG.add(0x100)).lanewise(LSHR, 16).and(G_MASK);
+      alphaChannel(d, a)
+        .or(mix(d.and(RB_MASK), dstAlpha, rb, srcAlpha, RB_MASK))
+        .or(mix(dstG, dstAlpha, g, srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.multiply(dst[i], src[i], alpha);
+    }
+  }
+
+  static void screen(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      IntVector dstRb = d.and(RB_MASK);
+      IntVector dstGn = d.and(G_MASK);
+      IntVector srcGn = s.and(G_MASK);
+      IntVector dstR = d.and(R_MASK).lanewise(ASHR, R_SHIFT);
+      IntVector dstB = d.and(B_MASK);
+      IntVector rbSub = s.and(R_MASK).mul(dstR.add(1))
+        .or(s.and(B_MASK).mul(dstB.add(1)))
+        .lanewise(LSHR, 8).and(RB_MASK);
+      IntVector gnSub = srcGn.mul(dstGn.add(0x100)).lanewise(ASHR, 16).and(G_MASK);
+      alphaChannel(d, a)
+        .or(mix(dstRb, dstAlpha, dstRb.add(s.and(RB_MASK)).sub(rbSub), srcAlpha, RB_MASK))
+        .or(mix(dstGn, dstAlpha, dstGn.add(srcGn).sub(gnSub), srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.screen(dst[i], src[i], alpha);
+    }
+  }
+
+  static void lightest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      IntVector rb = s.and(R_MASK).max(d.and(R_MASK)).or(s.and(B_MASK).max(d.and(B_MASK)));
+      IntVector gn = s.and(G_MASK).max(d.and(G_MASK));
+      alphaChannel(d, a)
+        .or(mix(d.and(RB_MASK), dstAlpha, rb, srcAlpha, RB_MASK))
+        .or(mix(d.and(G_MASK), dstAlpha, gn, srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.lightest(dst[i], src[i], alpha);
+    }
+  }
+
+  static void darkest(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      IntVector rb = s.and(R_MASK).min(d.and(R_MASK)).or(s.and(B_MASK).min(d.and(B_MASK)));
+      IntVector gn = s.and(G_MASK).min(d.and(G_MASK));
+      alphaChannel(d, a)
+        .or(mix(d.and(RB_MASK), dstAlpha, rb, srcAlpha, RB_MASK))
+        .or(mix(d.and(G_MASK), dstAlpha, gn, srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.darkest(dst[i], src[i], alpha);
+    }
+  }
+
+  static void difference(int[] dst, int[] src, int alpha, int[] output, int start, int end) {
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      IntVector a = alpha(s, alpha);
+      IntVector srcAlpha = srcAlpha(a);
+      IntVector dstAlpha = srcAlpha.neg().add(0x100);
+      IntVector rb = d.and(R_MASK).sub(s.and(R_MASK)).abs().or(d.and(B_MASK).sub(s.and(B_MASK)).abs());
+      IntVector gn = d.and(G_MASK).sub(s.and(G_MASK)).abs();
+      alphaChannel(d, a)
+        .or(mix(d.and(RB_MASK), dstAlpha, rb, srcAlpha, RB_MASK))
+        .or(mix(d.and(G_MASK), dstAlpha, gn, srcAlpha, G_MASK))
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.difference(dst[i], src[i], alpha);
+    }
+  }
+
+  static void dissolve(int[] dst, int[] src, int srcAlpha, int[] output, int start, int end) {
+    final int dstAlpha = 0x100 - srcAlpha;
+    final int upper = start + SPECIES.loopBound(end - start);
+    int i = start;
+    for (; i < upper; i += SPECIES.length()) {
+      IntVector d = IntVector.fromArray(SPECIES, dst, i);
+      IntVector s = IntVector.fromArray(SPECIES, src, i);
+      d.and(RB_MASK).mul(dstAlpha).add(s.and(RB_MASK).mul(srcAlpha)).lanewise(LSHR, 8).and(RB_MASK)
+        .or(d.and(G_MASK).mul(dstAlpha).add(s.and(G_MASK).mul(srcAlpha)).lanewise(LSHR, 8).and(G_MASK))
+        .or(0xff << ALPHA_SHIFT)
+        .intoArray(output, i);
+    }
+    for (; i < end; ++i) {
+      output[i] = LXColor.dissolve(dst[i], src[i], srcAlpha);
+    }
+  }
+
+}
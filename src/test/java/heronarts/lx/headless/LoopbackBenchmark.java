@@ -0,0 +1,258 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.headless;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+import heronarts.lx.LX;
+import heronarts.lx.LXEngine;
+import heronarts.lx.model.GridModel;
+import heronarts.lx.output.ArtNetDatagram;
+import heronarts.lx.output.ArtSyncDatagram;
+import heronarts.lx.output.DDPDatagram;
+import heronarts.lx.output.KinetDatagram;
+import heronarts.lx.output.LXOutput;
+import heronarts.lx.output.OPCSocket;
+import heronarts.lx.output.StreamingACNDatagram;
+import heronarts.lx.output.StreamingACNSyncDatagram;
+import heronarts.lx.pattern.LXPattern;
+
+/**
+ * Headless end-to-end output benchmark. For each protocol, the engine runs with a
+ * growing number of universes, sending to a {@link LoopbackReceiver} on localhost,
+ * until it can no longer meet its frame deadlines or deliver complete frames.
+ *
+ * Usage: LoopbackBenchmark [artnet|sacn|ddp|kinet|opc|all] [fps] [seconds per step]
+ */
+public class LoopbackBenchmark {
+
+  /**
+   * Number of points in each universe, fills a 512-byte DMX universe
+   */
+  public static final int POINTS_PER_UNIVERSE = 170;
+
+  private static final int SYNC_UNIVERSE = 63999;
+
+  private static final long WARMUP_MS = 1000;
+
+  /**
+   * Fraction of the target frame rate, and of complete frames, below which a step
+   * is considered to have missed its deadlines
+   */
+  private static final double DEADLINE_THRESHOLD = 0.95;
+
+  /**
+   * Renders a payload that the receivers can validate packet by packet. The red
+   * channel of every point holds the 8-bit frame number, and the green and blue
+   * channels hold the low 16 bits of the point index. The engine start time of each
+   * frame is recorded so that receivers can measure latency.
+   */
+  public static class BenchmarkPattern extends LXPattern {
+
+    private final LoopbackReceiver.FrameLog frameLog;
+
+    private int frame = 0;
+
+    public BenchmarkPattern(LX lx, LoopbackReceiver.FrameLog frameLog) {
+      super(lx);
+      this.frameLog = frameLog;
+    }
+
+    @Override
+    public void run(double deltaMs) {
+      this.frame = (this.frame + 1) & 0xff;
+      this.frameLog.mark(this.frame, this.lx.engine.getRunStartNanos());
+      int frameBits = 0xff000000 | (this.frame << 16);
+      for (int i = 0; i < this.colors.length; ++i) {
+        this.colors[i] = frameBits | (i & 0xffff);
+      }
+    }
+  }
+
+  private enum Protocol {
+    ARTNET(4096),
+    SACN(4096),
+    DDP(4096),
+    KINET(256),
+    OPC(256);
+
+    private final int maxUniverses;
+
+    private Protocol(int maxUniverses) {
+      this.maxUniverses = maxUniverses;
+    }
+
+    private LoopbackReceiver createReceiver(LoopbackReceiver.FrameLog frameLog) throws IOException {
+      switch (this) {
+      case ARTNET: return new LoopbackReceiver.ArtNet(frameLog);
+      case SACN: return new LoopbackReceiver.StreamingACN(frameLog);
+      case DDP: return new LoopbackReceiver.DDP(frameLog);
+      case KINET: return new LoopbackReceiver.Kinet(frameLog);
+      case OPC: return new LoopbackReceiver.OPC(frameLog);
+      default: throw new IllegalStateException("Unknown protocol: " + this);
+      }
+    }
+
+    // Adds the output for a universe, and registers it with the receiver
+    private LXOutput createOutput(LX lx, LoopbackReceiver receiver, int universe) {
+      int startPoint = universe * POINTS_PER_UNIVERSE;
+      int[] indexBuffer = new int[POINTS_PER_UNIVERSE];
+      for (int i = 0; i < indexBuffer.length; ++i) {
+        indexBuffer[i] = startPoint + i;
+      }
+      switch (this) {
+      case ARTNET:
+        receiver.expect(universe, startPoint, POINTS_PER_UNIVERSE);
+        return new ArtNetDatagram(lx, indexBuffer, universe);
+      case SACN:
+        receiver.expect(universe + 1, startPoint, POINTS_PER_UNIVERSE);
+        return new StreamingACNDatagram(lx, indexBuffer, universe + 1).setSyncAddress(SYNC_UNIVERSE);
+      case DDP:
+        receiver.expect(startPoint * 3, startPoint, POINTS_PER_UNIVERSE);
+        return new DDPDatagram(lx, indexBuffer, startPoint * 3);
+      case KINET:
+        receiver.expect(universe, startPoint, POINTS_PER_UNIVERSE);
+        return new KinetDatagram(lx, indexBuffer, universe);
+      case OPC:
+        receiver.expect(universe, startPoint, POINTS_PER_UNIVERSE);
+        return new OPCSocket(lx, indexBuffer, (byte) universe);
+      default:
+        throw new IllegalStateException("Unknown protocol: " + this);
+      }
+    }
+
+    // Sync packet sent after all of the data, if the protocol has one
+    private LXOutput createSyncOutput(LX lx) {
+      switch (this) {
+      case ARTNET:
+        return new ArtSyncDatagram(lx);
+      case SACN:
+        return new StreamingACNSyncDatagram(lx, SYNC_UNIVERSE).setMulticast(false);
+      default:
+        return null;
+      }
+    }
+  }
+
+  private static class Result {
+    private boolean missed;
+    private String summary;
+  }
+
+  public static void main(String[] args) {
+    try {
+      String which = (args.length > 0) ? args[0].toUpperCase() : "ALL";
+      double fps = (args.length > 1) ? Double.parseDouble(args[1]) : 60;
+      double seconds = (args.length > 2) ? Double.parseDouble(args[2]) : 3;
+      Protocol[] protocols = which.equals("ALL") ? Protocol.values() : new Protocol[] { Protocol.valueOf(which) };
+      for (Protocol protocol : protocols) {
+        LX.log("Benchmarking " + protocol + " at " + fps + "fps");
+        int lastPassed = 0;
+        for (int universes = 1; universes <= protocol.maxUniverses; universes *= 2) {
+          Result result = runStep(protocol, universes, fps, seconds);
+          LX.log(protocol + " " + result.summary);
+          if (result.missed) {
+            break;
+          }
+          lastPassed = universes;
+        }
+        LX.log(protocol + " sustained " + lastPassed + " universes (" + (lastPassed * POINTS_PER_UNIVERSE) + " points) at " + fps + "fps");
+      }
+    } catch (Exception x) {
+      LX.error(x);
+    }
+    System.exit(0);
+  }
+
+  private static Result runStep(Protocol protocol, int universes, double fps, double seconds) throws Exception {
+    LoopbackReceiver.FrameLog frameLog = new LoopbackReceiver.FrameLog();
+    LoopbackReceiver receiver = protocol.createReceiver(frameLog);
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+
+    LX lx = new LX(new GridModel(POINTS_PER_UNIVERSE, universes));
+    lx.engine.mixer.addChannel(new LXPattern[] { new BenchmarkPattern(lx, frameLog) }).fader.setValue(1);
+    for (int u = 0; u < universes; ++u) {
+      addOutput(lx, protocol.createOutput(lx, receiver, u), loopback, receiver.getPort());
+    }
+    LXOutput sync = protocol.createSyncOutput(lx);
+    if (sync != null) {
+      addOutput(lx, sync, loopback, receiver.getPort());
+    }
+    lx.engine.framesPerSecond.setValue(fps);
+    lx.engine.start();
+
+    Result result = new Result();
+    try {
+      Thread.sleep(WARMUP_MS);
+      receiver.reset();
+      long start = System.nanoTime();
+      Thread.sleep((long) (seconds * 1000));
+      double elapsed = (System.nanoTime() - start) / 1e9;
+
+      float p50 = receiver.latency.getPercentileMs(50);
+      float p99 = receiver.latency.getPercentileMs(99);
+      LoopbackReceiver.Stats stats = receiver.reset();
+      float actualFps = lx.engine.getActualFrameRate();
+      LXEngine.FrameTiming timing = lx.engine.getFrameTiming();
+
+      double expectedFrames = fps * elapsed;
+      double completeness = stats.completeFrames / expectedFrames;
+      result.missed =
+        (actualFps < DEADLINE_THRESHOLD * fps) ||
+        (completeness < DEADLINE_THRESHOLD) ||
+        (stats.invalidPackets > 0);
+      result.summary = String.format(
+        "universes=%d points=%d fps=%.1f p99Frame=%.2fms packets/s=%.0f MB/s=%.2f complete=%.1f%% incomplete=%d invalid=%d unknown=%d stale=%d latency p50=%.2fms p99=%.2fms sync=%d syncBeforeData=%d dataAfterSync=%d%s",
+        universes,
+        universes * POINTS_PER_UNIVERSE,
+        actualFps,
+        timing.p99Ms,
+        stats.packets / elapsed,
+        stats.bytes / elapsed / 1e6,
+        100 * completeness,
+        stats.incompleteFrames,
+        stats.invalidPackets,
+        stats.unknownPackets,
+        stats.stalePackets,
+        p50,
+        p99,
+        stats.syncPackets,
+        stats.syncBeforeData,
+        stats.dataAfterSync,
+        result.missed ? " MISSED" : ""
+      );
+    } finally {
+      lx.engine.stop();
+      lx.dispose();
+      receiver.close();
+    }
+    return result;
+  }
+
+  private static void addOutput(LX lx, LXOutput output, InetAddress address, int port) {
+    LXOutput.InetOutput inetOutput = (LXOutput.InetOutput) output;
+    inetOutput.setAddress(address);
+    inetOutput.setPort(port);
+    // The payload must arrive exactly as rendered
+    output.gamma.setValue(1);
+    lx.engine.addOutput(output);
+  }
+
+}
@@ -0,0 +1,472 @@
+/**
+ * Copyright 2020- Mark C. Slee, Heron Arts LLC
+ *
+ * This file is part of the LX Studio software library. By using
+ * LX, you agree to the terms of the LX Studio Software License
+ * and Distribution Agreement, available at: http://lx.studio/license
+ *
+ * Please note that the LX license is not open-source. The license
+ * allows for free, non-commercial use.
+ *
+ * HERON ARTS MAKES NO WARRANTY, EXPRESS, IMPLIED, STATUTORY, OR
+ * OTHERWISE, AND SPECIFICALLY DISCLAIMS ANY WARRANTY OF
+ * MERCHANTABILITY, NON-INFRINGEMENT, OR FITNESS FOR A PARTICULAR
+ * PURPOSE, WITH RESPECT TO THE SOFTWARE.
+ *
+ * @author Mark C. Slee <mark@heronarts.com>
+ */
+
+package heronarts.lx.headless;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import heronarts.lx.LX;
+import heronarts.lx.utils.LatencyHistogram;
+
+/**
+ * Stand-in for a lighting controller, which receives output packets on localhost
+ * and validates their payloads against the frame that was rendered. Payloads are
+ * expected to be generated by a {@link LoopbackBenchmark.BenchmarkPattern}, which
+ * encodes the frame number in the red channel of every point and the point index in
+ * the green and blue channels, so that any packet can be checked on its own.
+ *
+ * Each receiver is told which keys (universes, channels, offsets, depending on the
+ * protocol) make up a frame, and which points each of them carries. It measures
+ * packet counts, how many frames arrived complete, latency from the start of the
+ * engine frame to receipt, and whether sync packets arrived after all of a frame's
+ * data.
+ */
+public abstract class LoopbackReceiver {
+
+  /**
+   * Record of the engine start time of recently rendered frames, indexed by the
+   * 8-bit frame number that is encoded in the payload
+   */
+  public static class FrameLog {
+
+    private final AtomicLongArray startNanos = new AtomicLongArray(256);
+
+    public void mark(int frame, long nanos) {
+      this.startNanos.set(frame & 0xff, nanos);
+    }
+
+    public long get(int frame) {
+      return this.startNanos.get(frame & 0xff);
+    }
+  }
+
+  /**
+   * Snapshot of the statistics of a receiver
+   */
+  public static class Stats {
+    public long packets = 0;
+    public long bytes = 0;
+    public long invalidPackets = 0;
+    public long unknownPackets = 0;
+    public long stalePackets = 0;
+    public long completeFrames = 0;
+    public long incompleteFrames = 0;
+    public long syncPackets = 0;
+    public long syncBeforeData = 0;
+    public long dataAfterSync = 0;
+  }
+
+  private static class Segment {
+    private final int startPoint;
+    private final int numPoints;
+
+    private Segment(int startPoint, int numPoints) {
+      this.startPoint = startPoint;
+      this.numPoints = numPoints;
+    }
+  }
+
+  public final String protocol;
+
+  private final FrameLog frameLog;
+
+  private final Map<Integer, Segment> segments = new HashMap<Integer, Segment>();
+
+  private final Set<Integer> received = new HashSet<Integer>();
+
+  private Stats stats = new Stats();
+
+  private int currentFrame = -1;
+
+  private int syncedFrame = -1;
+
+  private boolean hasData = false;
+
+  /**
+   * Latency from the start of the engine frame to receipt of each data packet
+   */
+  public final LatencyHistogram latency = new LatencyHistogram();
+
+  protected volatile boolean running = true;
+
+  protected LoopbackReceiver(String protocol, FrameLog frameLog) {
+    this.protocol = protocol;
+    this.frameLog = frameLog;
+  }
+
+  /**
+   * Registers a key that is expected in every frame, and the points it carries
+   *
+   * @param key Protocol-specific key of the packet
+   * @param startPoint Index of the first point in the packet
+   * @param numPoints Number of points in the packet
+   */
+  public synchronized void expect(int key, int startPoint, int numPoints) {
+    this.segments.put(key, new Segment(startPoint, numPoints));
+  }
+
+  /**
+   * Gets the statistics gathered since the last call, and resets them
+   *
+   * @return Statistics
+   */
+  public synchronized Stats reset() {
+    Stats stats = this.stats;
+    this.stats = new Stats();
+    this.latency.reset();
+    return stats;
+  }
+
+  /**
+   * Port that this receiver is listening on
+   *
+   * @return Port number
+   */
+  public abstract int getPort();
+
+  /**
+   * Stops receiving
+   */
+  public abstract void close();
+
+  protected synchronized void onData(int key, byte[] data, int offset, int length, int packetLength) {
+    long now = System.nanoTime();
+    ++this.stats.packets;
+    this.stats.bytes += packetLength;
+    Segment segment = this.segments.get(key);
+    if (segment == null) {
+      ++this.stats.unknownPackets;
+      return;
+    }
+    if (length < segment.numPoints * 3) {
+      ++this.stats.invalidPackets;
+      return;
+    }
+    int frame = data[offset] & 0xff;
+    for (int i = 0; i < segment.numPoints; ++i) {
+      int o = offset + 3*i;
+      int index = (segment.startPoint + i) & 0xffff;
+      if (((data[o] & 0xff) != frame) ||
+          ((data[o+1] & 0xff) != (index >>> 8)) ||
+          ((data[o+2] & 0xff) != (index & 0xff))) {
+        ++this.stats.invalidPackets;
+        return;
+      }
+    }
+    long startNanos = this.frameLog.get(frame);
+    if (startNanos != 0) {
+      this.latency.record(startNanos, now);
+    }
+    if (frame != this.currentFrame) {
+      if (this.hasData && (((frame - this.currentFrame) & 0xff) > 128)) {
+        // Packet from a frame we've already moved past
+        ++this.stats.stalePackets;
+        return;
+      }
+      finishFrame();
+      this.currentFrame = frame;
+      this.hasData = true;
+    }
+    if (frame == this.syncedFrame) {
+      ++this.stats.dataAfterSync;
+    }
+    this.received.add(key);
+  }
+
+  protected synchronized void onSync(int packetLength) {
+    ++this.stats.packets;
+    ++this.stats.syncPackets;
+    this.stats.bytes += packetLength;
+    if (this.hasData && (this.syncedFrame != this.currentFrame)) {
+      if (this.received.size() < this.segments.size()) {
+        ++this.stats.syncBeforeData;
+      }
+      this.syncedFrame = this.currentFrame;
+    }
+  }
+
+  private void finishFrame() {
+    if (this.hasData) {
+      if (this.received.size() >= this.segments.size()) {
+        ++this.stats.completeFrames;
+      } else {
+        ++this.stats.incompleteFrames;
+      }
+    }
+    this.received.clear();
+  }
+
+  private static int uint16(byte[] data, int offset) {
+    return ((data[offset] & 0xff) << 8) | (data[offset + 1] & 0xff);
+  }
+
+  /**
+   * Base class for receivers of UDP protocols, with a thread reading packets from
+   * a socket bound to an ephemeral localhost port
+   */
+  public static abstract class Udp extends LoopbackReceiver {
+
+    private final DatagramSocket socket;
+
+    private final Thread thread;
+
+    protected Udp(String protocol, FrameLog frameLog) throws IOException {
+      super(protocol, frameLog);
+      this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+      this.socket.setReceiveBufferSize(1 << 22);
+      this.thread = new Thread("LoopbackReceiver " + protocol) {
+        @Override
+        public void run() {
+          DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+          while (running) {
+            try {
+              socket.receive(packet);
+              receive(packet.getData(), packet.getLength());
+            } catch (SocketException sx) {
+              // Socket closed
+              break;
+            } catch (IOException iox) {
+              LX.error(iox, "LoopbackReceiver " + protocol + " failed to receive");
+            }
+          }
+        }
+      };
+      this.thread.setDaemon(true);
+      this.thread.start();
+    }
+
+    protected abstract void receive(byte[] data, int length);
+
+    @Override
+    public int getPort() {
+      return this.socket.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+      this.running = false;
+      this.socket.close();
+    }
+  }
+
+  /**
+   * Art-Net receiver, keyed by universe. Handles ArtDmx and ArtSync packets.
+   */
+  public static class ArtNet extends Udp {
+
+    private static final int OP_DMX = 0x5000;
+    private static final int OP_SYNC = 0x5200;
+
+    public ArtNet(FrameLog frameLog) throws IOException {
+      super("Art-Net", frameLog);
+    }
+
+    @Override
+    protected void receive(byte[] data, int length) {
+      if (length < 10 || data[0] != 'A' || data[7] != 0) {
+        onData(-1, data, 0, 0, length);
+        return;
+      }
+      int opCode = (data[8] & 0xff) | ((data[9] & 0xff) << 8);
+      if (opCode == OP_SYNC) {
+        onSync(length);
+      } else if (opCode == OP_DMX && length >= 18) {
+        int universe = (data[14] & 0xff) | ((data[15] & 0xff) << 8);
+        onData(universe, data, 18, Math.min(uint16(data, 16), length - 18), length);
+      } else {
+        onData(-1, data, 0, 0, length);
+      }
+    }
+  }
+
+  /**
+   * E1.31 receiver, keyed by universe. Handles data and synchronization packets.
+   */
+  public static class StreamingACN extends Udp {
+
+    private static final int VECTOR_ROOT_E131_DATA = 0x04;
+    private static final int VECTOR_ROOT_E131_EXTENDED = 0x08;
+    private static final int VECTOR_E131_EXTENDED_SYNCHRONIZATION = 0x01;
+
+    public StreamingACN(FrameLog frameLog) throws IOException {
+      super("E1.31", frameLog);
+    }
+
+    @Override
+    protected void receive(byte[] data, int length) {
+      if (length < 44 || data[4] != 'A') {
+        onData(-1, data, 0, 0, length);
+        return;
+      }
+      int rootVector = data[21] & 0xff;
+      if (rootVector == VECTOR_ROOT_E131_EXTENDED && (data[43] & 0xff) == VECTOR_E131_EXTENDED_SYNCHRONIZATION) {
+        onSync(length);
+      } else if (rootVector == VECTOR_ROOT_E131_DATA && length >= 126) {
+        int universe = uint16(data, 113);
+        int dataLength = uint16(data, 123) - 1;
+        onData(universe, data, 126, Math.min(dataLength, length - 126), length);
+      } else {
+        // Discovery or otherwise, not part of the frame
+        onData(-1, data, 0, 0, length);
+      }
+    }
+  }
+
+  /**
+   * DDP receiver, keyed by the byte offset of the data
+   */
+  public static class DDP extends Udp {
+
+    private static final int HEADER_LENGTH = 10;
+
+    public DDP(FrameLog frameLog) throws IOException {
+      super("DDP", frameLog);
+    }
+
+    @Override
+    protected void receive(byte[] data, int length) {
+      if (length < HEADER_LENGTH) {
+        onData(-1, data, 0, 0, length);
+        return;
+      }
+      int offset =
+        ((data[4] & 0xff) << 24) |
+        ((data[5] & 0xff) << 16) |
+        ((data[6] & 0xff) << 8) |
+        (data[7] & 0xff);
+      onData(offset, data, HEADER_LENGTH, Math.min(uint16(data, 8), length - HEADER_LENGTH), length);
+    }
+  }
+
+  /**
+   * KiNET PORTOUT receiver, keyed by output port number
+   */
+  public static class Kinet extends Udp {
+
+    private static final int PORTOUT_HEADER_LENGTH = 24;
+
+    public Kinet(FrameLog frameLog) throws IOException {
+      super("KiNET", frameLog);
+    }
+
+    @Override
+    protected void receive(byte[] data, int length) {
+      if (length < PORTOUT_HEADER_LENGTH || (data[0] & 0xff) != 0x04 || (data[1] & 0xff) != 0x01) {
+        onData(-1, data, 0, 0, length);
+        return;
+      }
+      onData(data[16] & 0xff, data, PORTOUT_HEADER_LENGTH, length - PORTOUT_HEADER_LENGTH, length);
+    }
+  }
+
+  /**
+   * OPC receiver over TCP, keyed by channel. Accepts any number of connections, each
+   * of which is read on its own thread.
+   */
+  public static class OPC extends LoopbackReceiver {
+
+    private static final int HEADER_LENGTH = 4;
+
+    private final ServerSocket server;
+
+    private final List<Socket> connections = new ArrayList<Socket>();
+
+    public OPC(FrameLog frameLog) throws IOException {
+      super("OPC", frameLog);
+      this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      Thread accept = new Thread("LoopbackReceiver OPC accept") {
+        @Override
+        public void run() {
+          while (running) {
+            try {
+              Socket socket = server.accept();
+              socket.setTcpNoDelay(true);
+              synchronized (connections) {
+                connections.add(socket);
+              }
+              read(socket);
+            } catch (IOException iox) {
+              // Server closed
+              break;
+            }
+          }
+        }
+      };
+      accept.setDaemon(true);
+      accept.start();
+    }
+
+    private void read(Socket socket) {
+      Thread thread = new Thread("LoopbackReceiver OPC " + socket.getRemoteSocketAddress()) {
+        @Override
+        public void run() {
+          byte[] header = new byte[HEADER_LENGTH];
+          byte[] data = new byte[65536];
+          try {
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            while (running) {
+              input.readFully(header);
+              int length = uint16(header, 2);
+              input.readFully(data, 0, length);
+              onData(header[0] & 0xff, data, 0, length, HEADER_LENGTH + length);
+            }
+          } catch (IOException iox) {
+            // Connection closed
+          }
+        }
+      };
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public int getPort() {
+      return this.server.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+      this.running = false;
+      try {
+        this.server.close();
+        synchronized (this.connections) {
+          for (Socket socket : this.connections) {
+            socket.close();
+          }
+        }
+      } catch (IOException iox) {
+        LX.error(iox, "Error closing LoopbackReceiver OPC");
+      }
+    }
+  }
+
+}